@@ -0,0 +1,204 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero;
+
+import aero.TabulatedCoefficientModel.Axis;
+import com.jupiter.ganymede.math.geometry.Angle;
+import dynamics.AerodynamicSystem;
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Sweeps a coefficient model over a grid of state properties to build a {@link TabulatedCoefficientModel}, which can
+ * then be written out with {@link TabulatedCoefficientModel#write(java.io.File)} or
+ * {@link TabulatedCoefficientModel#writeCsv(java.io.File)}.
+ *
+ * The grid is split into blocks of consecutive points that are evaluated in parallel. Each block builds one lightweight
+ * state and steps it through its points by replacing only the axis values that change, with the values of angle axes
+ * boxed once per breakpoint, so no per-point maps or angles are allocated. Parallel generation requires a model that
+ * can be evaluated from several threads at once; generation can be made sequential for models that cannot.
+ *
+ * @author Nathan Templon
+ */
+public class AeroDatabaseGenerator {
+
+    // Constants
+    private static final int BLOCK_SIZE = 4096;
+
+
+    // Fields
+    private final AerodynamicCoefficientModel model;
+    private final double time;
+    private final Map<SystemProperty, Object> fixed;
+    private boolean parallel = true;
+
+
+    // Properties
+    public AerodynamicCoefficientModel getModel() {
+        return this.model;
+    }
+
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
+    /**
+     *
+     * @param parallel whether to evaluate the grid in parallel, which requires a model that is safe to use from
+     *                 several threads
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+
+    // Initialization
+    /**
+     * Creates a generator with every state property that is not an axis held at zero.
+     *
+     * @param model the model to sample
+     */
+    public AeroDatabaseGenerator(AerodynamicCoefficientModel model) {
+        this(model, 0.0, new LinkedHashMap<>());
+    }
+
+    /**
+     *
+     * @param model the model to sample
+     * @param time  the time of the sampled states, for models that depend on it
+     * @param fixed values of properties that are not axes of the table but are read by the model
+     */
+    public AeroDatabaseGenerator(AerodynamicCoefficientModel model, double time, Map<SystemProperty, Object> fixed) {
+        this.model = model;
+        this.time = time;
+        this.fixed = new LinkedHashMap<>(fixed);
+    }
+
+
+    // Public Methods
+    /**
+     * Evaluates the model at every point of a grid.
+     *
+     * @param axes the axes of the grid, with the last axis varying fastest
+     *
+     * @return the table of coefficients
+     */
+    public TabulatedCoefficientModel generate(Axis... axes) {
+        long pointCount = 1;
+        for (Axis axis : axes) {
+            pointCount *= axis.size();
+        }
+        if (pointCount * AerodynamicCoefficientModel.COEFFICIENT_COUNT > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A table of " + pointCount + " points is too large.");
+        }
+        int points = (int) pointCount;
+
+        SystemProperty[] properties = new SystemProperty[axes.length];
+        Object[][] boxed = new Object[axes.length][];
+        for (int i = 0; i < axes.length; i++) {
+            properties[i] = axes[i].getProperty();
+            double[] breakpoints = axes[i].getBreakpoints();
+            boxed[i] = new Object[breakpoints.length];
+            for (int j = 0; j < breakpoints.length; j++) {
+                boxed[i][j] = axes[i].isAngle() ? new Angle(breakpoints[j]) : (Object) breakpoints[j];
+            }
+        }
+
+        double[] values = new double[points * AerodynamicCoefficientModel.COEFFICIENT_COUNT];
+        int blocks = (points + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream indices = IntStream.range(0, blocks);
+        if (this.parallel) {
+            indices = indices.parallel();
+        }
+        indices.forEach((int block) -> this.generateBlock(block * BLOCK_SIZE,
+                Math.min(points, (block + 1) * BLOCK_SIZE), properties, boxed, values));
+
+        return new TabulatedCoefficientModel(axes, values);
+    }
+
+
+    // Private Methods
+    /**
+     * Evaluates a block of consecutive grid points.
+     *
+     * @param start      the index of the first point of the block
+     * @param end        the index after the last point of the block
+     * @param properties the property of each axis
+     * @param boxed      the boxed value of each breakpoint of each axis
+     * @param values     the array to write the coefficients into
+     */
+    private void generateBlock(int start, int end, SystemProperty[] properties, Object[][] boxed, double[] values) {
+        int dimensions = properties.length;
+        int[] indices = new int[dimensions];
+        int remainder = start;
+        for (int i = dimensions - 1; i >= 0; i--) {
+            indices[i] = remainder % boxed[i].length;
+            remainder /= boxed[i].length;
+        }
+
+        Map<SystemProperty, Object> props = this.baseProperties();
+        for (int i = 0; i < dimensions; i++) {
+            props.put(properties[i], boxed[i][indices[i]]);
+        }
+        SystemState state = new SystemState(this.time, null, props);
+
+        double[] coefficients = new double[AerodynamicCoefficientModel.COEFFICIENT_COUNT];
+        for (int point = start; point < end; point++) {
+            this.model.evaluateAll(state, coefficients);
+            System.arraycopy(coefficients, 0, values, point * AerodynamicCoefficientModel.COEFFICIENT_COUNT,
+                    AerodynamicCoefficientModel.COEFFICIENT_COUNT);
+
+            // Advance the indices like an odometer, updating only the axes that changed
+            for (int i = dimensions - 1; i >= 0; i--) {
+                indices[i]++;
+                if (indices[i] < boxed[i].length) {
+                    props.put(properties[i], boxed[i][indices[i]]);
+                    break;
+                }
+                indices[i] = 0;
+                props.put(properties[i], boxed[i][0]);
+            }
+        }
+    }
+
+    private Map<SystemProperty, Object> baseProperties() {
+        Map<SystemProperty, Object> props = new HashMap<>();
+        props.put(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC, new Angle(0.0));
+        props.put(AerodynamicSystem.SIDESLIP_ANGLE, new Angle(0.0));
+        props.put(AerodynamicSystem.MACH, 0.0);
+        props.put(AerodynamicSystem.REYNOLDS, 0.0);
+        props.put(AerodynamicSystem.DYNAMIC_PRESSURE, 0.0);
+        props.put(AerodynamicSystem.Q_HAT, 0.0);
+        props.put(AerodynamicSystem.ROLL_RATE, 0.0);
+        props.put(AerodynamicSystem.PITCH_RATE, 0.0);
+        props.put(AerodynamicSystem.YAW_RATE, 0.0);
+        props.putAll(this.fixed);
+        return props;
+    }
+
+}
@@ -33,6 +33,20 @@ import dynamics.SystemState;
  */
 public interface AerodynamicCoefficientModel {
     
+    // Constants
+    /**
+     * The positions of the coefficients in the array filled by {@link #evaluateAll(SystemState, double[])}.
+     */
+    public static final int CL_INDEX = 0;
+    public static final int CD_INDEX = 1;
+    public static final int CSF_INDEX = 2;
+    public static final int CPM_INDEX = 3;
+    public static final int CYM_INDEX = 4;
+    public static final int CRM_INDEX = 5;
+    public static final int COEFFICIENT_COUNT = 6;
+    
+    
+    // Public Methods
     double cl(SystemState state);
     double cd(SystemState state);
     double csf(SystemState state);
@@ -40,4 +54,20 @@ public interface AerodynamicCoefficientModel {
     double cym(SystemState state);
     double crm(SystemState state);
     
+    /**
+     * Evaluates all six coefficients for a state. Models should override this to compute terms shared between the
+     * coefficients only once.
+     * 
+     * @param state the state to evaluate the coefficients for
+     * @param out   the array to write the coefficients into, at the positions given by the index constants
+     */
+    default void evaluateAll(SystemState state, double[] out) {
+        out[CL_INDEX] = this.cl(state);
+        out[CD_INDEX] = this.cd(state);
+        out[CSF_INDEX] = this.csf(state);
+        out[CPM_INDEX] = this.cpm(state);
+        out[CYM_INDEX] = this.cym(state);
+        out[CRM_INDEX] = this.crm(state);
+    }
+    
 }
@@ -26,6 +26,7 @@ package aero;
 import com.jupiter.ganymede.math.function.SingleVariableRealFunction;
 import com.jupiter.ganymede.math.geometry.Angle;
 import com.jupiter.ganymede.math.geometry.Angle.AngleType;
+import util.RealFunction;
 
 /**
  *
@@ -45,55 +46,60 @@ public class Airfoil {
     
     // Protected Members
     protected String name;
-    protected SingleVariableRealFunction liftCoeff;
-    protected SingleVariableRealFunction dragCoeff;
-    protected SingleVariableRealFunction pmCoeff;
+    protected RealFunction liftCoeff;
+    protected RealFunction dragCoeff;
+    protected RealFunction pmCoeff;
     
     
     // Initialization
-    public Airfoil(String name, SingleVariableRealFunction liftCoeff,
-                    SingleVariableRealFunction dragCoeff,
-                    SingleVariableRealFunction pmCoeff) {
+    public Airfoil(String name, RealFunction liftCoeff, RealFunction dragCoeff, RealFunction pmCoeff) {
+        this.name = name;
         this.liftCoeff = liftCoeff;
         this.dragCoeff = dragCoeff;
         this.pmCoeff = pmCoeff;
     }
     
+    public Airfoil(String name, SingleVariableRealFunction liftCoeff,
+                    SingleVariableRealFunction dragCoeff,
+                    SingleVariableRealFunction pmCoeff) {
+        this(name, RealFunction.of(liftCoeff), RealFunction.of(dragCoeff), RealFunction.of(pmCoeff));
+    }
+    
     
     // Public Methods
     public double cl(Angle alpha) {
-        return this.liftCoeff.apply(getDataMeasureFor(alpha));
+        return this.liftCoeff.applyAsDouble(getDataMeasureFor(alpha));
     }
     
     public double cl(double alpha) {
-        return this.liftCoeff.apply(alpha);
+        return this.liftCoeff.applyAsDouble(alpha);
     }
     
-    public SingleVariableRealFunction clFunction() {
+    public RealFunction clFunction() {
         return this.liftCoeff;
     }
     
     public double cd(Angle alpha) {
-        return this.dragCoeff.apply(getDataMeasureFor(alpha));
+        return this.dragCoeff.applyAsDouble(getDataMeasureFor(alpha));
     }
     
     public double cd(double alpha) {
-        return this.dragCoeff.apply(alpha);
+        return this.dragCoeff.applyAsDouble(alpha);
     }
     
-    public SingleVariableRealFunction cdFunction() {
+    public RealFunction cdFunction() {
         return this.dragCoeff;
     }
     
     public double cpm(Angle alpha) {
-        return this.pmCoeff.apply(getDataMeasureFor(alpha));
+        return this.pmCoeff.applyAsDouble(getDataMeasureFor(alpha));
     }
     
     public double cpm(double alpha) {
-        return this.pmCoeff.apply(alpha);
+        return this.pmCoeff.applyAsDouble(alpha);
     }
     
-    public SingleVariableRealFunction cpmFunction() {
+    public RealFunction cpmFunction() {
         return this.pmCoeff;
     }
     
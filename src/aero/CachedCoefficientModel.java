@@ -0,0 +1,511 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero;
+
+import com.jupiter.ganymede.math.geometry.Angle;
+import com.jupiter.ganymede.math.geometry.Angle.AngleType;
+import com.jupiter.ganymede.math.geometry.Angle.MeasureRange;
+import dynamics.AerodynamicSystem;
+import dynamics.StateVariable;
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * A coefficient model that memoizes another, expensive, model on quantized inputs.
+ *
+ * Each input property is rounded to a configurable resolution, and states that round to the same inputs share one
+ * evaluation of all six coefficients. The model is evaluated at the rounded inputs rather than at the state that
+ * happened to reach the cell first, so the coefficients of a cell do not depend on the order in which states reach it,
+ * and simulations sharing the cache across threads give the same results however they are scheduled. They differ
+ * from the exact coefficients by at most the change of the model across half a resolution step. Properties that the
+ * wrapped model reads but that are not inputs of the cache are assumed to be constant, and properties the wrapped
+ * model writes into the state are only written when it is evaluated.
+ *
+ * Anything else the wrapped model depends on, such as the time or a field of the model itself, must be folded into the
+ * key through an extra key function, or cached coefficients will be returned after it changes. Of the models in this
+ * library, {@link dynamics.airplane.PDRSeniorDesignPlane} is not safe to cache on the default inputs alone: its
+ * pitching moment follows the burn fraction of its motor, and so the time, and its elevator deflection, which is a
+ * field. Key it on {@link #timeKey(double)} combined with the elevator deflection, or do not cache it.
+ * {@link TabulatedCoefficientModel} is safe as long as every property it is tabulated over is an input of the cache.
+ *
+ * The cache is split into stripes, each guarded by its own lock and bounded to an equal share of the capacity, with
+ * the least recently used entry of a stripe evicted when it is full. The cache can be shared between threads and
+ * simulations, as long as the wrapped model can be.
+ *
+ * @author Nathan Templon
+ */
+public class CachedCoefficientModel implements AerodynamicCoefficientModel {
+
+    // Constants
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_STRIPES = 16;
+
+    public static final double DEFAULT_ANGLE_RESOLUTION = Math.toRadians(0.01);
+    public static final double DEFAULT_MACH_RESOLUTION = 1e-4;
+    public static final double DEFAULT_REYNOLDS_RESOLUTION = 1e2;
+    public static final double DEFAULT_RATE_RESOLUTION = 1e-4;
+
+
+    // Fields
+    private final AerodynamicCoefficientModel model;
+    private final Input[] inputs;
+    private final ToLongFunction<SystemState> extraKey;
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+
+    // Properties
+    public AerodynamicCoefficientModel getModel() {
+        return this.model;
+    }
+
+    public Input[] getInputs() {
+        return this.inputs.clone();
+    }
+
+    /**
+     *
+     * @return the function giving the part of the key that is not read from the inputs, or null if there is none
+     */
+    public ToLongFunction<SystemState> getExtraKey() {
+        return this.extraKey;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     *
+     * @return the fraction of lookups that were answered from the cache, or zero if there have been none
+     */
+    public double getHitRate() {
+        long hitCount = this.hits.sum();
+        long total = hitCount + this.misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     *
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+
+    // Initialization
+    /**
+     * Creates a cache over the angle of attack, sideslip angle, Mach number, Reynolds number, nondimensional pitch rate
+     * and body rates, at the default resolutions and capacity.
+     *
+     * @param model the model to cache
+     */
+    public CachedCoefficientModel(AerodynamicCoefficientModel model) {
+        this(model, DEFAULT_CAPACITY, DEFAULT_STRIPES, defaultInputs());
+    }
+
+    /**
+     *
+     * @param model    the model to cache
+     * @param capacity the largest number of entries to keep
+     * @param stripes  the number of independently locked stripes to split the cache into
+     * @param inputs   the properties the cache is keyed on, and their resolutions
+     */
+    public CachedCoefficientModel(AerodynamicCoefficientModel model, int capacity, int stripes, Input... inputs) {
+        this(model, capacity, stripes, null, inputs);
+    }
+
+    /**
+     *
+     * @param model    the model to cache
+     * @param capacity the largest number of entries to keep
+     * @param stripes  the number of independently locked stripes to split the cache into
+     * @param extraKey a function mapping a state to anything else the model depends on, which states must agree on to
+     *                 share an entry, or null if the model depends on nothing but the inputs
+     * @param inputs   the properties the cache is keyed on, and their resolutions
+     */
+    public CachedCoefficientModel(AerodynamicCoefficientModel model, int capacity, int stripes,
+            ToLongFunction<SystemState> extraKey, Input... inputs) {
+        if (capacity <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("The capacity and number of stripes of a cache must be positive.");
+        }
+
+        this.model = model;
+        this.inputs = inputs.clone();
+        this.extraKey = extraKey;
+        this.stripes = new Stripe[stripes];
+        int stripeCapacity = Math.max(1, (capacity + stripes - 1) / stripes);
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(stripeCapacity);
+        }
+    }
+
+    /**
+     *
+     * @return the inputs used by {@link #CachedCoefficientModel(AerodynamicCoefficientModel)}
+     */
+    public static Input[] defaultInputs() {
+        return new Input[]{
+            Input.angle(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC, DEFAULT_ANGLE_RESOLUTION),
+            Input.angle(AerodynamicSystem.SIDESLIP_ANGLE, DEFAULT_ANGLE_RESOLUTION),
+            Input.scalar(AerodynamicSystem.MACH, DEFAULT_MACH_RESOLUTION),
+            Input.scalar(AerodynamicSystem.REYNOLDS, DEFAULT_REYNOLDS_RESOLUTION),
+            Input.scalar(AerodynamicSystem.Q_HAT, DEFAULT_RATE_RESOLUTION),
+            Input.scalar(AerodynamicSystem.ROLL_RATE, DEFAULT_RATE_RESOLUTION),
+            Input.scalar(AerodynamicSystem.PITCH_RATE, DEFAULT_RATE_RESOLUTION),
+            Input.scalar(AerodynamicSystem.YAW_RATE, DEFAULT_RATE_RESOLUTION)
+        };
+    }
+
+    /**
+     *
+     * @param resolution the resolution to round the time to, in seconds
+     *
+     * @return an extra key function that separates states more than about one resolution apart in time
+     */
+    public static ToLongFunction<SystemState> timeKey(double resolution) {
+        if (!(resolution > 0.0)) {
+            throw new IllegalArgumentException("The resolution of a time key must be positive.");
+        }
+        return state -> Math.round(state.getTime() / resolution);
+    }
+
+
+    // Public Methods
+    @Override
+    public double cl(SystemState state) {
+        return this.lookup(state)[CL_INDEX];
+    }
+
+    @Override
+    public double cd(SystemState state) {
+        return this.lookup(state)[CD_INDEX];
+    }
+
+    @Override
+    public double csf(SystemState state) {
+        return this.lookup(state)[CSF_INDEX];
+    }
+
+    @Override
+    public double cpm(SystemState state) {
+        return this.lookup(state)[CPM_INDEX];
+    }
+
+    @Override
+    public double cym(SystemState state) {
+        return this.lookup(state)[CYM_INDEX];
+    }
+
+    @Override
+    public double crm(SystemState state) {
+        return this.lookup(state)[CRM_INDEX];
+    }
+
+    @Override
+    public void evaluateAll(SystemState state, double[] out) {
+        System.arraycopy(this.lookup(state), 0, out, 0, COEFFICIENT_COUNT);
+    }
+
+    /**
+     * Discards every entry of the cache, leaving the statistics untouched.
+     */
+    public void clear() {
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                stripe.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * Resets the hit, miss and eviction counts.
+     */
+    public void resetStatistics() {
+        this.hits.reset();
+        this.misses.reset();
+        this.evictions.reset();
+    }
+
+
+    // Private Methods
+    /**
+     * Finds the coefficients for a state, evaluating the model if its cell is not cached.
+     *
+     * @return the coefficients, which must not be modified
+     */
+    private double[] lookup(SystemState state) {
+        Key key = this.keyOf(state);
+        Stripe stripe = this.stripes[(key.hash & Integer.MAX_VALUE) % this.stripes.length];
+
+        double[] coefficients;
+        synchronized (stripe) {
+            coefficients = stripe.entries.get(key);
+        }
+        if (coefficients != null) {
+            this.hits.increment();
+            return coefficients;
+        }
+
+        this.misses.increment();
+        coefficients = new double[COEFFICIENT_COUNT];
+        this.evaluateAt(key, state, coefficients);
+        synchronized (stripe) {
+            // Another thread may have filled the cell while the model was evaluated
+            double[] existing = stripe.entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+
+            int before = stripe.entries.size();
+            stripe.entries.put(key, coefficients);
+            if (stripe.entries.size() == before) {
+                this.evictions.increment();
+            }
+        }
+        return coefficients;
+    }
+
+    /**
+     * Evaluates the model at the centre of the cell of a state, passing on anything the model writes into the state.
+     */
+    private void evaluateAt(Key key, SystemState state, double[] coefficients) {
+        Map<SystemProperty, Object> original = state.getProperties();
+        Map<SystemProperty, Object> properties = new HashMap<>(original);
+        for (int i = 0; i < this.inputs.length; i++) {
+            Input input = this.inputs[i];
+            properties.put(input.property, input.valueOf(key.cells[i], original.get(input.property)));
+        }
+
+        this.model.evaluateAll(new SystemState(state.getTime(), state.getStateVector(), properties), coefficients);
+
+        for (Map.Entry<SystemProperty, Object> entry : properties.entrySet()) {
+            if (!this.isInput(entry.getKey()) && original.get(entry.getKey()) != entry.getValue()) {
+                original.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private boolean isInput(SystemProperty property) {
+        for (Input input : this.inputs) {
+            if (input.property.equals(property)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Key keyOf(SystemState state) {
+        long[] cells = new long[this.extraKey == null ? this.inputs.length : this.inputs.length + 1];
+        long hash = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i < this.inputs.length ? this.inputs[i].cellOf(state) : this.extraKey.applyAsLong(state);
+            hash = (hash ^ cells[i]) * 0xBF58476D1CE4E5B9L;
+            hash ^= hash >>> 31;
+        }
+        return new Key(cells, (int) (hash ^ (hash >>> 32)));
+    }
+
+
+    // Nested Classes
+    /**
+     * A property the cache is keyed on, and the resolution it is rounded to.
+     */
+    public static class Input {
+
+        // Fields
+        private final SystemProperty property;
+        private final double resolution;
+        private final boolean angle;
+
+
+        // Properties
+        public SystemProperty getProperty() {
+            return this.property;
+        }
+
+        public double getResolution() {
+            return this.resolution;
+        }
+
+        public boolean isAngle() {
+            return this.angle;
+        }
+
+
+        // Initialization
+        private Input(SystemProperty property, double resolution, boolean angle) {
+            if (resolution < 0.0) {
+                throw new IllegalArgumentException("The resolution of an input cannot be negative.");
+            }
+            this.property = property;
+            this.resolution = resolution;
+            this.angle = angle;
+        }
+
+        /**
+         *
+         * @param property   a scalar property
+         * @param resolution the resolution to round the property to, or zero to key on its exact value
+         *
+         * @return the input
+         */
+        public static Input scalar(StateVariable<Double> property, double resolution) {
+            return new Input(property, resolution, false);
+        }
+
+        /**
+         *
+         * @param property   an angle property
+         * @param resolution the resolution to round the angle to, in radians, or zero to key on its exact value
+         *
+         * @return the input
+         */
+        public static Input angle(StateVariable<Angle> property, double resolution) {
+            return new Input(property, resolution, true);
+        }
+
+
+        // Package Methods
+        /**
+         *
+         * @return the index of the cell of the input that holds the value of the property in the state
+         */
+        long cellOf(SystemState state) {
+            double measure = measureOf(state.get(this.property));
+            if (this.resolution == 0.0 || Double.isNaN(measure) || Double.isInfinite(measure)) {
+                return Double.doubleToLongBits(measure);
+            }
+            return Math.round(measure / this.resolution);
+        }
+
+        /**
+         *
+         * @param cell  the index of a cell of the input
+         * @param value the value of the property in a state in the cell
+         *
+         * @return the value of the property at the centre of the cell, or the value itself if it is kept exactly
+         */
+        Object valueOf(long cell, Object value) {
+            double measure = measureOf(value);
+            if (this.resolution == 0.0 || value == null || Double.isNaN(measure) || Double.isInfinite(measure)) {
+                return value;
+            }
+
+            double centre = cell * this.resolution;
+            return this.angle ? new Angle(centre, AngleType.RADIANS) : (Object) centre;
+        }
+
+
+        // Private Static Methods
+        private static double measureOf(Object value) {
+            if (value instanceof Angle) {
+                return ((Angle) value).getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
+            }
+            else if (value instanceof Double) {
+                return (Double) value;
+            }
+            return 0.0;
+        }
+
+    }
+
+
+    /**
+     * A set of quantized inputs.
+     */
+    private static class Key {
+
+        // Fields
+        private final long[] cells;
+        private final int hash;
+
+
+        // Initialization
+        public Key(long[] cells, int hash) {
+            this.cells = cells;
+            this.hash = hash;
+        }
+
+
+        // Public Methods
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).hash == this.hash
+                    && Arrays.equals(((Key) other).cells, this.cells);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+    }
+
+
+    /**
+     * One independently locked part of the cache.
+     */
+    private static class Stripe {
+
+        // Fields
+        private final Map<Key, double[]> entries;
+
+
+        // Initialization
+        public Stripe(int capacity) {
+            this.entries = new LinkedHashMap<Key, double[]>(2 * capacity, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+                    return this.size() > capacity;
+                }
+            };
+        }
+
+    }
+
+}
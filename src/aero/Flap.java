@@ -24,6 +24,8 @@
 package aero;
 
 import com.jupiter.ganymede.math.geometry.Angle;
+import com.jupiter.ganymede.math.geometry.Angle.AngleType;
+import com.jupiter.ganymede.math.geometry.Angle.MeasureRange;
 
 /**
  *
@@ -35,11 +37,22 @@ public interface Flap {
     Wing getWing();
     double getSpan();
     double getChord();
-    void setSRef();
+    void setSRef(double sRef);
     double getSRef();
     
     
     // Public Methods
-    double getClIncrement(Angle deflection, WingState state);
+    /**
+     * 
+     * @param deflection the deflection of the flap, in radians, positive trailing edge down
+     * @param surfaceCl  the lift coefficient of the surface the flap is on
+     * 
+     * @return the increment in the lift coefficient, based on the reference area
+     */
+    double getClIncrement(double deflection, double surfaceCl);
+    
+    default double getClIncrement(Angle deflection, WingState state) {
+        return this.getClIncrement(deflection.getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus), state.getCl());
+    }
     
 }
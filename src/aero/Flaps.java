@@ -48,15 +48,34 @@ public final class Flaps {
      * @return
      */
     public static double cLFlapPink(double cLSurface, Angle flapDelf, double perCtlSface, double sSurface, double sRef) {
-        double dClfPERdCl;
-        double dClfPERdDel;
-
-        dClfPERdCl = 15.341 * Math.pow(perCtlSface, 5) - 35.383 * Math.pow(perCtlSface, 4) + 29.895 * Math.pow(perCtlSface, 3) - 11.148 * Math.pow(perCtlSface, 2) + 2.2949 * perCtlSface;
-        dClfPERdDel = -2.575 * perCtlSface + 2.575;
+        double dClfPERdCl = liftEffectiveness(perCtlSface);
+        double dClfPERdDel = deflectionEffectiveness(perCtlSface);
 
         return (dClfPERdDel * flapDelf.getMeasure(AngleType.RADIANS) + cLSurface * dClfPERdCl) * (sSurface / sRef);
     }
 
+    /**
+     * The change in the lift coefficient of a simple flap per unit of the lift coefficient of the surface it is on,
+     * from Pinkerton.
+     *
+     * @param perCtlSface the fraction of the chord of the surface taken up by the flap
+     * @return the derivative of the flap lift coefficient with respect to the surface lift coefficient
+     */
+    public static double liftEffectiveness(double perCtlSface) {
+        return ((((15.341 * perCtlSface - 35.383) * perCtlSface + 29.895) * perCtlSface - 11.148) * perCtlSface
+                + 2.2949) * perCtlSface;
+    }
+
+    /**
+     * The change in the lift coefficient of a simple flap per radian of deflection, from Pinkerton.
+     *
+     * @param perCtlSface the fraction of the chord of the surface taken up by the flap
+     * @return the derivative of the flap lift coefficient with respect to the flap deflection, per radian
+     */
+    public static double deflectionEffectiveness(double perCtlSface) {
+        return -2.575 * perCtlSface + 2.575;
+    }
+
     // Hacky-Cheaty stuff
     private Flaps() {
 
@@ -0,0 +1,376 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import util.LUDecomposition;
+
+/**
+ * A nonlinear Prandtl lifting-line solver for the spanwise loading of a wing.
+ *
+ * The planform of the wing is read from its root (lateral position 0) to its tip (lateral position equal to the span
+ * of the planform), and is mirrored about the root. The semi-span is divided into stations, with cosine spacing that
+ * concentrates them towards the tip, and the chord and airfoil of each station are read from the wing once, when the
+ * solver is created, along with the downwash that the trailing vortices of each station induce at every other.
+ *
+ * Each angle of attack is then solved by Newton iteration on the circulation of the stations, evaluating the airfoil
+ * polars of all stations in parallel. Solutions are cached by angle of attack, so repeated queries of the same
+ * condition are free. The airfoil polars are expected to take the section angle of attack in degrees, as
+ * {@link Airfoil#cl(com.jupiter.ganymede.math.geometry.Angle)} does.
+ *
+ * @author Nathan Templon
+ */
+public class LiftingLineSolver {
+
+    // Constants
+    private static final int MAX_ITERATIONS = 50;
+    private static final int MAX_HALVINGS = 20;
+    private static final double TOLERANCE = 1e-10;
+    private static final double POLAR_STEP = 1e-4;
+
+
+    // Fields
+    private final Wing wing;
+    private final double referenceArea;
+    private final double aspectRatio;
+
+    private final int stationCount;
+    private final double[] stations;
+    private final double[] widths;
+    private final double[] chords;
+    private final Airfoil[] airfoils;
+    private final double[][] downwash;
+
+    private final Map<Double, Solution> solutions = new ConcurrentHashMap<>();
+
+
+    // Properties
+    public Wing getWing() {
+        return this.wing;
+    }
+
+    /**
+     *
+     * @return the area of the complete (mirrored) wing
+     */
+    public double getReferenceArea() {
+        return this.referenceArea;
+    }
+
+    /**
+     *
+     * @return the aspect ratio of the complete (mirrored) wing
+     */
+    public double getAspectRatio() {
+        return this.aspectRatio;
+    }
+
+    public int getStationCount() {
+        return this.stationCount;
+    }
+
+
+    // Initialization
+    /**
+     * Creates a solver for a wing, reading the geometry of its stations.
+     *
+     * @param wing         the wing
+     * @param stationCount the number of stations from the root to the tip
+     */
+    public LiftingLineSolver(Wing wing, int stationCount) {
+        if (stationCount < 1) {
+            throw new IllegalArgumentException("At least one station is required.");
+        }
+
+        this.wing = wing;
+        this.stationCount = stationCount;
+
+        WingPlanform planform = wing.getPlanform();
+        double semiSpan = planform.span();
+        this.referenceArea = 2.0 * planform.area();
+        this.aspectRatio = (4.0 * semiSpan * semiSpan) / this.referenceArea;
+
+        double[] edges = new double[stationCount + 1];
+        for (int k = 0; k <= stationCount; k++) {
+            edges[k] = semiSpan * Math.sin(0.5 * Math.PI * k / stationCount);
+        }
+
+        this.stations = new double[stationCount];
+        this.widths = new double[stationCount];
+        this.chords = new double[stationCount];
+        this.airfoils = new Airfoil[stationCount];
+        for (int i = 0; i < stationCount; i++) {
+            this.stations[i] = 0.5 * (edges[i] + edges[i + 1]);
+            this.widths[i] = edges[i + 1] - edges[i];
+
+            WingSection section = wing.sectionAt(this.stations[i]);
+            this.chords[i] = section.chord();
+            this.airfoils[i] = section.airfoil();
+        }
+
+        // The upward velocity at each station induced by the trailing legs of a unit horseshoe vortex on every station
+        // and its mirror image, for a unit freestream velocity
+        this.downwash = new double[stationCount][stationCount];
+        for (int i = 0; i < stationCount; i++) {
+            double y = this.stations[i];
+            for (int j = 0; j < stationCount; j++) {
+                double left = edges[j];
+                double right = edges[j + 1];
+                this.downwash[i][j] = (1.0 / (y - right) - 1.0 / (y - left) + 1.0 / (y + left) - 1.0 / (y + right))
+                        / (4.0 * Math.PI);
+            }
+        }
+    }
+
+
+    // Public Methods
+    /**
+     * Finds the spanwise loading of the wing at an angle of attack, or returns the cached loading if that angle has
+     * already been solved.
+     *
+     * @param alpha the angle of attack of the root, in radians
+     *
+     * @return the loading
+     */
+    public Solution solve(double alpha) {
+        return this.solutions.computeIfAbsent(alpha, this::compute);
+    }
+
+    /**
+     * Discards the cached solutions.
+     */
+    public void clearCache() {
+        this.solutions.clear();
+    }
+
+
+    // Private Methods
+    private Solution compute(double alpha) {
+        int n = this.stationCount;
+        double[] circulation = new double[n];
+        double[] inducedAngles = new double[n];
+        double[] sectionCl = new double[n];
+        double[] sectionSlope = new double[n];
+        double[] residual = new double[n];
+
+        double error = this.evaluate(alpha, circulation, inducedAngles, sectionCl, sectionSlope, residual);
+        boolean converged = error <= TOLERANCE;
+        for (int iteration = 0; iteration < MAX_ITERATIONS && !converged; iteration++) {
+            // Newton step on the residual, circulation - c * cl / 2
+            double[][] jacobian = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                double factor = 0.5 * this.chords[i] * sectionSlope[i];
+                for (int j = 0; j < n; j++) {
+                    jacobian[i][j] = -factor * this.downwash[i][j];
+                }
+                jacobian[i][i] += 1.0;
+            }
+            double[] step = new LUDecomposition(jacobian).solve(residual);
+
+            // Halve the step until it reduces the residual, which keeps the iteration stable past the stall
+            double[] trial = new double[n];
+            double fraction = 1.0;
+            double trialError = Double.POSITIVE_INFINITY;
+            for (int halving = 0; halving < MAX_HALVINGS && trialError >= error; halving++) {
+                for (int i = 0; i < n; i++) {
+                    trial[i] = circulation[i] - fraction * step[i];
+                }
+                trialError = this.evaluate(alpha, trial, inducedAngles, sectionCl, sectionSlope, residual);
+                fraction *= 0.5;
+            }
+            if (trialError >= error) {
+                // The last evaluation was of a rejected step, so restore the state of the accepted circulation
+                this.evaluate(alpha, circulation, inducedAngles, sectionCl, sectionSlope, residual);
+                break;
+            }
+
+            System.arraycopy(trial, 0, circulation, 0, n);
+            error = trialError;
+            converged = error <= TOLERANCE;
+        }
+
+        return new Solution(alpha, converged, this.stations, circulation, sectionCl, inducedAngles,
+                this.integrate(circulation, inducedAngles));
+    }
+
+    /**
+     * Evaluates the polars of every station for a circulation distribution.
+     *
+     * @param alpha         the angle of attack of the root, in radians
+     * @param circulation   the circulation at each station
+     * @param inducedAngles the array to write the induced angle at each station into
+     * @param sectionCl     the array to write the section lift coefficient of each station into
+     * @param sectionSlope  the array to write the section lift curve slope of each station into, per radian
+     * @param residual      the array to write the residual, circulation - c * cl / 2, of each station into
+     *
+     * @return the largest magnitude of the residual, relative to the largest circulation
+     */
+    private double evaluate(double alpha, double[] circulation, double[] inducedAngles, double[] sectionCl,
+            double[] sectionSlope, double[] residual) {
+        int n = this.stationCount;
+        for (int i = 0; i < n; i++) {
+            double w = 0.0;
+            double[] row = this.downwash[i];
+            for (int j = 0; j < n; j++) {
+                w += row[j] * circulation[j];
+            }
+            inducedAngles[i] = w;
+        }
+
+        IntStream.range(0, n).parallel().forEach((int i) -> {
+            double effective = Math.toDegrees(alpha + inducedAngles[i]);
+            double cl = this.airfoils[i].cl(effective);
+            sectionCl[i] = cl;
+            sectionSlope[i] = Math.toDegrees((this.airfoils[i].cl(effective + POLAR_STEP) - cl) / POLAR_STEP);
+        });
+
+        double largest = 0.0;
+        double scale = 0.0;
+        for (int i = 0; i < n; i++) {
+            residual[i] = circulation[i] - 0.5 * this.chords[i] * sectionCl[i];
+            largest = Math.max(largest, Math.abs(residual[i]));
+            scale = Math.max(scale, Math.abs(circulation[i]));
+        }
+        return largest / Math.max(1.0, scale);
+    }
+
+    /**
+     *
+     * @return the lift coefficient, induced drag coefficient and span efficiency of a loading
+     */
+    private double[] integrate(double[] circulation, double[] inducedAngles) {
+        double lift = 0.0;
+        double drag = 0.0;
+        for (int i = 0; i < this.stationCount; i++) {
+            lift += circulation[i] * this.widths[i];
+            drag -= circulation[i] * inducedAngles[i] * this.widths[i];
+        }
+
+        // Both halves of the wing, divided by a dynamic pressure of one half
+        double cl = 4.0 * lift / this.referenceArea;
+        double cdi = 4.0 * drag / this.referenceArea;
+        double efficiency = cdi > 0.0 ? (cl * cl) / (Math.PI * this.aspectRatio * cdi) : 1.0;
+        return new double[] { cl, cdi, efficiency };
+    }
+
+
+    // Nested Classes
+    /**
+     * The spanwise loading of a wing at one angle of attack, for a unit freestream velocity.
+     */
+    public static class Solution {
+
+        // Fields
+        private final double alpha;
+        private final boolean converged;
+        private final double[] stations;
+        private final double[] circulation;
+        private final double[] sectionCl;
+        private final double[] inducedAngles;
+        private final double cl;
+        private final double cdi;
+        private final double spanEfficiency;
+
+
+        // Properties
+        /**
+         *
+         * @return the angle of attack of the root, in radians
+         */
+        public double getAlpha() {
+            return this.alpha;
+        }
+
+        /**
+         *
+         * @return whether the Newton iteration converged, which may fail past the stall of the sections
+         */
+        public boolean isConverged() {
+            return this.converged;
+        }
+
+        public double getCl() {
+            return this.cl;
+        }
+
+        public double getCdi() {
+            return this.cdi;
+        }
+
+        public double getSpanEfficiency() {
+            return this.spanEfficiency;
+        }
+
+        /**
+         *
+         * @return the lateral position of each station
+         */
+        public double[] getStations() {
+            return this.stations.clone();
+        }
+
+        /**
+         *
+         * @return the circulation at each station
+         */
+        public double[] getCirculation() {
+            return this.circulation.clone();
+        }
+
+        /**
+         *
+         * @return the section lift coefficient at each station
+         */
+        public double[] getSectionCl() {
+            return this.sectionCl.clone();
+        }
+
+        /**
+         *
+         * @return the angle induced by the trailing vortices at each station, in radians, negative for downwash
+         */
+        public double[] getInducedAngles() {
+            return this.inducedAngles.clone();
+        }
+
+
+        // Initialization
+        private Solution(double alpha, boolean converged, double[] stations, double[] circulation,
+                double[] sectionCl, double[] inducedAngles, double[] totals) {
+            this.alpha = alpha;
+            this.converged = converged;
+            this.stations = stations;
+            this.circulation = circulation;
+            this.sectionCl = sectionCl;
+            this.inducedAngles = inducedAngles;
+            this.cl = totals[0];
+            this.cdi = totals[1];
+            this.spanEfficiency = totals[2];
+        }
+
+    }
+
+}
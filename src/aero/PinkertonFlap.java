@@ -23,51 +23,89 @@
  */
 package aero;
 
-import com.jupiter.ganymede.math.geometry.Angle;
-
 /**
+ * A simple flap, using the Pinkerton method outlined in "Theory of Wing Sections" through {@link Flaps}. The method
+ * assumes a constant chord, unswept surface, so the chord of the surface is taken as its mean chord, and the flapped
+ * area as the fraction of the surface covered by the span of the flap.
+ *
+ * Both effectiveness derivatives depend only on the geometry, so they are found once, along with the area ratio, and
+ * each increment is a single multiply-add.
  *
  * @author nathan
  */
 public class PinkertonFlap implements Flap {
 
+    // Fields
+    private final Wing wing;
+    private final double span;
+    private final double chord;
+    private final double flappedArea;
+    private final double liftEffectiveness;
+    private final double deflectionEffectiveness;
+
+    private double sRef;
+    private double clSlope;
+    private double deflectionSlope;
+
+
     // Properties
     @Override
     public Wing getWing() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return this.wing;
     }
 
     @Override
     public double getSpan() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return this.span;
     }
 
     @Override
     public double getChord() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return this.chord;
     }
 
     @Override
-    public void setSRef() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    public void setSRef(double sRef) {
+        this.sRef = sRef;
+        double areaRatio = this.flappedArea / sRef;
+        this.clSlope = this.liftEffectiveness * areaRatio;
+        this.deflectionSlope = this.deflectionEffectiveness * areaRatio;
     }
 
     @Override
     public double getSRef() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return this.sRef;
     }
 
     
     // Initialization
+    /**
+     * Creates a flap. The reference area starts as the area of the wing.
+     * 
+     * @param wing  the wing the flap is on
+     * @param span  the span of the flap, in the units of the wing
+     * @param chord the chord of the flap, in the units of the wing
+     */
     public PinkertonFlap(Wing wing, double span, double chord) {
-        
+        this.wing = wing;
+        this.span = span;
+        this.chord = chord;
+
+        WingPlanform planform = wing.getPlanform();
+        double meanChord = planform.area() / planform.span();
+        double chordFraction = Math.min(1.0, chord / meanChord);
+        this.flappedArea = planform.area() * Math.min(1.0, span / planform.span());
+        this.liftEffectiveness = Flaps.liftEffectiveness(chordFraction);
+        this.deflectionEffectiveness = Flaps.deflectionEffectiveness(chordFraction);
+
+        this.setSRef(planform.area());
     }
     
     
     // Public Methods
     @Override
-    public double getClIncrement(Angle deflection, WingState state) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    public double getClIncrement(double deflection, double surfaceCl) {
+        return this.deflectionSlope * deflection + this.clSlope * surfaceCl;
     }
     
 }
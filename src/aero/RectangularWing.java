@@ -23,8 +23,8 @@
  */
 package aero;
 
-import com.jupiter.ganymede.math.function.SingleVariableRealFunction;
 import dynamics.SystemState;
+import util.RealFunction;
 
 /**
  *
@@ -37,9 +37,9 @@ public class RectangularWing extends Wing {
     private final RectangularWingPlanform planform;
     private final Airfoil airfoil;
 
-    private final SingleVariableRealFunction liftCoeff;
-    private final SingleVariableRealFunction dragCoeff;
-    private final SingleVariableRealFunction pmCoeff;
+    private final RealFunction liftCoeff;
+    private final RealFunction dragCoeff;
+    private final RealFunction pmCoeff;
 
 
     // Initialization
@@ -47,11 +47,13 @@ public class RectangularWing extends Wing {
         this.planform = new RectangularWingPlanform(chord, span);
         this.airfoil = airfoil;
 
-        this.liftCoeff = (Double input) -> 0.8 * RectangularWing.this.airfoil.cl(input);
-        this.dragCoeff = (Double input) -> {
+        this.liftCoeff = (double input) -> 0.8 * RectangularWing.this.airfoil.cl(input);
+        // The lifting line mirrors the planform, so its span efficiency goes with its own aspect ratio
+        LiftingLineSolver liftingLine = this.liftingLine();
+        double inducedFactor = Math.PI * this.spanEfficiency() * liftingLine.getAspectRatio();
+        this.dragCoeff = (double input) -> {
             double cd0 = 0.04;
-            double cdi = (liftCoeff.apply(input) * liftCoeff.apply(input))
-                    / (Math.PI * RectangularWing.this.spanEfficiency() * RectangularWing.this.getPlanform().aspectRatio());
+            double cdi = (liftCoeff.applyAsDouble(input) * liftCoeff.applyAsDouble(input)) / inducedFactor;
             return (cd0 + cdi);
         };
         this.pmCoeff = RectangularWing.this.airfoil::cpm;
@@ -59,11 +61,6 @@ public class RectangularWing extends Wing {
 
 
     // Public Methods
-    @Override
-    public double spanEfficiency() {
-        return 0.85;
-    }
-
     @Override
     public WingSection sectionAt(double station) {
         return new WingSection(this.getPlanform().xPositionAt(station), this.getPlanform().chordAt(station),
@@ -72,17 +69,17 @@ public class RectangularWing extends Wing {
 
     @Override
 
-    public SingleVariableRealFunction clFunction() {
+    public RealFunction clFunction() {
         return this.liftCoeff;
     }
 
     @Override
-    public SingleVariableRealFunction cdFunction() {
+    public RealFunction cdFunction() {
         return this.dragCoeff;
     }
 
     @Override
-    public SingleVariableRealFunction cpmFunction() {
+    public RealFunction cpmFunction() {
         return this.pmCoeff;
     }
 
@@ -23,7 +23,7 @@
  */
 package aero;
 
-import com.jupiter.ganymede.math.function.SingleVariableRealFunction;
+import util.RealFunction;
 
 
 /**
@@ -36,9 +36,9 @@ public class RectangularWingPlanform extends WingPlanform{
     private final double span;
     private final double area;
     
-    private final SingleVariableRealFunction leadingEdgeFunction;
-    private final SingleVariableRealFunction trailingEdgeFunction;
-    private final SingleVariableRealFunction quarterChordLocation;
+    private final RealFunction leadingEdgeFunction;
+    private final RealFunction trailingEdgeFunction;
+    private final RealFunction quarterChordLocation;
     
     
     // Initialization
@@ -49,9 +49,9 @@ public class RectangularWingPlanform extends WingPlanform{
         // Calculate fixed parameters
         this.area = chord * span;
         
-        this.leadingEdgeFunction = (Double input) -> 0.0;
-        this.trailingEdgeFunction = (Double input) -> RectangularWingPlanform.this.chord;
-        this.quarterChordLocation = (Double input) -> RectangularWingPlanform.this.chord / 4.0;
+        this.leadingEdgeFunction = (double input) -> 0.0;
+        this.trailingEdgeFunction = (double input) -> RectangularWingPlanform.this.chord;
+        this.quarterChordLocation = (double input) -> RectangularWingPlanform.this.chord / 4.0;
     }
     
     @Override
@@ -80,17 +80,17 @@ public class RectangularWingPlanform extends WingPlanform{
     }
 
     @Override
-    public SingleVariableRealFunction leadingEdgeLocation() {
+    public RealFunction leadingEdgeLocation() {
         return this.leadingEdgeFunction;
     }
 
     @Override
-    public SingleVariableRealFunction trailingEdgeLocation() {
+    public RealFunction trailingEdgeLocation() {
         return this.trailingEdgeFunction;
     }
 
     @Override
-    public SingleVariableRealFunction quarterChordLocation() {
+    public RealFunction quarterChordLocation() {
         return this.quarterChordLocation;
     }
     
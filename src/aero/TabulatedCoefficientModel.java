@@ -0,0 +1,564 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero;
+
+import com.jupiter.ganymede.math.geometry.Angle;
+import com.jupiter.ganymede.math.geometry.Angle.AngleType;
+import com.jupiter.ganymede.math.geometry.Angle.MeasureRange;
+import dynamics.AerodynamicSystem;
+import dynamics.StateVariable;
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+import dynamics.analysis.trajectory.TrajectoryReplay;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import util.UniformIndex;
+
+/**
+ * A coefficient model that interpolates in a table of coefficients sampled from another model.
+ *
+ * The table spans a rectangular grid over any set of state properties, such as the angle of attack, sideslip angle,
+ * Mach number, Reynolds number and nondimensional pitch rate. All six coefficients are stored together in one flat
+ * array, and are evaluated by multilinear interpolation, so the cost of an evaluation depends only on the number of
+ * axes and not on the cost of the sampled model. Inputs outside of the grid are clamped to its edges.
+ *
+ * Each axis finds the cell of an input with a {@link UniformIndex} over its breakpoints, so a lookup keeps no state and
+ * a model can be shared between threads without them contending for it.
+ *
+ * Tables are built by {@link AeroDatabaseGenerator}, and can be saved with {@link #write(File)} and loaded again with
+ * {@link #read(File)}, or exported for reporting with {@link #writeCsv(File)}.
+ *
+ * @author Nathan Templon
+ */
+public class TabulatedCoefficientModel implements AerodynamicCoefficientModel {
+
+    // Constants
+    public static final int MAGIC = 0x4E464354; // "NFCT"
+    public static final int VERSION = 1;
+
+    private static final String[] COEFFICIENT_NAMES = {"CL", "CD", "CSF", "CPM", "CYM", "CRM"};
+
+
+    // Fields
+    private final Axis[] axes;
+    private final int[] strides;
+    private final double[] values;
+
+
+    // Properties
+    public Axis[] getAxes() {
+        return this.axes.clone();
+    }
+
+    /**
+     *
+     * @return the number of grid points in the table
+     */
+    public int getPointCount() {
+        return this.values.length / COEFFICIENT_COUNT;
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param axes   the axes of the table
+     * @param values the coefficients at each grid point, with the coefficients of a point stored together in the order
+     *               of the coefficient index constants of {@link AerodynamicCoefficientModel}, and the points ordered
+     *               with the last axis varying fastest
+     */
+    public TabulatedCoefficientModel(Axis[] axes, double[] values) {
+        this.axes = axes.clone();
+        this.strides = new int[axes.length];
+
+        int points = 1;
+        for (int i = axes.length - 1; i >= 0; i--) {
+            this.strides[i] = points;
+            points *= axes[i].size();
+        }
+        if (values.length != points * COEFFICIENT_COUNT) {
+            throw new IllegalArgumentException("Expected " + (points * COEFFICIENT_COUNT) + " table values, but got "
+                    + values.length + ".");
+        }
+        this.values = values;
+    }
+
+    /**
+     * Builds a table by evaluating a model at every point of a grid.
+     *
+     * @param model      the model to sample
+     * @param time       the time of the sampled states, for models that depend on it
+     * @param fixed      values of properties that are not axes of the table but are read by the model
+     * @param axes       the axes of the table
+     *
+     * @return the sampled table
+     */
+    public static TabulatedCoefficientModel sample(AerodynamicCoefficientModel model, double time,
+            Map<SystemProperty, Object> fixed, Axis... axes) {
+        AeroDatabaseGenerator generator = new AeroDatabaseGenerator(model, time, fixed);
+        generator.setParallel(false);
+        return generator.generate(axes);
+    }
+
+    /**
+     * Builds a table over the angle of attack, sideslip angle, Mach number, Reynolds number and nondimensional pitch
+     * rate, with all body rates other than the pitch rate held at zero.
+     *
+     * @param model    the model to sample
+     * @param alpha    the angle of attack grid, in radians
+     * @param beta     the sideslip angle grid, in radians
+     * @param mach     the Mach number grid
+     * @param reynolds the Reynolds number grid
+     * @param qHat     the nondimensional pitch rate grid
+     *
+     * @return the sampled table
+     */
+    public static TabulatedCoefficientModel sample(AerodynamicCoefficientModel model, double[] alpha, double[] beta,
+            double[] mach, double[] reynolds, double[] qHat) {
+        return sample(model, 0.0, new LinkedHashMap<>(),
+                Axis.angle(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC, alpha),
+                Axis.angle(AerodynamicSystem.SIDESLIP_ANGLE, beta),
+                Axis.scalar(AerodynamicSystem.MACH, mach),
+                Axis.scalar(AerodynamicSystem.REYNOLDS, reynolds),
+                Axis.scalar(AerodynamicSystem.Q_HAT, qHat));
+    }
+
+
+    /**
+     * Reads a table written by {@link #write(File)}, matching its axes to the properties defined by
+     * {@link AerodynamicSystem}.
+     *
+     * @param file the file to read
+     *
+     * @return the table
+     *
+     * @throws IOException if the file could not be read or does not hold a table
+     */
+    public static TabulatedCoefficientModel read(File file) throws IOException {
+        return read(file, TrajectoryReplay.systemProperties());
+    }
+
+    /**
+     * Reads a table written by {@link #write(File)}.
+     *
+     * @param file       the file to read
+     * @param properties the properties to match the axes of the table to, by name. Axes that match none of them are
+     *                   read under new properties with the same name.
+     *
+     * @return the table
+     *
+     * @throws IOException if the file could not be read or does not hold a table
+     */
+    public static TabulatedCoefficientModel read(File file, SystemProperty[] properties) throws IOException {
+        Map<String, SystemProperty> byName = new HashMap<>();
+        for (SystemProperty property : properties) {
+            byName.putIfAbsent(property.getName(), property);
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("The file " + file + " is not a coefficient table.");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported coefficient table version " + version + ".");
+            }
+
+            Axis[] axes = new Axis[in.readInt()];
+            long points = 1;
+            for (int i = 0; i < axes.length; i++) {
+                String name = in.readUTF();
+                boolean angle = in.readBoolean();
+                double[] breakpoints = new double[in.readInt()];
+                for (int j = 0; j < breakpoints.length; j++) {
+                    breakpoints[j] = in.readDouble();
+                }
+
+                SystemProperty property = byName.get(name);
+                axes[i] = new Axis(property != null ? property : new StateVariable<>(name), breakpoints, angle);
+                points *= breakpoints.length;
+            }
+            if (points * COEFFICIENT_COUNT > Integer.MAX_VALUE) {
+                throw new IOException("The coefficient table in " + file + " is too large.");
+            }
+
+            double[] values = new double[(int) points * COEFFICIENT_COUNT];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readDouble();
+            }
+            return new TabulatedCoefficientModel(axes, values);
+        }
+        catch (EOFException | IllegalArgumentException ex) {
+            throw new IOException("The coefficient table in " + file + " is truncated or malformed.", ex);
+        }
+    }
+
+
+    // Public Methods
+    @Override
+    public double cl(SystemState state) {
+        return this.interpolate(state, CL_INDEX);
+    }
+
+    @Override
+    public double cd(SystemState state) {
+        return this.interpolate(state, CD_INDEX);
+    }
+
+    @Override
+    public double csf(SystemState state) {
+        return this.interpolate(state, CSF_INDEX);
+    }
+
+    @Override
+    public double cpm(SystemState state) {
+        return this.interpolate(state, CPM_INDEX);
+    }
+
+    @Override
+    public double cym(SystemState state) {
+        return this.interpolate(state, CYM_INDEX);
+    }
+
+    @Override
+    public double crm(SystemState state) {
+        return this.interpolate(state, CRM_INDEX);
+    }
+
+    @Override
+    public void evaluateAll(SystemState state, double[] out) {
+        double[] inputs = this.inputsOf(state);
+        int dimensions = this.axes.length;
+        double[] fractions = new double[dimensions];
+        int base = this.locate(inputs, fractions);
+
+        Arrays.fill(out, 0, COEFFICIENT_COUNT, 0.0);
+        for (int corner = 0; corner < (1 << dimensions); corner++) {
+            double weight = this.cornerWeight(corner, fractions);
+            if (weight != 0.0) {
+                int offset = base;
+                for (int i = 0; i < dimensions; i++) {
+                    if ((corner & (1 << i)) != 0) {
+                        offset += this.strides[i];
+                    }
+                }
+                for (int coefficient = 0; coefficient < COEFFICIENT_COUNT; coefficient++) {
+                    out[coefficient] += weight * this.values[offset * COEFFICIENT_COUNT + coefficient];
+                }
+            }
+        }
+    }
+
+    /**
+     * Interpolates one coefficient at a point of the table.
+     *
+     * @param inputs      the value of each axis, in radians for angle axes
+     * @param coefficient the index of the coefficient
+     *
+     * @return the interpolated coefficient
+     */
+    public double interpolate(double[] inputs, int coefficient) {
+        int dimensions = this.axes.length;
+        double[] fractions = new double[dimensions];
+        int base = this.locate(inputs, fractions);
+
+        double result = 0.0;
+        for (int corner = 0; corner < (1 << dimensions); corner++) {
+            double weight = this.cornerWeight(corner, fractions);
+            if (weight != 0.0) {
+                int offset = base;
+                for (int i = 0; i < dimensions; i++) {
+                    if ((corner & (1 << i)) != 0) {
+                        offset += this.strides[i];
+                    }
+                }
+                result += weight * this.values[offset * COEFFICIENT_COUNT + coefficient];
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Writes the table in a compact binary form: the magic number, the format version and the axes (each with its
+     * property name, whether it is an angle, and its breakpoints), followed by the coefficients of every point as
+     * big-endian doubles, in the order given to the constructor.
+     *
+     * @param file the file to write
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.axes.length);
+            for (Axis axis : this.axes) {
+                out.writeUTF(axis.property.getName());
+                out.writeBoolean(axis.angle);
+                out.writeInt(axis.breakpoints.length);
+                for (double breakpoint : axis.breakpoints) {
+                    out.writeDouble(breakpoint);
+                }
+            }
+            for (double value : this.values) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    /**
+     * Writes the table as comma separated values, with one row per grid point holding the value of each axis (in
+     * radians for angle axes) followed by the six coefficients.
+     *
+     * @param file the file to write
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void writeCsv(File file) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            StringBuilder header = new StringBuilder();
+            for (Axis axis : this.axes) {
+                header.append(axis.property.getName()).append(',');
+            }
+            header.append(String.join(",", COEFFICIENT_NAMES));
+            pw.println(header);
+
+            StringBuilder row = new StringBuilder();
+            int points = this.getPointCount();
+            for (int point = 0; point < points; point++) {
+                row.setLength(0);
+                for (int i = 0; i < this.axes.length; i++) {
+                    row.append(this.axes[i].breakpoints[point / this.strides[i] % this.axes[i].size()]).append(',');
+                }
+                for (int coefficient = 0; coefficient < COEFFICIENT_COUNT; coefficient++) {
+                    if (coefficient > 0) {
+                        row.append(',');
+                    }
+                    row.append(this.values[point * COEFFICIENT_COUNT + coefficient]);
+                }
+                pw.println(row);
+            }
+
+            if (pw.checkError()) {
+                throw new IOException("Could not write the coefficient table to " + file + ".");
+            }
+        }
+    }
+
+
+    // Private Methods
+    private double interpolate(SystemState state, int coefficient) {
+        return this.interpolate(this.inputsOf(state), coefficient);
+    }
+
+    private double[] inputsOf(SystemState state) {
+        double[] inputs = new double[this.axes.length];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = this.axes[i].valueIn(state);
+        }
+        return inputs;
+    }
+
+    /**
+     * Finds the cell holding a point.
+     *
+     * @param inputs    the value of each axis
+     * @param fractions the array to write the position of the point within the cell along each axis into
+     *
+     * @return the index of the grid point at the lower corner of the cell
+     */
+    private int locate(double[] inputs, double[] fractions) {
+        int base = 0;
+        for (int i = 0; i < this.axes.length; i++) {
+            Axis axis = this.axes[i];
+            int cell = axis.cellOf(inputs[i]);
+            fractions[i] = axis.fractionOf(inputs[i], cell);
+            base += cell * this.strides[i];
+        }
+        return base;
+    }
+
+    /**
+     * Computes the interpolation weight of one corner of a cell.
+     *
+     * @param corner    the corner of the cell, with one bit per axis that is set for the upper side of the cell
+     * @param fractions the position of the point within the cell along each axis
+     *
+     * @return the weight of the corner in the interpolation
+     */
+    private double cornerWeight(int corner, double[] fractions) {
+        double weight = 1.0;
+        for (int i = 0; i < fractions.length && weight != 0.0; i++) {
+            weight *= (corner & (1 << i)) != 0 ? fractions[i] : 1.0 - fractions[i];
+        }
+        return weight;
+    }
+
+
+    // Nested Classes
+    /**
+     * An axis of a table: a property and the increasing values of it at which the table is sampled.
+     */
+    public static class Axis {
+
+        // Fields
+        private final SystemProperty property;
+        private final double[] breakpoints;
+        private final boolean angle;
+        private final UniformIndex index;
+
+
+        // Properties
+        public SystemProperty getProperty() {
+            return this.property;
+        }
+
+        public double[] getBreakpoints() {
+            return this.breakpoints.clone();
+        }
+
+        public boolean isAngle() {
+            return this.angle;
+        }
+
+        public int size() {
+            return this.breakpoints.length;
+        }
+
+
+        // Initialization
+        private Axis(SystemProperty property, double[] breakpoints, boolean angle) {
+            if (breakpoints.length == 0) {
+                throw new IllegalArgumentException("An axis must have at least one breakpoint.");
+            }
+            for (int i = 1; i < breakpoints.length; i++) {
+                if (!(breakpoints[i] > breakpoints[i - 1])) {
+                    throw new IllegalArgumentException("The breakpoints of an axis must be strictly increasing.");
+                }
+            }
+            this.property = property;
+            this.breakpoints = breakpoints.clone();
+            this.angle = angle;
+            this.index = new UniformIndex(this.breakpoints);
+        }
+
+        /**
+         *
+         * @param property    a scalar property
+         * @param breakpoints the values of the property to sample at, in increasing order
+         *
+         * @return the axis
+         */
+        public static Axis scalar(StateVariable<Double> property, double... breakpoints) {
+            return new Axis(property, breakpoints, false);
+        }
+
+        /**
+         *
+         * @param property    an angle property
+         * @param breakpoints the values of the angle to sample at, in radians and in increasing order
+         *
+         * @return the axis
+         */
+        public static Axis angle(StateVariable<Angle> property, double... breakpoints) {
+            return new Axis(property, breakpoints, true);
+        }
+
+        /**
+         *
+         * @param start the first value
+         * @param end   the last value
+         * @param count the number of values
+         *
+         * @return evenly spaced values from start to end
+         */
+        public static double[] linspace(double start, double end, int count) {
+            if (count == 1) {
+                return new double[]{start};
+            }
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = start + (end - start) * i / (count - 1);
+            }
+            return values;
+        }
+
+
+        // Package Methods
+        double valueIn(SystemState state) {
+            Object value = state.get(this.property);
+            if (value instanceof Angle) {
+                return ((Angle) value).getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
+            }
+            else if (value instanceof Double) {
+                return (Double) value;
+            }
+            return 0.0;
+        }
+
+        /**
+         *
+         * @return the index of the cell holding the value
+         */
+        int cellOf(double value) {
+            int cells = this.breakpoints.length - 1;
+            if (cells <= 0 || value <= this.breakpoints[0]) {
+                return 0;
+            }
+            if (value >= this.breakpoints[cells]) {
+                return cells - 1;
+            }
+            return Math.min(this.index.segmentOf(value), cells - 1);
+        }
+
+        /**
+         *
+         * @return the position of the value within the cell, from zero to one
+         */
+        double fractionOf(double value, int cell) {
+            if (this.breakpoints.length == 1) {
+                return 0.0;
+            }
+            double fraction = (value - this.breakpoints[cell]) / (this.breakpoints[cell + 1] - this.breakpoints[cell]);
+            return Math.max(0.0, Math.min(1.0, fraction));
+        }
+
+    }
+
+}
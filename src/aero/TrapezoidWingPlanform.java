@@ -23,8 +23,8 @@
  */
 package aero;
 
-import com.jupiter.ganymede.math.function.SingleVariableRealFunction;
 import com.jupiter.ganymede.math.geometry.Angle;
+import util.RealFunction;
 
 /**
  *
@@ -43,9 +43,9 @@ public class TrapezoidWingPlanform extends WingPlanform {
     private final Angle trailSweep;
     private final Angle quarterSweep;
     
-    private final SingleVariableRealFunction leadingEdgeLocation;
-    private final SingleVariableRealFunction trailingEdgeLocation;
-    private final SingleVariableRealFunction quarterChordLocation;
+    private final RealFunction leadingEdgeLocation;
+    private final RealFunction trailingEdgeLocation;
+    private final RealFunction quarterChordLocation;
     
             
     // Initialization
@@ -74,11 +74,11 @@ public class TrapezoidWingPlanform extends WingPlanform {
         this.quarterSweep = new Angle(quarterPosRelative / this.span, Angle.TrigFunction.TANGENT);
         
         // Calculations of functions
-        this.leadingEdgeLocation = (Double input) -> leadSweep.tan() * input;
+        this.leadingEdgeLocation = (double input) -> leadSweep.tan() * input;
         
-        this.quarterChordLocation = (Double input) -> quarterSweep.tan() * input;
+        this.quarterChordLocation = (double input) -> quarterSweep.tan() * input;
         
-        this.trailingEdgeLocation = (Double input) -> trailSweep.tan() * input;
+        this.trailingEdgeLocation = (double input) -> trailSweep.tan() * input;
     }
     
     /**
@@ -161,17 +161,17 @@ public class TrapezoidWingPlanform extends WingPlanform {
     }
 
     @Override
-    public SingleVariableRealFunction leadingEdgeLocation() {
+    public RealFunction leadingEdgeLocation() {
         return this.leadingEdgeLocation;
     }
 
     @Override
-    public SingleVariableRealFunction trailingEdgeLocation() {
+    public RealFunction trailingEdgeLocation() {
         return this.trailingEdgeLocation;
     }
 
     @Override
-    public SingleVariableRealFunction quarterChordLocation() {
+    public RealFunction quarterChordLocation() {
         return this.quarterChordLocation;
     }
     
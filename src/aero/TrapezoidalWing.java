@@ -23,10 +23,10 @@
  */
 package aero;
 
-import com.jupiter.ganymede.math.function.SingleVariableRealFunction;
 import com.jupiter.ganymede.math.geometry.Angle;
 import dynamics.AerodynamicSystem;
 import dynamics.SystemState;
+import util.RealFunction;
 
 /**
  *
@@ -38,9 +38,9 @@ public class TrapezoidalWing extends Wing {
     private final TrapezoidWingPlanform planform;
     private final Airfoil airfoil;
     
-    private SingleVariableRealFunction liftCoeff;
-    private SingleVariableRealFunction dragCoeff;
-    private SingleVariableRealFunction pmCoeff;
+    private RealFunction liftCoeff;
+    private RealFunction dragCoeff;
+    private RealFunction pmCoeff;
     
     
     // Initialization
@@ -53,13 +53,15 @@ public class TrapezoidalWing extends Wing {
     
     private void generateCoeffFunctions() {
         // CL
-        this.liftCoeff = (Double input) -> 0.8 * airfoil.cl(input);
+        this.liftCoeff = (double input) -> 0.8 * airfoil.cl(input);
         
         // CD
-        this.dragCoeff = (Double input) -> {
+        // The lifting line mirrors the planform, so its span efficiency goes with its own aspect ratio
+        LiftingLineSolver liftingLine = this.liftingLine();
+        double inducedFactor = Math.PI * this.spanEfficiency() * liftingLine.getAspectRatio();
+        this.dragCoeff = (double input) -> {
             double cd0 = 0.04;
-            double cdi = (liftCoeff.apply(input) * liftCoeff.apply(input))
-                    / (Math.PI * TrapezoidalWing.this.spanEfficiency() * TrapezoidalWing.this.getPlanform().aspectRatio());
+            double cdi = (liftCoeff.applyAsDouble(input) * liftCoeff.applyAsDouble(input)) / inducedFactor;
             return (cd0 + cdi);
         };
         
@@ -69,11 +71,6 @@ public class TrapezoidalWing extends Wing {
     
     
     // Public Members
-    @Override
-    public double spanEfficiency() {
-        return 0.9;
-    }
-    
     public Angle leadingEdgeSweep() {
         return this.planform.leSweep();
     }
@@ -95,31 +92,31 @@ public class TrapezoidalWing extends Wing {
 
     @Override
     public double cl(SystemState state) {
-        return this.liftCoeff.apply(state.get(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC).getMeasure(Angle.AngleType.RADIANS, Angle.MeasureRange.PlusMinus));
+        return this.liftCoeff.applyAsDouble(state.get(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC).getMeasure(Angle.AngleType.RADIANS, Angle.MeasureRange.PlusMinus));
     }
 
     @Override
     public double cd(SystemState state) {
-        return this.dragCoeff.apply(state.get(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC).getMeasure(Angle.AngleType.RADIANS, Angle.MeasureRange.PlusMinus));
+        return this.dragCoeff.applyAsDouble(state.get(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC).getMeasure(Angle.AngleType.RADIANS, Angle.MeasureRange.PlusMinus));
     }
 
     @Override
     public double cpm(SystemState state) {
-        return this.pmCoeff.apply(state.get(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC).getMeasure(Angle.AngleType.RADIANS, Angle.MeasureRange.PlusMinus));
+        return this.pmCoeff.applyAsDouble(state.get(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC).getMeasure(Angle.AngleType.RADIANS, Angle.MeasureRange.PlusMinus));
     }
     
     @Override
-    public SingleVariableRealFunction clFunction() {
+    public RealFunction clFunction() {
         return this.liftCoeff;
     }
     
     @Override
-    public SingleVariableRealFunction cdFunction() {
+    public RealFunction cdFunction() {
         return this.dragCoeff;
     }
     
     @Override
-    public SingleVariableRealFunction cpmFunction() {
+    public RealFunction cpmFunction() {
         return this.pmCoeff;
     }
     
@@ -0,0 +1,540 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero;
+
+import exception.SingularMatrixException;
+import util.LUDecomposition;
+
+/**
+ * A vortex-lattice solver for the longitudinal derivatives of a set of planar lifting surfaces.
+ *
+ * Each surface is described by a planform from its root (lateral position 0) to its tip (lateral position equal to the
+ * span of the planform), and is mirrored about the root to form the complete, symmetric surface. Every surface is
+ * divided into a lattice of panels, each carrying a horseshoe vortex with its bound leg on the quarter chord of the
+ * panel and its trailing legs running aft to infinity, and the flow tangency condition is enforced at the three quarter
+ * chord of every panel.
+ *
+ * The influence matrix depends only on the geometry, so it is factored once, when the solver is created. Every flight
+ * condition is then a right-hand side that costs only a forward and a back substitution, which is how the angle of
+ * attack, pitch rate and elevator derivatives are all found from one factorization.
+ *
+ * All lengths use the units of the planforms. Positions are measured aft (x) and up (z) from the same origin as the
+ * moment reference point. Pitch rates are nondimensionalized as qc/2V, matching
+ * {@link dynamics.AerodynamicSystem#Q_HAT}, and pitching moments are positive nose up.
+ *
+ * @author Nathan Templon
+ */
+public class VortexLatticeSolver {
+
+    // Constants
+    private static final double FOUR_PI = 4.0 * Math.PI;
+
+    /**
+     * The smallest squared distance from a vortex line, relative to the length of the line, at which the line induces a
+     * velocity. Closer points lie on the line itself, where the induced velocity is taken to be zero.
+     */
+    private static final double CORE_RADIUS_SQUARED = 1e-10;
+
+
+    // Fields
+    private final AeroReferenceQuantities reference;
+    private final double momentReference;
+
+    private final int panelCount;
+    private final double[] boundX;
+    private final double[] boundZ;
+    private final double[] leftY;
+    private final double[] rightY;
+    private final double[] controlX;
+    private final double[] controlY;
+    private final double[] controlZ;
+    private final double[] controlGain;
+
+    private final LUDecomposition factorization;
+
+    private final Derivatives derivatives;
+
+
+    // Properties
+    public AeroReferenceQuantities getReference() {
+        return this.reference;
+    }
+
+    public double getMomentReference() {
+        return this.momentReference;
+    }
+
+    /**
+     *
+     * @return the number of panels on one side of the plane of symmetry, which is the size of the linear system
+     */
+    public int getPanelCount() {
+        return this.panelCount;
+    }
+
+    /**
+     *
+     * @return the derivatives of the lift and pitching moment coefficients, found when the solver was created
+     */
+    public Derivatives getDerivatives() {
+        return this.derivatives;
+    }
+
+
+    // Initialization
+    /**
+     * Creates a solver for a set of lifting surfaces, and factors its influence matrix.
+     *
+     * @param reference       the reference chord, area and span used to nondimensionalize the results, which should
+     *                        describe the complete (mirrored) configuration
+     * @param momentReference the x position about which pitching moments and pitch rates are taken
+     * @param surfaces        the lifting surfaces
+     *
+     * @throws SingularMatrixException if the influence matrix is singular, which happens when panels coincide
+     */
+    public VortexLatticeSolver(AeroReferenceQuantities reference, double momentReference, Surface... surfaces) {
+        if (surfaces.length == 0) {
+            throw new IllegalArgumentException("At least one surface is required.");
+        }
+
+        this.reference = reference;
+        this.momentReference = momentReference;
+
+        int count = 0;
+        for (Surface surface : surfaces) {
+            count += surface.chordwisePanels * surface.spanwisePanels;
+        }
+        this.panelCount = count;
+
+        this.boundX = new double[count];
+        this.boundZ = new double[count];
+        this.leftY = new double[count];
+        this.rightY = new double[count];
+        this.controlX = new double[count];
+        this.controlY = new double[count];
+        this.controlZ = new double[count];
+        this.controlGain = new double[count];
+
+        int panel = 0;
+        for (Surface surface : surfaces) {
+            panel = this.layOut(surface, panel);
+        }
+
+        double[][] matrix = new double[count][count];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < count; j++) {
+                matrix[i][j] = this.influence(i, j);
+            }
+        }
+        this.factorization = new LUDecomposition(matrix);
+
+        this.derivatives = this.computeDerivatives();
+    }
+
+
+    // Public Methods
+    /**
+     * Solves for the circulation of every panel that satisfies flow tangency, for a unit freestream velocity.
+     *
+     * @param normalWash the component of the freestream velocity normal to each panel at its control point, positive
+     *                   up, for a unit freestream velocity
+     *
+     * @return the circulation of the horseshoe vortex of each panel
+     */
+    public double[] solve(double[] normalWash) {
+        if (normalWash.length != this.panelCount) {
+            throw new IllegalArgumentException("Expected " + this.panelCount + " normal velocities, but got "
+                    + normalWash.length + ".");
+        }
+
+        double[] circulation = new double[this.panelCount];
+        for (int i = 0; i < this.panelCount; i++) {
+            circulation[i] = -normalWash[i];
+        }
+        this.factorization.solveInPlace(circulation);
+        return circulation;
+    }
+
+    /**
+     * Solves for the circulation of every panel in a flight condition, for a unit freestream velocity.
+     *
+     * @param alpha  the angle of attack, in radians
+     * @param qHat   the nondimensional pitch rate
+     * @param deltaE the deflection of the control surfaces, in radians, positive trailing edge down
+     *
+     * @return the circulation of the horseshoe vortex of each panel
+     */
+    public double[] solve(double alpha, double qHat, double deltaE) {
+        double[] normalWash = new double[this.panelCount];
+        double pitchScale = 2.0 * qHat / this.reference.getChord();
+        for (int i = 0; i < this.panelCount; i++) {
+            normalWash[i] = alpha + pitchScale * (this.controlX[i] - this.momentReference)
+                    + deltaE * this.controlGain[i];
+        }
+        return this.solve(normalWash);
+    }
+
+    /**
+     *
+     * @param circulation the circulation of each panel, for a unit freestream velocity
+     *
+     * @return the lift coefficient of the complete configuration
+     */
+    public double cl(double[] circulation) {
+        double lift = 0.0;
+        for (int i = 0; i < this.panelCount; i++) {
+            lift += circulation[i] * (this.rightY[i] - this.leftY[i]);
+        }
+        // Both halves of the configuration, divided by a dynamic pressure of one half
+        return 4.0 * lift / this.reference.getArea();
+    }
+
+    /**
+     *
+     * @param circulation the circulation of each panel, for a unit freestream velocity
+     *
+     * @return the pitching moment coefficient of the complete configuration about the moment reference point
+     */
+    public double cpm(double[] circulation) {
+        double moment = 0.0;
+        for (int i = 0; i < this.panelCount; i++) {
+            moment -= circulation[i] * (this.rightY[i] - this.leftY[i]) * (this.boundX[i] - this.momentReference);
+        }
+        return 4.0 * moment / (this.reference.getArea() * this.reference.getChord());
+    }
+
+
+    // Private Methods
+    /**
+     * Adds the panels of a surface to the lattice.
+     *
+     * @param surface the surface
+     * @param first   the index of the first panel of the surface
+     *
+     * @return the index of the first panel after the surface
+     */
+    private int layOut(Surface surface, int first) {
+        WingPlanform planform = surface.planform;
+        double[] stations = new double[surface.spanwisePanels + 1];
+        for (int k = 0; k <= surface.spanwisePanels; k++) {
+            // Cosine spacing, which concentrates panels towards the tip where the loading changes quickly
+            stations[k] = planform.span() * Math.sin(0.5 * Math.PI * k / surface.spanwisePanels);
+        }
+        double[] fractions = surface.chordFractions();
+        int hinge = surface.hingePanel();
+
+        int panel = first;
+        for (int k = 0; k < surface.spanwisePanels; k++) {
+            double left = stations[k];
+            double right = stations[k + 1];
+            double middle = 0.5 * (left + right);
+
+            double leadingEdge = surface.xOffset + planform.xPositionAt(middle);
+            double chord = planform.chordAt(middle);
+
+            for (int c = 0; c < surface.chordwisePanels; c++) {
+                double front = fractions[c];
+                double back = fractions[c + 1];
+
+                this.boundX[panel] = leadingEdge + (front + 0.25 * (back - front)) * chord;
+                this.boundZ[panel] = surface.zOffset;
+                this.leftY[panel] = left;
+                this.rightY[panel] = right;
+                this.controlX[panel] = leadingEdge + (front + 0.75 * (back - front)) * chord;
+                this.controlY[panel] = middle;
+                this.controlZ[panel] = surface.zOffset;
+                // Chosen by index, as the fraction at the hinge need not round back to the hinge fraction exactly
+                this.controlGain[panel] = c >= hinge ? surface.controlGain : 0.0;
+                panel++;
+            }
+        }
+        return panel;
+    }
+
+    /**
+     *
+     * @param i the panel whose control point is considered
+     * @param j the panel whose horseshoe vortex (and its mirror image) induces the velocity
+     *
+     * @return the upward velocity induced at the control point of panel i by a unit circulation on panel j
+     */
+    private double influence(int i, int j) {
+        double x = this.controlX[i];
+        double y = this.controlY[i];
+        double z = this.controlZ[i];
+
+        double right = horseshoe(x, y, z, this.boundX[j], this.leftY[j], this.rightY[j], this.boundZ[j]);
+        // The mirror image has its bound leg running from the far tip to the root, so it is also traversed in +y
+        double left = horseshoe(x, y, z, this.boundX[j], -this.rightY[j], -this.leftY[j], this.boundZ[j]);
+        return right + left;
+    }
+
+    private Derivatives computeDerivatives() {
+        double[] alpha = this.solve(1.0, 0.0, 0.0);
+        double[] q = this.solve(0.0, 1.0, 0.0);
+        double[] deltaE = this.solve(0.0, 0.0, 1.0);
+
+        return new Derivatives(this.cl(alpha), this.cpm(alpha), this.cl(q), this.cpm(q), this.cl(deltaE),
+                this.cpm(deltaE));
+    }
+
+
+    // Private Static Methods
+    /**
+     * Finds the upward velocity induced by a horseshoe vortex of unit circulation whose bound leg runs in +y, and whose
+     * trailing legs run in +x.
+     */
+    private static double horseshoe(double x, double y, double z, double vortexX, double leftY, double rightY,
+            double vortexZ) {
+        double w = segment(x, y, z, vortexX, leftY, vortexZ, vortexX, rightY, vortexZ);
+        w += trailing(x, y, z, vortexX, rightY, vortexZ);
+        w -= trailing(x, y, z, vortexX, leftY, vortexZ);
+        return w;
+    }
+
+    /**
+     * Finds the upward velocity induced by a straight vortex segment of unit circulation, by the Biot-Savart law.
+     */
+    private static double segment(double x, double y, double z, double x1, double y1, double z1, double x2,
+            double y2, double z2) {
+        double r1x = x - x1;
+        double r1y = y - y1;
+        double r1z = z - z1;
+        double r2x = x - x2;
+        double r2y = y - y2;
+        double r2z = z - z2;
+
+        double crossX = r1y * r2z - r1z * r2y;
+        double crossY = r1z * r2x - r1x * r2z;
+        double crossZ = r1x * r2y - r1y * r2x;
+        double crossSquared = crossX * crossX + crossY * crossY + crossZ * crossZ;
+
+        double r0x = x2 - x1;
+        double r0y = y2 - y1;
+        double r0z = z2 - z1;
+        double lengthSquared = r0x * r0x + r0y * r0y + r0z * r0z;
+        if (crossSquared < CORE_RADIUS_SQUARED * lengthSquared * lengthSquared) {
+            return 0.0;
+        }
+
+        double r1 = Math.sqrt(r1x * r1x + r1y * r1y + r1z * r1z);
+        double r2 = Math.sqrt(r2x * r2x + r2y * r2y + r2z * r2z);
+        double projection = (r0x * r1x + r0y * r1y + r0z * r1z) / r1 - (r0x * r2x + r0y * r2y + r0z * r2z) / r2;
+
+        return crossZ * projection / (FOUR_PI * crossSquared);
+    }
+
+    /**
+     * Finds the upward velocity induced by a semi-infinite vortex line of unit circulation, which starts at a point and
+     * runs in +x.
+     */
+    private static double trailing(double x, double y, double z, double startX, double startY, double startZ) {
+        double rx = x - startX;
+        double ry = y - startY;
+        double rz = z - startZ;
+
+        // The cross product of the direction of the line (+x) with the offset of the point
+        double crossZ = ry;
+        double crossSquared = ry * ry + rz * rz;
+        double r = Math.sqrt(rx * rx + crossSquared);
+        if (crossSquared < CORE_RADIUS_SQUARED * r * r) {
+            return 0.0;
+        }
+
+        return crossZ * (1.0 + rx / r) / (FOUR_PI * crossSquared);
+    }
+
+
+    // Nested Classes
+    /**
+     * A planar lifting surface, and the lattice it is divided into.
+     */
+    public static class Surface {
+
+        // Fields
+        private final WingPlanform planform;
+        private final double xOffset;
+        private final double zOffset;
+        private final int chordwisePanels;
+        private final int spanwisePanels;
+        private final double hingeFraction;
+        private final double controlGain;
+
+
+        // Initialization
+        /**
+         * Creates a surface without a control surface.
+         *
+         * @param planform        the planform of one side of the surface
+         * @param xOffset         the x position of the leading edge of the root
+         * @param zOffset         the height of the surface
+         * @param chordwisePanels the number of panels along the chord
+         * @param spanwisePanels  the number of panels from the root to the tip
+         */
+        public Surface(WingPlanform planform, double xOffset, double zOffset, int chordwisePanels,
+                int spanwisePanels) {
+            this(planform, xOffset, zOffset, chordwisePanels, spanwisePanels, 1.0, 0.0);
+        }
+
+        /**
+         * Creates a surface with a full-span control surface.
+         *
+         * @param planform        the planform of one side of the surface
+         * @param xOffset         the x position of the leading edge of the root
+         * @param zOffset         the height of the surface
+         * @param chordwisePanels the number of panels along the chord
+         * @param spanwisePanels  the number of panels from the root to the tip
+         * @param hingeFraction   the position of the hinge line, as a fraction of the local chord
+         * @param controlGain     the deflection of the control surface per unit elevator deflection
+         */
+        public Surface(WingPlanform planform, double xOffset, double zOffset, int chordwisePanels,
+                int spanwisePanels, double hingeFraction, double controlGain) {
+            if (chordwisePanels < 1 || spanwisePanels < 1) {
+                throw new IllegalArgumentException("A surface must have at least one panel in each direction.");
+            }
+            if (hingeFraction <= 0.0 || hingeFraction > 1.0) {
+                throw new IllegalArgumentException("The hinge must lie aft of the leading edge.");
+            }
+            if (hingeFraction < 1.0 && chordwisePanels < 2) {
+                throw new IllegalArgumentException("A surface with a control surface needs at least two chordwise "
+                        + "panels.");
+            }
+
+            this.planform = planform;
+            this.xOffset = xOffset;
+            this.zOffset = zOffset;
+            this.chordwisePanels = chordwisePanels;
+            this.spanwisePanels = spanwisePanels;
+            this.hingeFraction = hingeFraction;
+            this.controlGain = controlGain;
+        }
+
+
+        // Private Methods
+        /**
+         *
+         * @return the chordwise boundaries of the panels, as fractions of the chord, placing one boundary on the hinge
+         *         line
+         */
+        private double[] chordFractions() {
+            double[] fractions = new double[this.chordwisePanels + 1];
+            if (this.hingeFraction >= 1.0) {
+                for (int c = 0; c <= this.chordwisePanels; c++) {
+                    fractions[c] = (double) c / this.chordwisePanels;
+                }
+                return fractions;
+            }
+
+            int fore = this.hingePanel();
+            int aft = this.chordwisePanels - fore;
+            for (int c = 0; c < fore; c++) {
+                fractions[c] = this.hingeFraction * c / fore;
+            }
+            fractions[fore] = this.hingeFraction;
+            for (int c = 1; c <= aft; c++) {
+                fractions[fore + c] = this.hingeFraction + (1.0 - this.hingeFraction) * c / aft;
+            }
+            return fractions;
+        }
+
+        /**
+         *
+         * @return the index of the first panel behind the hinge line, or the number of chordwise panels if the surface
+         *         has no control
+         */
+        private int hingePanel() {
+            if (this.hingeFraction >= 1.0) {
+                return this.chordwisePanels;
+            }
+            int aft = (int) Math.round(this.chordwisePanels * (1.0 - this.hingeFraction));
+            aft = Math.max(1, Math.min(this.chordwisePanels - 1, aft));
+            return this.chordwisePanels - aft;
+        }
+
+    }
+
+
+    /**
+     * The derivatives of the lift and pitching moment coefficients of a configuration, per radian for angles and per
+     * unit of nondimensional pitch rate.
+     */
+    public static class Derivatives {
+
+        // Fields
+        private final double clAlpha;
+        private final double cpmAlpha;
+        private final double clQ;
+        private final double cpmQ;
+        private final double clDeltaE;
+        private final double cpmDeltaE;
+
+
+        // Properties
+        public double getClAlpha() {
+            return this.clAlpha;
+        }
+
+        public double getCpmAlpha() {
+            return this.cpmAlpha;
+        }
+
+        public double getClQ() {
+            return this.clQ;
+        }
+
+        public double getCpmQ() {
+            return this.cpmQ;
+        }
+
+        public double getClDeltaE() {
+            return this.clDeltaE;
+        }
+
+        public double getCpmDeltaE() {
+            return this.cpmDeltaE;
+        }
+
+
+        // Initialization
+        public Derivatives(double clAlpha, double cpmAlpha, double clQ, double cpmQ, double clDeltaE,
+                double cpmDeltaE) {
+            this.clAlpha = clAlpha;
+            this.cpmAlpha = cpmAlpha;
+            this.clQ = clQ;
+            this.cpmQ = cpmQ;
+            this.clDeltaE = clDeltaE;
+            this.cpmDeltaE = cpmDeltaE;
+        }
+
+
+        // Public Methods
+        @Override
+        public String toString() {
+            return String.format("CL_a = %.4f, CM_a = %.4f, CL_q = %.4f, CM_q = %.4f, CL_de = %.4f, CM_de = %.4f",
+                    this.clAlpha, this.cpmAlpha, this.clQ, this.cpmQ, this.clDeltaE, this.cpmDeltaE);
+        }
+
+    }
+
+}
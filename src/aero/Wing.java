@@ -23,8 +23,8 @@
  */
 package aero;
 
-import com.jupiter.ganymede.math.function.SingleVariableRealFunction;
 import dynamics.SystemState;
+import util.RealFunction;
 
 /**
  *
@@ -32,10 +32,43 @@ import dynamics.SystemState;
  */
 public abstract class Wing {
 
+    // Constants
+    private static final int LIFTING_LINE_STATIONS = 40;
+    private static final double SPAN_EFFICIENCY_ALPHA = Math.toRadians(4.0);
+
+
+    // Fields
+    private volatile LiftingLineSolver liftingLine;
+
+
     // Public Methods
     public abstract WingPlanform getPlanform();
 
-    public abstract double spanEfficiency();
+    /**
+     *
+     * @return the lifting-line solver for this wing, created the first time it is needed
+     */
+    public LiftingLineSolver liftingLine() {
+        LiftingLineSolver solver = this.liftingLine;
+        if (solver == null) {
+            synchronized (this) {
+                solver = this.liftingLine;
+                if (solver == null) {
+                    solver = new LiftingLineSolver(this, LIFTING_LINE_STATIONS);
+                    this.liftingLine = solver;
+                }
+            }
+        }
+        return solver;
+    }
+
+    /**
+     *
+     * @return the span efficiency of the wing, from its lifting-line loading at a moderate angle of attack
+     */
+    public double spanEfficiency() {
+        return this.liftingLine().solve(SPAN_EFFICIENCY_ALPHA).getSpanEfficiency();
+    }
 
     public abstract WingSection sectionAt(double station);
 
@@ -45,10 +78,10 @@ public abstract class Wing {
 
     public abstract double cpm(SystemState state);
 
-    public abstract SingleVariableRealFunction clFunction();
+    public abstract RealFunction clFunction();
 
-    public abstract SingleVariableRealFunction cdFunction();
+    public abstract RealFunction cdFunction();
 
-    public abstract SingleVariableRealFunction cpmFunction();
+    public abstract RealFunction cpmFunction();
 
 }
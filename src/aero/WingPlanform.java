@@ -23,7 +23,7 @@
  */
 package aero;
 
-import com.jupiter.ganymede.math.function.SingleVariableRealFunction;
+import util.RealFunction;
 
 /**
  *
@@ -58,11 +58,11 @@ public abstract class WingPlanform {
     
     public abstract double xPositionAt(double lateralPos);
     
-    public abstract SingleVariableRealFunction leadingEdgeLocation();
+    public abstract RealFunction leadingEdgeLocation();
     
-    public abstract SingleVariableRealFunction trailingEdgeLocation();
+    public abstract RealFunction trailingEdgeLocation();
     
-    public abstract SingleVariableRealFunction quarterChordLocation();
+    public abstract RealFunction quarterChordLocation();
     
     
     // Public Methods
@@ -42,6 +42,20 @@ public interface Fluid {
      */
     double getMolarMass();
     
+    /**
+     * 
+     * @return the viscosity of the fluid at its reference temperature, in slugs per foot-second
+     */
     double getViscosity();
     
+    /**
+     * 
+     * @param temperature the temperature, in degrees Rankine
+     * 
+     * @return the viscosity of the fluid at the temperature, in slugs per foot-second
+     */
+    default double getViscosity(double temperature) {
+        return this.getViscosity();
+    }
+    
 }
@@ -77,8 +77,12 @@ public abstract class FluidState {
      */
     public abstract double getSpeedOfSound();
     
-    public final double getViscosity() {
-        return this.fluid.getViscosity();
+    /**
+     * 
+     * @return the viscosity of the current state, in slugs per foot-second
+     */
+    public double getViscosity() {
+        return this.fluid.getViscosity(this.getTemperature());
     }
 
     // Initalization
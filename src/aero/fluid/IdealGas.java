@@ -34,6 +34,7 @@ public class IdealGas implements Fluid {
     private final double heatRatio;
     private final double gasConstant;
     private final double viscosity;
+    private final SutherlandViscosity sutherland;
     
     // Properties
     @Override
@@ -54,11 +55,54 @@ public class IdealGas implements Fluid {
         return this.viscosity;
     }
     
+    /**
+     * 
+     * @return the Sutherland's law model of the viscosity, or null if the viscosity is constant
+     */
+    public SutherlandViscosity getSutherland() {
+        return this.sutherland;
+    }
+    
+    @Override
+    public double getViscosity(double temperature) {
+        if (this.sutherland == null) {
+            return this.viscosity;
+        }
+        return this.sutherland.viscosity(temperature);
+    }
+    
     // Initialization
+    /**
+     * Creates a gas with a constant viscosity.
+     * 
+     * @param molarMass the molar mass
+     * @param heatRatio the specific heat ratio
+     * @param viscosity the viscosity, in slugs per foot-second
+     */
     public IdealGas(double molarMass, double heatRatio, double viscosity) {
+        this(molarMass, heatRatio, viscosity, null);
+    }
+    
+    /**
+     * Creates a gas whose viscosity follows Sutherland's law.
+     * 
+     * @param molarMass             the molar mass
+     * @param heatRatio             the specific heat ratio
+     * @param viscosity             the viscosity at the reference temperature, in slugs per foot-second
+     * @param referenceTemperature  the reference temperature, in degrees Rankine
+     * @param sutherlandTemperature the Sutherland temperature of the gas, in degrees Rankine
+     */
+    public IdealGas(double molarMass, double heatRatio, double viscosity, double referenceTemperature,
+            double sutherlandTemperature) {
+        this(molarMass, heatRatio, viscosity,
+                new SutherlandViscosity(viscosity, referenceTemperature, sutherlandTemperature));
+    }
+    
+    private IdealGas(double molarMass, double heatRatio, double viscosity, SutherlandViscosity sutherland) {
         this.molarMass = molarMass;
         this.heatRatio = heatRatio;
         this.viscosity = viscosity;
+        this.sutherland = sutherland;
         
         this.gasConstant = Fluid.GAS_CONSTANT / this.molarMass;
     }
@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.fluid;
+
+/**
+ * A fluid state whose properties can be overwritten, so that one instance can be reused for every evaluation instead
+ * of allocating a new state each time. A mutable state must not be shared between threads, and anything that needs to
+ * keep the properties of a particular moment should copy them out or take a {@link #snapshot()}.
+ *
+ * @author Nathan Templon
+ */
+public class MutableFluidState extends FluidState {
+
+    // Fields
+    private final IdealGas idealFluid;
+    private double density;
+    private double temperature;
+    private double pressure;
+    private double speedOfSound;
+    private double viscosity;
+
+
+    // Properties
+    @Override
+    public double getDensity() {
+        return this.density;
+    }
+
+    @Override
+    public double getTemperature() {
+        return this.temperature;
+    }
+
+    @Override
+    public double getPressure() {
+        return this.pressure;
+    }
+
+    @Override
+    public double getGasConstant() {
+        return this.idealFluid.getGasConstant();
+    }
+
+    @Override
+    public double getHeatRatio() {
+        return this.idealFluid.getHeatRatio();
+    }
+
+    @Override
+    public double getSpeedOfSound() {
+        return this.speedOfSound;
+    }
+
+    @Override
+    public double getViscosity() {
+        return this.viscosity;
+    }
+
+
+    // Initialization
+    /**
+     * Creates a state of the fluid with every property zero, to be filled in by {@link #set}.
+     *
+     * @param fluid the fluid
+     */
+    public MutableFluidState(IdealGas fluid) {
+        super(fluid);
+        this.idealFluid = fluid;
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param temperature  the temperature, in degrees Rankine
+     * @param pressure     the pressure, in pounds per square foot
+     * @param density      the density, in slugs per cubic foot
+     * @param speedOfSound the speed of sound, in feet per second
+     * @param viscosity    the dynamic viscosity, in slugs per foot-second
+     */
+    public void set(double temperature, double pressure, double density, double speedOfSound, double viscosity) {
+        this.temperature = temperature;
+        this.pressure = pressure;
+        this.density = density;
+        this.speedOfSound = speedOfSound;
+        this.viscosity = viscosity;
+    }
+
+    /**
+     *
+     * @return an immutable copy of the current properties, which is not changed by later calls to {@link #set}
+     */
+    public FluidState snapshot() {
+        return new Snapshot(this.idealFluid, this.temperature, this.pressure, this.density, this.speedOfSound,
+                this.viscosity);
+    }
+
+
+    // Nested Classes
+    /**
+     * The properties of a mutable state at one moment.
+     */
+    private static final class Snapshot extends FluidState {
+
+        // Fields
+        private final IdealGas idealFluid;
+        private final double temperature;
+        private final double pressure;
+        private final double density;
+        private final double speedOfSound;
+        private final double viscosity;
+
+
+        // Properties
+        @Override
+        public double getDensity() {
+            return this.density;
+        }
+
+        @Override
+        public double getTemperature() {
+            return this.temperature;
+        }
+
+        @Override
+        public double getPressure() {
+            return this.pressure;
+        }
+
+        @Override
+        public double getGasConstant() {
+            return this.idealFluid.getGasConstant();
+        }
+
+        @Override
+        public double getHeatRatio() {
+            return this.idealFluid.getHeatRatio();
+        }
+
+        @Override
+        public double getSpeedOfSound() {
+            return this.speedOfSound;
+        }
+
+        @Override
+        public double getViscosity() {
+            return this.viscosity;
+        }
+
+
+        // Initialization
+        private Snapshot(IdealGas fluid, double temperature, double pressure, double density, double speedOfSound,
+                double viscosity) {
+            super(fluid);
+            this.idealFluid = fluid;
+            this.temperature = temperature;
+            this.pressure = pressure;
+            this.density = density;
+            this.speedOfSound = speedOfSound;
+            this.viscosity = viscosity;
+        }
+
+    }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.fluid;
+
+/**
+ * The U.S. Standard Atmosphere, 1976, from below sea level to the top of its lower atmosphere (86 kilometers).
+ *
+ * The layered model is evaluated once, when the atmosphere is created, into a table of temperature, pressure,
+ * density, speed of sound and viscosity at evenly spaced altitudes. Looking up a state is then a direct index into the
+ * table and a linear interpolation, written into a {@link MutableFluidState} so that no state is allocated per call.
+ * Altitudes outside of the table are clamped to its ends.
+ *
+ * Altitudes are geometric and measured from a launch site, which may be above sea level, and the temperature at every
+ * altitude may be offset from the standard day. The pressure follows the standard atmosphere, and the density, speed
+ * of sound and viscosity follow from the pressure and the offset temperature, with the viscosity taken from
+ * {@link IdealGas#getViscosity(double)}, so a gas with a constant viscosity gives a constant viscosity.
+ *
+ * @author Nathan Templon
+ */
+public class StandardAtmosphere {
+
+    // Constants
+    /**
+     * The molar mass of air, in slugs per slug-mole.
+     */
+    public static final double AIR_MOLAR_MASS = 28.9644;
+    public static final double AIR_HEAT_RATIO = 1.4;
+
+    /**
+     * The viscosity of air at standard sea level, in slugs per foot-second, and the temperature it is given at and the
+     * Sutherland temperature of air, in degrees Rankine.
+     */
+    public static final double AIR_VISCOSITY = 3.737e-7;
+    public static final double AIR_REFERENCE_TEMPERATURE = 518.67;
+    public static final double AIR_SUTHERLAND_TEMPERATURE = 198.72;
+
+    public static final double MIN_ALTITUDE = -5000.0;
+    public static final double MAX_ALTITUDE = 280000.0;
+    public static final double TABLE_STEP = 100.0;
+
+    private static final int TEMPERATURE = 0;
+    private static final int PRESSURE = 1;
+    private static final int DENSITY = 2;
+    private static final int SPEED_OF_SOUND = 3;
+    private static final int VISCOSITY = 4;
+    private static final int COLUMNS = 5;
+
+    private static final double FEET_TO_METERS = 0.3048;
+    private static final double KELVIN_TO_RANKINE = 1.8;
+    private static final double PASCALS_PER_PSF = 47.880259;
+    private static final double EARTH_RADIUS = 6356766.0; // meters
+    private static final double HYDROSTATIC_CONSTANT = 9.80665 * 0.0289644 / 8.31432; // kelvin per meter
+
+    /**
+     * The base geopotential altitude (meters) and lapse rate (kelvin per meter) of each layer.
+     */
+    private static final double[] LAYER_BASES = {0.0, 11000.0, 20000.0, 32000.0, 47000.0, 51000.0, 71000.0};
+    private static final double[] LAYER_LAPSE_RATES = {-0.0065, 0.0, 0.001, 0.0028, 0.0, -0.0028, -0.002};
+    private static final double SEA_LEVEL_TEMPERATURE = 288.15; // kelvin
+    private static final double SEA_LEVEL_PRESSURE = 101325.0; // pascals
+
+
+    // Fields
+    private final IdealGas air;
+    private final double siteElevation;
+    private final double temperatureOffset;
+    private final double[] table;
+    private final int rows;
+
+
+    // Properties
+    public IdealGas getFluid() {
+        return this.air;
+    }
+
+    /**
+     *
+     * @return the elevation of the launch site above sea level, in feet
+     */
+    public double getSiteElevation() {
+        return this.siteElevation;
+    }
+
+    /**
+     *
+     * @return the offset of the temperature from the standard day, in degrees Rankine
+     */
+    public double getTemperatureOffset() {
+        return this.temperatureOffset;
+    }
+
+
+    // Initialization
+    /**
+     * Creates a standard day atmosphere of standard air, measured from sea level.
+     */
+    public StandardAtmosphere() {
+        this(standardAir(), 0.0, 0.0);
+    }
+
+    /**
+     *
+     * @param air               the gas the atmosphere is made of
+     * @param siteElevation     the elevation of the launch site above sea level, in feet
+     * @param temperatureOffset the offset of the temperature from the standard day, in degrees Rankine
+     */
+    public StandardAtmosphere(IdealGas air, double siteElevation, double temperatureOffset) {
+        this.air = air;
+        this.siteElevation = siteElevation;
+        this.temperatureOffset = temperatureOffset;
+
+        this.rows = (int) Math.round((MAX_ALTITUDE - MIN_ALTITUDE) / TABLE_STEP) + 1;
+        this.table = new double[this.rows * COLUMNS];
+        double gasConstant = air.getGasConstant();
+        for (int row = 0; row < this.rows; row++) {
+            double elevation = siteElevation + MIN_ALTITUDE + row * TABLE_STEP;
+            double temperature = standardTemperature(elevation) + temperatureOffset;
+            double pressure = standardPressure(elevation);
+
+            int offset = row * COLUMNS;
+            this.table[offset + TEMPERATURE] = temperature;
+            this.table[offset + PRESSURE] = pressure;
+            this.table[offset + DENSITY] = pressure / (gasConstant * temperature);
+            this.table[offset + SPEED_OF_SOUND] = Math.sqrt(air.getHeatRatio() * gasConstant * temperature);
+            this.table[offset + VISCOSITY] = air.getViscosity(temperature);
+        }
+    }
+
+    /**
+     * Creates an atmosphere that matches the temperature and pressure measured at a launch site. The elevation of the
+     * site is taken as the standard altitude with the measured pressure, and the temperature offset as the difference
+     * between the measured and standard temperatures there.
+     *
+     * @param air         the gas the atmosphere is made of
+     * @param temperature the temperature at the site, in degrees Rankine
+     * @param pressure    the pressure at the site, in pounds per square foot
+     *
+     * @return the atmosphere
+     */
+    public static StandardAtmosphere forSiteConditions(IdealGas air, double temperature, double pressure) {
+        // The standard pressure falls monotonically with altitude
+        double low = MIN_ALTITUDE;
+        double high = MAX_ALTITUDE;
+        if (pressure >= standardPressure(low) || pressure <= standardPressure(high)) {
+            throw new IllegalArgumentException("The pressure " + pressure
+                    + " psf is outside of the standard atmosphere.");
+        }
+        while (high - low > 1e-6) {
+            double mid = 0.5 * (low + high);
+            if (standardPressure(mid) > pressure) {
+                low = mid;
+            }
+            else {
+                high = mid;
+            }
+        }
+
+        double elevation = 0.5 * (low + high);
+        return new StandardAtmosphere(air, elevation, temperature - standardTemperature(elevation));
+    }
+
+    /**
+     *
+     * @return air, with its standard molar mass and heat ratio and a viscosity that follows Sutherland's law
+     */
+    public static IdealGas standardAir() {
+        return new IdealGas(AIR_MOLAR_MASS, AIR_HEAT_RATIO, AIR_VISCOSITY, AIR_REFERENCE_TEMPERATURE,
+                AIR_SUTHERLAND_TEMPERATURE);
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @return a fluid state to be filled in by {@link #stateAt(double, MutableFluidState)}
+     */
+    public MutableFluidState createState() {
+        return new MutableFluidState(this.air);
+    }
+
+    /**
+     * Finds the state of the atmosphere at an altitude.
+     *
+     * @param altitude the geometric altitude above the launch site, in feet
+     * @param state    the state to write the properties of the atmosphere into
+     */
+    public void stateAt(double altitude, MutableFluidState state) {
+        double position = (altitude - MIN_ALTITUDE) / TABLE_STEP;
+        int row;
+        double fraction;
+        if (!(position > 0.0)) {
+            row = 0;
+            fraction = 0.0;
+        }
+        else if (position >= this.rows - 1) {
+            row = this.rows - 2;
+            fraction = 1.0;
+        }
+        else {
+            row = (int) position;
+            fraction = position - row;
+        }
+
+        int lower = row * COLUMNS;
+        int upper = lower + COLUMNS;
+        state.set(this.interpolate(lower, upper, TEMPERATURE, fraction),
+                this.interpolate(lower, upper, PRESSURE, fraction),
+                this.interpolate(lower, upper, DENSITY, fraction),
+                this.interpolate(lower, upper, SPEED_OF_SOUND, fraction),
+                this.interpolate(lower, upper, VISCOSITY, fraction));
+    }
+
+
+    // Private Methods
+    private double interpolate(int lower, int upper, int column, double fraction) {
+        double low = this.table[lower + column];
+        return low + (this.table[upper + column] - low) * fraction;
+    }
+
+
+    // Private Static Methods
+    /**
+     *
+     * @param elevation a geometric altitude above sea level, in feet
+     *
+     * @return the geopotential altitude, in meters
+     */
+    private static double geopotential(double elevation) {
+        double meters = elevation * FEET_TO_METERS;
+        return EARTH_RADIUS * meters / (EARTH_RADIUS + meters);
+    }
+
+    private static int layerOf(double geopotential) {
+        int layer = 0;
+        while (layer + 1 < LAYER_BASES.length && geopotential >= LAYER_BASES[layer + 1]) {
+            layer++;
+        }
+        return layer;
+    }
+
+    /**
+     *
+     * @param elevation a geometric altitude above sea level, in feet
+     *
+     * @return the standard temperature, in degrees Rankine
+     */
+    private static double standardTemperature(double elevation) {
+        double h = geopotential(elevation);
+        int layer = layerOf(h);
+        return KELVIN_TO_RANKINE * (baseTemperature(layer) + LAYER_LAPSE_RATES[layer] * (h - LAYER_BASES[layer]));
+    }
+
+    /**
+     *
+     * @param elevation a geometric altitude above sea level, in feet
+     *
+     * @return the standard pressure, in pounds per square foot
+     */
+    private static double standardPressure(double elevation) {
+        double h = geopotential(elevation);
+        int layer = layerOf(h);
+        return pressureInLayer(layer, h) / PASCALS_PER_PSF;
+    }
+
+    /**
+     *
+     * @return the temperature at the base of a layer, in kelvin
+     */
+    private static double baseTemperature(int layer) {
+        double temperature = SEA_LEVEL_TEMPERATURE;
+        for (int i = 0; i < layer; i++) {
+            temperature += LAYER_LAPSE_RATES[i] * (LAYER_BASES[i + 1] - LAYER_BASES[i]);
+        }
+        return temperature;
+    }
+
+    /**
+     *
+     * @return the pressure at a geopotential altitude within a layer, in pascals
+     */
+    private static double pressureInLayer(int layer, double h) {
+        double basePressure = layer == 0 ? SEA_LEVEL_PRESSURE : pressureInLayer(layer - 1, LAYER_BASES[layer]);
+        double baseTemperature = baseTemperature(layer);
+        double lapse = LAYER_LAPSE_RATES[layer];
+        double height = h - LAYER_BASES[layer];
+        if (lapse == 0.0) {
+            return basePressure * Math.exp(-HYDROSTATIC_CONSTANT * height / baseTemperature);
+        }
+        return basePressure * Math.pow(baseTemperature / (baseTemperature + lapse * height),
+                HYDROSTATIC_CONSTANT / lapse);
+    }
+
+}
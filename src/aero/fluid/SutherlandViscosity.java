@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.fluid;
+
+/**
+ * Sutherland's law for the viscosity of a gas,
+ * mu = mu0 * (T / T0)^(3/2) * (T0 + S) / (T + S).
+ *
+ * The law is evaluated once, when the model is created, into a table at every degree from {@link #MIN_TEMPERATURE} to
+ * {@link #MAX_TEMPERATURE}, so that finding a viscosity is an index and a linear interpolation instead of a power and
+ * a division. Temperatures outside of the table are evaluated directly.
+ *
+ * @author Nathan Templon
+ */
+public class SutherlandViscosity {
+
+    // Constants
+    public static final double MIN_TEMPERATURE = 100.0;
+    public static final double MAX_TEMPERATURE = 4000.0;
+    private static final double TABLE_STEP = 1.0;
+
+
+    // Fields
+    private final double referenceViscosity;
+    private final double referenceTemperature;
+    private final double sutherlandTemperature;
+    private final double[] table;
+
+
+    // Properties
+    /**
+     *
+     * @return the viscosity at the reference temperature, in slugs per foot-second
+     */
+    public double getReferenceViscosity() {
+        return this.referenceViscosity;
+    }
+
+    /**
+     *
+     * @return the reference temperature, in degrees Rankine
+     */
+    public double getReferenceTemperature() {
+        return this.referenceTemperature;
+    }
+
+    /**
+     *
+     * @return the Sutherland temperature of the gas, in degrees Rankine
+     */
+    public double getSutherlandTemperature() {
+        return this.sutherlandTemperature;
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param referenceViscosity    the viscosity at the reference temperature, in slugs per foot-second
+     * @param referenceTemperature  the reference temperature, in degrees Rankine
+     * @param sutherlandTemperature the Sutherland temperature of the gas, in degrees Rankine
+     */
+    public SutherlandViscosity(double referenceViscosity, double referenceTemperature, double sutherlandTemperature) {
+        if (referenceTemperature <= 0.0 || sutherlandTemperature < 0.0) {
+            throw new IllegalArgumentException("The reference temperature must be positive and the Sutherland "
+                    + "temperature cannot be negative.");
+        }
+
+        this.referenceViscosity = referenceViscosity;
+        this.referenceTemperature = referenceTemperature;
+        this.sutherlandTemperature = sutherlandTemperature;
+
+        int size = (int) Math.round((MAX_TEMPERATURE - MIN_TEMPERATURE) / TABLE_STEP) + 1;
+        this.table = new double[size];
+        for (int i = 0; i < size; i++) {
+            this.table[i] = this.evaluate(MIN_TEMPERATURE + i * TABLE_STEP);
+        }
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param temperature the temperature, in degrees Rankine
+     *
+     * @return the viscosity at the temperature, in slugs per foot-second
+     */
+    public double viscosity(double temperature) {
+        double position = (temperature - MIN_TEMPERATURE) / TABLE_STEP;
+        if (!(position >= 0.0) || position >= this.table.length - 1) {
+            return this.evaluate(temperature);
+        }
+
+        int index = (int) position;
+        double fraction = position - index;
+        return this.table[index] + (this.table[index + 1] - this.table[index]) * fraction;
+    }
+
+    /**
+     * Evaluates Sutherland's law directly, without the table.
+     *
+     * @param temperature the temperature, in degrees Rankine
+     *
+     * @return the viscosity at the temperature, in slugs per foot-second
+     */
+    public double evaluate(double temperature) {
+        double ratio = temperature / this.referenceTemperature;
+        return this.referenceViscosity * ratio * Math.sqrt(ratio)
+                * (this.referenceTemperature + this.sutherlandTemperature) / (temperature + this.sutherlandTemperature);
+    }
+
+}
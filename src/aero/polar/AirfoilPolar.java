@@ -0,0 +1,277 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.polar;
+
+import aero.Airfoil;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The polars of one airfoil in a {@link PolarDatabase}, interpolated in angle of attack and Reynolds number.
+ *
+ * The coefficients are read in place from the mapped database, so every simulation using an airfoil shares one copy of
+ * its data. Interpolation is linear in the angle of attack and in the logarithm of the Reynolds number, and inputs
+ * outside of the tabulated ranges are clamped to them. Only absolute reads are used, so a polar can be shared between
+ * threads.
+ *
+ * @author Nathan Templon
+ */
+public class AirfoilPolar {
+
+    // Constants
+    private static final int CL = 0;
+    private static final int CD = 1;
+    private static final int CM = 2;
+    private static final int COEFFICIENT_COUNT = 3;
+
+
+    // Fields
+    private final String name;
+    private final ByteBuffer data;
+    private final double[] reynolds;
+    private final double[] logReynolds;
+    private final int[] counts;
+    private final int[] offsets;
+
+
+    // Properties
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     *
+     * @return the Reynolds numbers of the polars, in increasing order
+     */
+    public double[] getReynolds() {
+        return this.reynolds.clone();
+    }
+
+
+    // Initialization
+    /**
+     * Creates a view of the polars of an airfoil.
+     *
+     * @param name     the name of the airfoil
+     * @param data     the buffer holding the coefficients
+     * @param reynolds the Reynolds number of each polar
+     * @param counts   the number of points in each polar
+     * @param offsets  the position in the buffer of the angles of attack of each polar, which are followed by its lift,
+     *                 drag and pitching moment coefficients
+     */
+    AirfoilPolar(String name, ByteBuffer data, double[] reynolds, int[] counts, int[] offsets) {
+        this.name = name;
+        this.data = data;
+        this.reynolds = reynolds;
+        this.counts = counts;
+        this.offsets = offsets;
+
+        this.logReynolds = new double[reynolds.length];
+        for (int i = 0; i < reynolds.length; i++) {
+            this.logReynolds[i] = Math.log(Math.max(reynolds[i], Double.MIN_NORMAL));
+        }
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param alpha    the angle of attack, in degrees
+     * @param reynolds the Reynolds number
+     *
+     * @return the lift coefficient
+     */
+    public double cl(double alpha, double reynolds) {
+        return this.interpolate(alpha, reynolds, CL);
+    }
+
+    /**
+     *
+     * @param alpha    the angle of attack, in degrees
+     * @param reynolds the Reynolds number
+     *
+     * @return the drag coefficient
+     */
+    public double cd(double alpha, double reynolds) {
+        return this.interpolate(alpha, reynolds, CD);
+    }
+
+    /**
+     *
+     * @param alpha    the angle of attack, in degrees
+     * @param reynolds the Reynolds number
+     *
+     * @return the pitching moment coefficient
+     */
+    public double cm(double alpha, double reynolds) {
+        return this.interpolate(alpha, reynolds, CM);
+    }
+
+    /**
+     * Interpolates all three coefficients at once, sharing the searches between them.
+     *
+     * @param alpha    the angle of attack, in degrees
+     * @param reynolds the Reynolds number
+     * @param out      the array to write the lift, drag and pitching moment coefficients into, in that order
+     */
+    public void evaluate(double alpha, double reynolds, double[] out) {
+        Arrays.fill(out, 0, COEFFICIENT_COUNT, 0.0);
+
+        int lower = this.lowerPolar(reynolds);
+        double fraction = this.reynoldsFraction(lower, reynolds);
+        this.accumulate(lower, alpha, 1.0 - fraction, out);
+        if (fraction > 0.0) {
+            this.accumulate(lower + 1, alpha, fraction, out);
+        }
+    }
+
+    /**
+     * Creates an airfoil from the polars at a fixed Reynolds number. Its coefficient functions take the angle of attack
+     * in degrees, like the other airfoils.
+     *
+     * @param reynolds the Reynolds number
+     *
+     * @return the airfoil
+     */
+    public Airfoil toAirfoil(double reynolds) {
+        return new Airfoil(this.name, (double alpha) -> this.cl(alpha, reynolds),
+                (double alpha) -> this.cd(alpha, reynolds), (double alpha) -> this.cm(alpha, reynolds));
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+
+    // Private Methods
+    private double interpolate(double alpha, double reynolds, int coefficient) {
+        int lower = this.lowerPolar(reynolds);
+        double fraction = this.reynoldsFraction(lower, reynolds);
+
+        double value = (1.0 - fraction) * this.valueOf(lower, alpha, coefficient);
+        if (fraction > 0.0) {
+            value += fraction * this.valueOf(lower + 1, alpha, coefficient);
+        }
+        return value;
+    }
+
+    /**
+     *
+     * @return the index of the last polar at or below a Reynolds number, or of the first polar if there is none
+     */
+    private int lowerPolar(double reynolds) {
+        int index = Arrays.binarySearch(this.reynolds, reynolds);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return Math.max(0, Math.min(this.reynolds.length - 1, index));
+    }
+
+    /**
+     *
+     * @return the position of a Reynolds number between a polar and the next, which is zero past either end
+     */
+    private double reynoldsFraction(int lower, double reynolds) {
+        if (lower + 1 >= this.reynolds.length || reynolds <= this.reynolds[lower]) {
+            return 0.0;
+        }
+        double fraction = (Math.log(reynolds) - this.logReynolds[lower])
+                / (this.logReynolds[lower + 1] - this.logReynolds[lower]);
+        return Math.min(1.0, fraction);
+    }
+
+    private double valueOf(int polar, double alpha, int coefficient) {
+        int count = this.counts[polar];
+        int alphaOffset = this.offsets[polar];
+        int valueOffset = alphaOffset + (coefficient + 1) * count * Double.BYTES;
+
+        int lower = this.lowerPoint(polar, alpha);
+        double fraction = this.alphaFraction(polar, lower, alpha);
+        double value = this.data.getDouble(valueOffset + lower * Double.BYTES);
+        if (fraction > 0.0) {
+            double next = this.data.getDouble(valueOffset + (lower + 1) * Double.BYTES);
+            value += fraction * (next - value);
+        }
+        return value;
+    }
+
+    private void accumulate(int polar, double alpha, double weight, double[] out) {
+        int count = this.counts[polar];
+        int lower = this.lowerPoint(polar, alpha);
+        double fraction = this.alphaFraction(polar, lower, alpha);
+
+        for (int coefficient = 0; coefficient < COEFFICIENT_COUNT; coefficient++) {
+            int valueOffset = this.offsets[polar] + (coefficient + 1) * count * Double.BYTES + lower * Double.BYTES;
+            double value = this.data.getDouble(valueOffset);
+            if (fraction > 0.0) {
+                value += fraction * (this.data.getDouble(valueOffset + Double.BYTES) - value);
+            }
+            out[coefficient] += weight * value;
+        }
+    }
+
+    /**
+     *
+     * @return the index of the last point of a polar at or below an angle of attack, or of the first point if there is
+     *         none
+     */
+    private int lowerPoint(int polar, double alpha) {
+        int offset = this.offsets[polar];
+        int low = 0;
+        int high = this.counts[polar] - 1;
+        if (alpha <= this.data.getDouble(offset)) {
+            return 0;
+        }
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (this.data.getDouble(offset + mid * Double.BYTES) <= alpha) {
+                low = mid;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     *
+     * @return the position of an angle of attack between a point of a polar and the next, which is zero past either
+     *         end
+     */
+    private double alphaFraction(int polar, int lower, double alpha) {
+        if (lower + 1 >= this.counts[polar]) {
+            return 0.0;
+        }
+        int offset = this.offsets[polar] + lower * Double.BYTES;
+        double start = this.data.getDouble(offset);
+        double end = this.data.getDouble(offset + Double.BYTES);
+        if (alpha <= start) {
+            return 0.0;
+        }
+        return Math.min(1.0, (alpha - start) / (end - start));
+    }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.polar;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A database of airfoil polars, stored in a compact binary file that is memory mapped when opened.
+ *
+ * Polar text files are imported once with {@link #importPolars(File, File...)}. After that, opening the database only
+ * reads its directory, and the coefficients are read in place from the mapping by the {@link AirfoilPolar}s. Databases
+ * opened through {@link #open(File)} are shared, so any number of simulations and threads looking up the same file use
+ * a single mapping.
+ *
+ * The file holds a header (magic number, version and airfoil count), a directory of airfoil names and block offsets,
+ * and one block per airfoil. Each block holds the number of polars, the Reynolds number and point count of each polar,
+ * and then the angles of attack and the lift, drag and pitching moment coefficients of each polar as arrays of doubles.
+ *
+ * @author Nathan Templon
+ */
+public class PolarDatabase {
+
+    // Constants
+    private static final int MAGIC = 0x4E464150; // "NFAP"
+    private static final int VERSION = 1;
+
+    private static final Map<String, PolarDatabase> OPEN_DATABASES = new ConcurrentHashMap<>();
+
+
+    // Fields
+    private final File file;
+    private final long lastModified;
+    private final Map<String, AirfoilPolar> airfoils;
+
+
+    // Properties
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     *
+     * @return the names of the airfoils in the database, in the order they were stored
+     */
+    public Set<String> getNames() {
+        return this.airfoils.keySet();
+    }
+
+
+    // Initialization
+    private PolarDatabase(File file) throws IOException {
+        this.file = file;
+        this.lastModified = file.lastModified();
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The polar database " + file + " is too large to be mapped.");
+            }
+            // Mappings stay valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a polar database.");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported polar database version " + version + ".");
+            }
+
+            int airfoilCount = buffer.getInt();
+            Map<String, AirfoilPolar> loaded = new LinkedHashMap<>();
+            for (int i = 0; i < airfoilCount; i++) {
+                byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(name);
+                long offset = buffer.getLong();
+
+                String airfoil = new String(name, StandardCharsets.UTF_8);
+                loaded.put(airfoil, readAirfoil(airfoil, buffer, (int) offset));
+            }
+            this.airfoils = Collections.unmodifiableMap(loaded);
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+            throw new IOException("The polar database " + file + " is truncated.", ex);
+        }
+    }
+
+    /**
+     * Opens a polar database, or returns the already open database for the file. A file that has been rewritten since
+     * it was opened is opened again.
+     *
+     * @param file the database file
+     *
+     * @return the database
+     *
+     * @throws IOException if the file cannot be read or is not a polar database
+     */
+    public static PolarDatabase open(File file) throws IOException {
+        String key = file.getCanonicalPath();
+        PolarDatabase database = OPEN_DATABASES.get(key);
+        if (database == null || database.lastModified != file.lastModified()) {
+            database = new PolarDatabase(file);
+            OPEN_DATABASES.put(key, database);
+        }
+        return database;
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param name the name of an airfoil
+     *
+     * @return the polars of the airfoil, or null if the database does not hold it
+     */
+    public AirfoilPolar get(String name) {
+        return this.airfoils.get(name);
+    }
+
+
+    // Public Static Methods
+    /**
+     * Imports polar text files into a new database, replacing any existing file. Each airfoil is named after its file,
+     * without the extension, and the files are read with {@link PolarTable#parse(File)}.
+     *
+     * @param database    the database file to write
+     * @param polarFiles  the polar files, one per airfoil
+     *
+     * @throws IOException if a polar file cannot be read or the database cannot be written
+     */
+    public static void importPolars(File database, File... polarFiles) throws IOException {
+        Map<String, List<PolarTable>> airfoils = new LinkedHashMap<>();
+        for (File polarFile : polarFiles) {
+            String name = polarFile.getName();
+            int extension = name.lastIndexOf('.');
+            if (extension > 0) {
+                name = name.substring(0, extension);
+            }
+
+            List<PolarTable> polars = PolarTable.parse(polarFile);
+            if (polars.isEmpty()) {
+                throw new IOException("The polar file " + polarFile + " holds no data.");
+            }
+            airfoils.put(name, polars);
+        }
+        write(database, airfoils);
+    }
+
+    /**
+     * Writes a database, replacing any existing file. The database is written to a temporary file next to it and then
+     * renamed over it, so a copy of the old file that is already open and mapped is never changed underneath its
+     * readers.
+     *
+     * @param database the database file to write
+     * @param airfoils the polars of each airfoil, by name
+     *
+     * @throws IOException if the database cannot be written
+     */
+    public static void write(File database, Map<String, List<PolarTable>> airfoils) throws IOException {
+        List<byte[]> names = new ArrayList<>();
+        List<byte[]> blocks = new ArrayList<>();
+        int directorySize = 3 * Integer.BYTES;
+        for (Map.Entry<String, List<PolarTable>> entry : airfoils.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (name.length > 0xFFFF) {
+                throw new IllegalArgumentException("The airfoil name " + entry.getKey() + " is too long.");
+            }
+            if (entry.getValue().isEmpty()) {
+                throw new IllegalArgumentException("The airfoil " + entry.getKey() + " has no polars.");
+            }
+            names.add(name);
+            blocks.add(writeAirfoil(entry.getValue()));
+            directorySize += Short.BYTES + name.length + Long.BYTES;
+        }
+
+        File directory = database.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(database.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(names.size());
+
+                long offset = directorySize;
+                for (int i = 0; i < names.size(); i++) {
+                    out.writeShort(names.get(i).length);
+                    out.write(names.get(i));
+                    out.writeLong(offset);
+                    offset += blocks.get(i).length;
+                }
+                for (byte[] block : blocks) {
+                    out.write(block);
+                }
+            }
+            replace(temp, database);
+        }
+        finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+
+    // Private Static Methods
+    private static void replace(File temp, File target) throws IOException {
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static byte[] writeAirfoil(List<PolarTable> polars) throws IOException {
+        List<PolarTable> sorted = new ArrayList<>(polars);
+        sorted.sort(Comparator.comparingDouble(PolarTable::getReynolds));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getReynolds() == sorted.get(i - 1).getReynolds()) {
+                throw new IllegalArgumentException("An airfoil has two polars at a Reynolds number of "
+                        + sorted.get(i).getReynolds() + ".");
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(sorted.size());
+        for (PolarTable polar : sorted) {
+            out.writeDouble(polar.getReynolds());
+            out.writeInt(polar.size());
+        }
+        for (PolarTable polar : sorted) {
+            for (double[] values : new double[][]{polar.getAlpha(), polar.getCl(), polar.getCd(), polar.getCm()}) {
+                for (double value : values) {
+                    out.writeDouble(value);
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static AirfoilPolar readAirfoil(String name, ByteBuffer buffer, int offset) throws IOException {
+        int polarCount = buffer.getInt(offset);
+        if (polarCount <= 0) {
+            throw new IOException("The airfoil " + name + " has no polars.");
+        }
+
+        double[] reynolds = new double[polarCount];
+        int[] counts = new int[polarCount];
+        int[] offsets = new int[polarCount];
+        int position = offset + Integer.BYTES;
+        for (int i = 0; i < polarCount; i++) {
+            reynolds[i] = buffer.getDouble(position);
+            counts[i] = buffer.getInt(position + Double.BYTES);
+            if (counts[i] <= 0) {
+                throw new IOException("A polar of the airfoil " + name + " has no points.");
+            }
+            position += Double.BYTES + Integer.BYTES;
+        }
+        for (int i = 0; i < polarCount; i++) {
+            offsets[i] = position;
+            position += 4 * counts[i] * Double.BYTES;
+        }
+        if (position > buffer.limit()) {
+            throw new IOException("The polars of the airfoil " + name + " are truncated.");
+        }
+
+        return new AirfoilPolar(name, buffer, reynolds, counts, offsets);
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.polar;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The polar of an airfoil at one Reynolds number: its lift, drag and pitching moment coefficients over a range of
+ * angles of attack, in degrees.
+ *
+ * @author Nathan Templon
+ */
+public class PolarTable {
+
+    // Fields
+    private final double reynolds;
+    private final double[] alpha;
+    private final double[] cl;
+    private final double[] cd;
+    private final double[] cm;
+
+
+    // Properties
+    public double getReynolds() {
+        return this.reynolds;
+    }
+
+    public int size() {
+        return this.alpha.length;
+    }
+
+    public double[] getAlpha() {
+        return this.alpha.clone();
+    }
+
+    public double[] getCl() {
+        return this.cl.clone();
+    }
+
+    public double[] getCd() {
+        return this.cd.clone();
+    }
+
+    public double[] getCm() {
+        return this.cm.clone();
+    }
+
+
+    // Initialization
+    /**
+     * Creates a polar.
+     *
+     * @param reynolds the Reynolds number of the polar
+     * @param alpha    the angles of attack, in degrees, which must be strictly increasing
+     * @param cl       the lift coefficient at each angle of attack
+     * @param cd       the drag coefficient at each angle of attack
+     * @param cm       the pitching moment coefficient at each angle of attack
+     */
+    public PolarTable(double reynolds, double[] alpha, double[] cl, double[] cd, double[] cm) {
+        if (alpha.length == 0) {
+            throw new IllegalArgumentException("A polar must have at least one point.");
+        }
+        if (cl.length != alpha.length || cd.length != alpha.length || cm.length != alpha.length) {
+            throw new IllegalArgumentException("Every coefficient must have one value per angle of attack.");
+        }
+        for (int i = 1; i < alpha.length; i++) {
+            if (!(alpha[i] > alpha[i - 1])) {
+                throw new IllegalArgumentException("The angles of attack of a polar must be strictly increasing.");
+            }
+        }
+
+        this.reynolds = reynolds;
+        this.alpha = alpha.clone();
+        this.cl = cl.clone();
+        this.cd = cd.clone();
+        this.cm = cm.clone();
+    }
+
+
+    // Public Static Methods
+    /**
+     * Reads the polars in a text file. Each data line holds the angle of attack in degrees, the Reynolds number and the
+     * lift, drag and pitching moment coefficients, separated by whitespace or commas. Lines that do not hold five
+     * numbers, such as headers and comments, are skipped. The points are grouped into one polar per Reynolds number,
+     * and repeated angles of attack keep the last point given.
+     *
+     * @param file the polar file
+     *
+     * @return the polars in the file, ordered by Reynolds number
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public static List<PolarTable> parse(File file) throws IOException {
+        Map<Double, TreeMap<Double, double[]>> points = new TreeMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            double[] values = new double[5];
+            while ((line = reader.readLine()) != null) {
+                if (parseLine(line, values)) {
+                    points.computeIfAbsent(values[1], (Double re) -> new TreeMap<>())
+                            .put(values[0], new double[]{values[2], values[3], values[4]});
+                }
+            }
+        }
+
+        List<PolarTable> polars = new ArrayList<>();
+        for (Map.Entry<Double, TreeMap<Double, double[]>> entry : points.entrySet()) {
+            TreeMap<Double, double[]> polar = entry.getValue();
+            int size = polar.size();
+            double[] alpha = new double[size];
+            double[] cl = new double[size];
+            double[] cd = new double[size];
+            double[] cm = new double[size];
+
+            int i = 0;
+            for (Map.Entry<Double, double[]> point : polar.entrySet()) {
+                alpha[i] = point.getKey();
+                cl[i] = point.getValue()[0];
+                cd[i] = point.getValue()[1];
+                cm[i] = point.getValue()[2];
+                i++;
+            }
+            polars.add(new PolarTable(entry.getKey(), alpha, cl, cd, cm));
+        }
+        return polars;
+    }
+
+
+    // Private Static Methods
+    private static boolean parseLine(String line, double[] values) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty()) {
+            return false;
+        }
+
+        String[] fields = trimmed.split("[\\s,]+");
+        if (fields.length < values.length) {
+            return false;
+        }
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Double.parseDouble(fields[i]);
+            }
+        }
+        catch (NumberFormatException ex) {
+            return false;
+        }
+        return Arrays.stream(values).allMatch(Double::isFinite);
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.stability;
+
+/**
+ * The geometry of a body of revolution, such as a fuselage, modelled as the prolate spheroid of the same length and
+ * maximum diameter.
+ *
+ * @author Nathan Templon
+ */
+public class BodyGeometry {
+
+    // Fields
+    private final double length;
+    private final double diameter;
+
+
+    // Properties
+    public double getLength() {
+        return this.length;
+    }
+
+    public double getDiameter() {
+        return this.diameter;
+    }
+
+    /**
+     *
+     * @return the volume of the body
+     */
+    public double getVolume() {
+        return Math.PI * this.diameter * this.diameter * this.length / 6.0;
+    }
+
+    /**
+     *
+     * @return the largest cross-sectional area of the body
+     */
+    public double getCrossSection() {
+        return Math.PI * this.diameter * this.diameter / 4.0;
+    }
+
+    /**
+     * Finds the difference between the transverse and axial apparent mass coefficients (k2 - k1) of the body, from
+     * Lamb's results for a prolate spheroid. This scales the Munk moment of the body.
+     *
+     * @return the apparent mass factor
+     */
+    public double getApparentMassFactor() {
+        double fineness = this.length / this.diameter;
+        if (fineness <= 1.0) {
+            return 0.0;
+        }
+
+        double e = Math.sqrt(1.0 - 1.0 / (fineness * fineness));
+        double log = Math.log((1.0 + e) / (1.0 - e));
+        double e2 = e * e;
+        double e3 = e2 * e;
+        double alpha0 = 2.0 * (1.0 - e2) / e3 * (0.5 * log - e);
+        double beta0 = 1.0 / e2 - (1.0 - e2) / (2.0 * e3) * log;
+
+        double k1 = alpha0 / (2.0 - alpha0);
+        double k2 = beta0 / (2.0 - beta0);
+        return k2 - k1;
+    }
+
+
+    // Initialization
+    public BodyGeometry(double length, double diameter) {
+        if (length <= 0.0 || diameter <= 0.0) {
+            throw new IllegalArgumentException("A body must have a positive length and diameter.");
+        }
+        this.length = length;
+        this.diameter = diameter;
+    }
+
+
+    // Public Methods
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BodyGeometry)) {
+            return false;
+        }
+        BodyGeometry body = (BodyGeometry) other;
+        return Double.compare(this.length, body.length) == 0 && Double.compare(this.diameter, body.diameter) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(this.length) + Double.hashCode(this.diameter);
+    }
+
+}
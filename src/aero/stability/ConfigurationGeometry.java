@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.stability;
+
+import aero.AeroReferenceQuantities;
+import java.util.Objects;
+
+/**
+ * The geometry of an aircraft configuration: a wing, optional horizontal and vertical tails, an optional body, and the
+ * position of the center of gravity. Positions are measured aft (x) and up (z), with z measured from the centerline of
+ * the body. Configurations with the same geometry are equal, so configurations can be used as cache keys.
+ *
+ * @author Nathan Templon
+ */
+public class ConfigurationGeometry {
+
+    // Constants
+    public static final double DEFAULT_TAIL_EFFICIENCY = 0.9;
+
+
+    // Fields
+    private final SurfaceGeometry wing;
+    private final SurfaceGeometry horizontalTail;
+    private final SurfaceGeometry verticalTail;
+    private final BodyGeometry body;
+    private final double xCg;
+    private final double zCg;
+    private final double tailEfficiency;
+    private final int hash;
+
+
+    // Properties
+    public SurfaceGeometry getWing() {
+        return this.wing;
+    }
+
+    /**
+     *
+     * @return the horizontal tail, or null if there is none
+     */
+    public SurfaceGeometry getHorizontalTail() {
+        return this.horizontalTail;
+    }
+
+    /**
+     *
+     * @return the vertical tail, or null if there is none
+     */
+    public SurfaceGeometry getVerticalTail() {
+        return this.verticalTail;
+    }
+
+    /**
+     *
+     * @return the body, or null if there is none
+     */
+    public BodyGeometry getBody() {
+        return this.body;
+    }
+
+    public double getXCg() {
+        return this.xCg;
+    }
+
+    public double getZCg() {
+        return this.zCg;
+    }
+
+    /**
+     *
+     * @return the ratio of the dynamic pressure at the tails to the free stream dynamic pressure
+     */
+    public double getTailEfficiency() {
+        return this.tailEfficiency;
+    }
+
+    /**
+     *
+     * @return the reference quantities of the configuration: the mean aerodynamic chord, area and full span of the
+     *         wing
+     */
+    public AeroReferenceQuantities getReference() {
+        return new AeroReferenceQuantities(this.wing.getMeanChord(), 2.0 * this.wing.getArea(),
+                2.0 * this.wing.getSpan());
+    }
+
+
+    // Initialization
+    public ConfigurationGeometry(SurfaceGeometry wing, SurfaceGeometry horizontalTail, SurfaceGeometry verticalTail,
+            BodyGeometry body, double xCg, double zCg) {
+        this(wing, horizontalTail, verticalTail, body, xCg, zCg, DEFAULT_TAIL_EFFICIENCY);
+    }
+
+    public ConfigurationGeometry(SurfaceGeometry wing, SurfaceGeometry horizontalTail, SurfaceGeometry verticalTail,
+            BodyGeometry body, double xCg, double zCg, double tailEfficiency) {
+        if (wing == null) {
+            throw new IllegalArgumentException("A configuration must have a wing.");
+        }
+        if (tailEfficiency <= 0.0) {
+            throw new IllegalArgumentException("The tail efficiency must be positive.");
+        }
+
+        this.wing = wing;
+        this.horizontalTail = horizontalTail;
+        this.verticalTail = verticalTail;
+        this.body = body;
+        this.xCg = xCg;
+        this.zCg = zCg;
+        this.tailEfficiency = tailEfficiency;
+        this.hash = Objects.hash(wing, horizontalTail, verticalTail, body, xCg, zCg, tailEfficiency);
+    }
+
+
+    // Public Methods
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ConfigurationGeometry)) {
+            return false;
+        }
+        ConfigurationGeometry config = (ConfigurationGeometry) other;
+        return this.hash == config.hash
+                && Double.compare(this.xCg, config.xCg) == 0
+                && Double.compare(this.zCg, config.zCg) == 0
+                && Double.compare(this.tailEfficiency, config.tailEfficiency) == 0
+                && this.wing.equals(config.wing)
+                && Objects.equals(this.horizontalTail, config.horizontalTail)
+                && Objects.equals(this.verticalTail, config.verticalTail)
+                && Objects.equals(this.body, config.body);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.stability;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estimates stability derivatives from the geometry of a configuration. Estimates are memoized on the geometry, so
+ * sweeping a trade study that revisits the same configurations, or rebuilding a model for a configuration that has
+ * already been estimated, costs a single hash lookup.
+ *
+ * The cache keeps at most {@link #MAX_CACHE_SIZE} estimates and discards the least recently used one when it is full,
+ * so a long optimization that never revisits a geometry does not grow it without bound. Call {@link #clearCache()}
+ * between unrelated studies to release the estimates of the last one sooner.
+ *
+ * @author Nathan Templon
+ */
+public final class StabilityDerivativeEstimator {
+
+    // Constants
+    /**
+     * The largest number of estimates kept in the cache.
+     */
+    public static final int MAX_CACHE_SIZE = 4096;
+
+    private static final Map<ConfigurationGeometry, StabilityDerivatives> CACHE
+            = new LinkedHashMap<ConfigurationGeometry, StabilityDerivatives>(2 * MAX_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ConfigurationGeometry, StabilityDerivatives> eldest) {
+                    return this.size() > MAX_CACHE_SIZE;
+                }
+            };
+
+
+    // Public Static Methods
+    /**
+     * Estimates the stability derivatives of a configuration, reusing an earlier estimate of the same geometry if there
+     * is one.
+     *
+     * @param geometry the geometry of the configuration
+     *
+     * @return the stability derivatives
+     */
+    public static StabilityDerivatives estimate(ConfigurationGeometry geometry) {
+        StabilityDerivatives derivatives;
+        synchronized (CACHE) {
+            derivatives = CACHE.get(geometry);
+        }
+        if (derivatives != null) {
+            return derivatives;
+        }
+
+        derivatives = new StabilityDerivatives(geometry);
+        synchronized (CACHE) {
+            // Another thread may have estimated the same geometry in the meantime
+            StabilityDerivatives existing = CACHE.get(geometry);
+            if (existing != null) {
+                return existing;
+            }
+            CACHE.put(geometry, derivatives);
+        }
+        return derivatives;
+    }
+
+    /**
+     *
+     * @return the number of configurations that have been estimated and cached
+     */
+    public static int getCacheSize() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * Discards every cached estimate.
+     */
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+
+    // Initialization
+    private StabilityDerivativeEstimator() {
+
+    }
+
+}
@@ -0,0 +1,409 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.stability;
+
+import aero.AeroReferenceQuantities;
+
+/**
+ * Stability derivatives of a configuration, estimated from its geometry with the low speed DATCOM-style component
+ * buildup. Angles are in radians and the rates are nondimensionalized as qc/(2V) in pitch and pb/(2V), rb/(2V) in roll
+ * and yaw. The derivatives are referenced to the wing (see {@link ConfigurationGeometry#getReference()}) and taken
+ * about the center of gravity of the configuration.
+ *
+ * The lateral derivatives that depend on the lift coefficient are given at zero lift, with the lift-dependent wing
+ * terms added by the overloads that take a lift coefficient.
+ *
+ * @author Nathan Templon
+ */
+public class StabilityDerivatives {
+
+    // Constants
+    private static final double WING_PITCH_DAMPING_FACTOR = 0.7;
+    private static final double VERTICAL_TAIL_END_PLATE_FACTOR = 1.55;
+
+
+    // Fields
+    private final AeroReferenceQuantities reference;
+    private final double neutralPoint;
+    private final double downwashGradient;
+
+    private final double clAlpha;
+    private final double clQ;
+    private final double clDeltaE;
+    private final double cpmAlpha;
+    private final double cpmQ;
+    private final double cpmDeltaE;
+
+    private final double csfBeta;
+    private final double csfRoll;
+    private final double csfYaw;
+    private final double cymBeta;
+    private final double cymRoll;
+    private final double cymYaw;
+    private final double crmBeta;
+    private final double crmRoll;
+    private final double crmYaw;
+    private final double crmBetaPerCl;
+
+
+    // Properties
+    public AeroReferenceQuantities getReference() {
+        return this.reference;
+    }
+
+    /**
+     *
+     * @return the x position of the stick-fixed neutral point
+     */
+    public double getNeutralPoint() {
+        return this.neutralPoint;
+    }
+
+    /**
+     *
+     * @return the static margin, as a fraction of the reference chord
+     */
+    public double getStaticMargin() {
+        return -this.cpmAlpha / this.clAlpha;
+    }
+
+    /**
+     *
+     * @return the rate of change of the downwash angle at the horizontal tail with angle of attack
+     */
+    public double getDownwashGradient() {
+        return this.downwashGradient;
+    }
+
+    public double getClAlpha() {
+        return this.clAlpha;
+    }
+
+    public double getClQ() {
+        return this.clQ;
+    }
+
+    public double getClDeltaE() {
+        return this.clDeltaE;
+    }
+
+    public double getCpmAlpha() {
+        return this.cpmAlpha;
+    }
+
+    public double getCpmQ() {
+        return this.cpmQ;
+    }
+
+    public double getCpmDeltaE() {
+        return this.cpmDeltaE;
+    }
+
+    public double getCsfBeta() {
+        return this.csfBeta;
+    }
+
+    public double getCsfRoll() {
+        return this.csfRoll;
+    }
+
+    public double getCsfYaw() {
+        return this.csfYaw;
+    }
+
+    public double getCymBeta() {
+        return this.cymBeta;
+    }
+
+    /**
+     *
+     * @return the yawing moment due to roll rate at zero lift
+     */
+    public double getCymRoll() {
+        return this.cymRoll;
+    }
+
+    /**
+     *
+     * @param cl the lift coefficient
+     *
+     * @return the yawing moment due to roll rate at the lift coefficient
+     */
+    public double getCymRoll(double cl) {
+        return this.cymRoll - cl / 8.0;
+    }
+
+    public double getCymYaw() {
+        return this.cymYaw;
+    }
+
+    /**
+     *
+     * @return the rolling moment due to sideslip at zero lift
+     */
+    public double getCrmBeta() {
+        return this.crmBeta;
+    }
+
+    /**
+     *
+     * @param cl the lift coefficient
+     *
+     * @return the rolling moment due to sideslip at the lift coefficient
+     */
+    public double getCrmBeta(double cl) {
+        return this.crmBeta + this.crmBetaPerCl * cl;
+    }
+
+    public double getCrmRoll() {
+        return this.crmRoll;
+    }
+
+    /**
+     *
+     * @return the rolling moment due to yaw rate at zero lift
+     */
+    public double getCrmYaw() {
+        return this.crmYaw;
+    }
+
+    /**
+     *
+     * @param cl the lift coefficient
+     *
+     * @return the rolling moment due to yaw rate at the lift coefficient
+     */
+    public double getCrmYaw(double cl) {
+        return this.crmYaw + cl / 4.0;
+    }
+
+
+    // Initialization
+    StabilityDerivatives(ConfigurationGeometry geometry) {
+        SurfaceGeometry wing = geometry.getWing();
+        SurfaceGeometry tail = geometry.getHorizontalTail();
+        SurfaceGeometry fin = geometry.getVerticalTail();
+        BodyGeometry body = geometry.getBody();
+        double eta = geometry.getTailEfficiency();
+        double xCg = geometry.getXCg();
+
+        this.reference = geometry.getReference();
+        double area = this.reference.getArea();
+        double span = this.reference.getSpan();
+        double chord = this.reference.getChord();
+        double aspectRatio = span * span / area;
+        double taper = wing.getTaperRatio();
+        double cosSweep = 1.0 / Math.sqrt(1.0 + wing.getTanQuarterSweep() * wing.getTanQuarterSweep());
+
+        // Wing-body lift
+        double wingSlope = liftSlope(aspectRatio, wing.getTanHalfSweep(), wing.getSectionLiftSlope());
+        double bodyRatio = body == null ? 0.0 : body.getDiameter() / span;
+        double wingBodySlope = wingSlope * (1.0 + 0.025 * bodyRatio - 0.25 * bodyRatio * bodyRatio);
+        double wingArm = (wing.getAerodynamicCenter() - xCg) / chord;
+
+        double clAlphaSum = wingBodySlope;
+        double cpmAlphaSum = -wingBodySlope * wingArm;
+        double clQSum = (0.5 + 2.0 * wingArm) * wingSlope;
+        double cpmQSum = wingPitchDamping(aspectRatio, wing.getTanQuarterSweep(), cosSweep, wingArm,
+                wing.getSectionLiftSlope());
+        double clDeltaESum = 0.0;
+        double cpmDeltaESum = 0.0;
+        double crmRollSum = -wingSlope * (1.0 + 3.0 * taper) / (12.0 * (1.0 + taper));
+
+        // Munk moment of the body
+        double munk = 0.0;
+        if (body != null) {
+            munk = 2.0 * body.getApparentMassFactor() * body.getVolume() / area;
+            cpmAlphaSum += munk / chord;
+        }
+
+        // Horizontal tail
+        double epsilonAlpha = 0.0;
+        if (tail != null) {
+            double tailArea = 2.0 * tail.getArea();
+            double tailSpan = 2.0 * tail.getSpan();
+            double tailSlope = liftSlope(tailSpan * tailSpan / tailArea, tail.getTanHalfSweep(),
+                    tail.getSectionLiftSlope());
+            double tailVolume = eta * tailArea / area;
+            double tailArm = (tail.getAerodynamicCenter() - xCg) / chord;
+            epsilonAlpha = downwashGradient(aspectRatio, taper, cosSweep,
+                    tail.getAerodynamicCenter() - wing.getAerodynamicCenter(), tail.getZ() - wing.getZ(), span);
+
+            double tailLift = tailVolume * tailSlope * (1.0 - epsilonAlpha);
+            clAlphaSum += tailLift;
+            cpmAlphaSum -= tailLift * tailArm;
+            clQSum += 2.0 * tailVolume * tailArm * tailSlope;
+            cpmQSum -= 2.0 * tailVolume * tailArm * tailArm * tailSlope;
+
+            double elevatorLift = tailVolume * tailSlope * flapEffectiveness(tail.getControlChordFraction());
+            clDeltaESum += elevatorLift;
+            cpmDeltaESum -= elevatorLift * tailArm;
+
+            double tailTaper = tail.getTaperRatio();
+            crmRollSum -= tailVolume * (tailSpan / span) * (tailSpan / span)
+                    * tailSlope * (1.0 + 3.0 * tailTaper) / (12.0 * (1.0 + tailTaper));
+        }
+
+        this.downwashGradient = epsilonAlpha;
+        this.clAlpha = clAlphaSum;
+        this.cpmAlpha = cpmAlphaSum;
+        this.clQ = clQSum;
+        this.cpmQ = cpmQSum;
+        this.clDeltaE = clDeltaESum;
+        this.cpmDeltaE = cpmDeltaESum;
+        this.neutralPoint = xCg - this.cpmAlpha / this.clAlpha * chord;
+
+        // Body side force, yawing moment and the effect of the wing's vertical position
+        double csfBetaSum = 0.0;
+        double cymBetaSum = 0.0;
+        double crmBetaSum = 0.0;
+        double wingDepth = -wing.getZ();
+        if (body != null) {
+            csfBetaSum -= 2.0 * body.getCrossSection() / area;
+            cymBetaSum -= munk / span;
+            crmBetaSum += 1.2 * Math.sqrt(aspectRatio) * (wingDepth / span) * (2.0 * body.getDiameter() / span);
+        }
+
+        // Vertical tail
+        double csfRollSum = 0.0;
+        double csfYawSum = 0.0;
+        double cymRollSum = 0.0;
+        double cymYawSum = 0.0;
+        double crmYawSum = 0.0;
+        if (fin != null) {
+            double finArea = fin.getArea();
+            double finAspectRatio = VERTICAL_TAIL_END_PLATE_FACTOR * fin.getSpan() * fin.getSpan() / finArea;
+            double finSlope = liftSlope(finAspectRatio, fin.getTanHalfSweep(), fin.getSectionLiftSlope());
+            double sidewash = 0.724 + 3.06 * (finArea / area) / (1.0 + cosSweep) + 0.009 * aspectRatio;
+            if (body != null) {
+                sidewash += 0.4 * wingDepth / body.getDiameter();
+            }
+
+            double finSideForce = -sidewash * finSlope * finArea / area;
+            double finArm = (fin.getAerodynamicCenter() - xCg) / span;
+            double finHeight = (fin.getZ() + fin.getMeanChordStation() - geometry.getZCg()) / span;
+
+            csfBetaSum += finSideForce;
+            cymBetaSum -= finSideForce * finArm;
+            crmBetaSum += finSideForce * finHeight;
+            csfRollSum += 2.0 * finSideForce * finHeight;
+            csfYawSum -= 2.0 * finSideForce * finArm;
+            cymRollSum -= 2.0 * finSideForce * finArm * finHeight;
+            cymYawSum += 2.0 * finSideForce * finArm * finArm;
+            crmRollSum += 2.0 * finSideForce * finHeight * finHeight;
+            crmYawSum -= 2.0 * finSideForce * finArm * finHeight;
+        }
+
+        this.csfBeta = csfBetaSum;
+        this.csfRoll = csfRollSum;
+        this.csfYaw = csfYawSum;
+        this.cymBeta = cymBetaSum;
+        this.cymRoll = cymRollSum;
+        this.cymYaw = cymYawSum;
+        this.crmBeta = crmBetaSum;
+        this.crmRoll = crmRollSum;
+        this.crmYaw = crmYawSum;
+
+        // Strip theory: sideslip unsweeps the windward panel and sweeps the leeward one
+        this.crmBetaPerCl = -wing.getTanQuarterSweep() * (1.0 + 2.0 * taper) / (3.0 * (1.0 + taper));
+    }
+
+
+    // Private Static Methods
+    /**
+     * Finds the lift curve slope of a surface from the Helmbold-Polhamus relation.
+     *
+     * @param aspectRatio      the aspect ratio of the surface
+     * @param tanHalfSweep     the tangent of the half chord sweep angle
+     * @param sectionLiftSlope the lift curve slope of the sections, per radian
+     *
+     * @return the lift curve slope of the surface, per radian
+     */
+    private static double liftSlope(double aspectRatio, double tanHalfSweep, double sectionLiftSlope) {
+        double kappa = sectionLiftSlope / (2.0 * Math.PI);
+        double root = Math.sqrt(aspectRatio * aspectRatio / (kappa * kappa) * (1.0 + tanHalfSweep * tanHalfSweep)
+                + 4.0);
+        return 2.0 * Math.PI * aspectRatio / (2.0 + root);
+    }
+
+    /**
+     * Finds the downwash gradient at the horizontal tail from the DATCOM empirical relation.
+     *
+     * @param aspectRatio the aspect ratio of the wing
+     * @param taper       the taper ratio of the wing
+     * @param cosSweep    the cosine of the quarter chord sweep angle of the wing
+     * @param arm         the distance from the aerodynamic center of the wing to that of the tail
+     * @param height      the height of the tail above the root of the wing
+     * @param span        the full span of the wing
+     *
+     * @return the downwash gradient
+     */
+    private static double downwashGradient(double aspectRatio, double taper, double cosSweep, double arm,
+            double height, double span) {
+        if (arm <= 0.0) {
+            // The tail is ahead of the wing, so it sees no downwash
+            return 0.0;
+        }
+
+        double kA = 1.0 / aspectRatio - 1.0 / (1.0 + Math.pow(aspectRatio, 1.7));
+        double kLambda = (10.0 - 3.0 * taper) / 7.0;
+        double kH = Math.max(0.0, 1.0 - Math.abs(height) / span) / Math.cbrt(2.0 * arm / span);
+        return 4.44 * Math.pow(kA * kLambda * kH * Math.sqrt(cosSweep), 1.19);
+    }
+
+    /**
+     * Finds the pitch damping of a wing from the DATCOM low speed relation.
+     *
+     * @param aspectRatio      the aspect ratio of the wing
+     * @param tanSweep         the tangent of the quarter chord sweep angle
+     * @param cosSweep         the cosine of the quarter chord sweep angle
+     * @param arm              the distance from the center of gravity aft to the aerodynamic center, in chords
+     * @param sectionLiftSlope the lift curve slope of the sections, per radian
+     *
+     * @return the pitch damping of the wing
+     */
+    private static double wingPitchDamping(double aspectRatio, double tanSweep, double cosSweep, double arm,
+            double sectionLiftSlope) {
+        double offset = aspectRatio * (2.0 * arm * arm + 0.5 * arm) / (aspectRatio + 2.0 * cosSweep);
+        double sweep = aspectRatio * aspectRatio * aspectRatio * tanSweep * tanSweep
+                / (24.0 * (aspectRatio + 6.0 * cosSweep));
+        return -WING_PITCH_DAMPING_FACTOR * sectionLiftSlope * cosSweep * (offset + sweep + 0.125);
+    }
+
+    /**
+     * Finds the flap effectiveness (the change in angle of attack per unit deflection) from thin airfoil theory.
+     *
+     * @param chordFraction the chord of the flap as a fraction of the local chord
+     *
+     * @return the flap effectiveness
+     */
+    private static double flapEffectiveness(double chordFraction) {
+        if (chordFraction <= 0.0) {
+            return 0.0;
+        }
+        double theta = Math.acos(2.0 * chordFraction - 1.0);
+        return 1.0 - (theta - Math.sin(theta)) / Math.PI;
+    }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package aero.stability;
+
+import aero.Airfoil;
+import aero.Wing;
+import aero.WingPlanform;
+import java.util.Arrays;
+
+/**
+ * The geometry of a lifting surface placed on an aircraft, reduced to the numbers used by the stability derivative
+ * buildup.
+ *
+ * Horizontal surfaces are described by the planform of one side, from the root (lateral position 0) to the tip (lateral
+ * position equal to the span of the planform), and are mirrored about the root. Vertical surfaces are described by the
+ * planform of the single fin, from its root to its tip. Positions are measured aft (x) and up (z), with z measured from
+ * the centerline of the body. Two surfaces with the same numbers are equal, so surfaces can be used as cache keys.
+ *
+ * @author Nathan Templon
+ */
+public class SurfaceGeometry {
+
+    // Constants
+    private static final int INTEGRATION_STEPS = 200;
+    private static final double SLOPE_STEP = 1.0;
+
+
+    // Fields
+    private final double x;
+    private final double z;
+    private final double span;
+    private final double area;
+    private final double taperRatio;
+    private final double meanChord;
+    private final double meanChordStation;
+    private final double aerodynamicCenter;
+    private final double tanQuarterSweep;
+    private final double tanHalfSweep;
+    private final double sectionLiftSlope;
+    private final double controlChordFraction;
+    private final double[] key;
+    private final int hash;
+
+
+    // Properties
+    /**
+     *
+     * @return the x position of the leading edge of the root
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     *
+     * @return the height of the root above the centerline of the body
+     */
+    public double getZ() {
+        return this.z;
+    }
+
+    /**
+     *
+     * @return the span of the planform, from the root to the tip
+     */
+    public double getSpan() {
+        return this.span;
+    }
+
+    /**
+     *
+     * @return the area of the planform, from the root to the tip
+     */
+    public double getArea() {
+        return this.area;
+    }
+
+    public double getTaperRatio() {
+        return this.taperRatio;
+    }
+
+    /**
+     *
+     * @return the mean aerodynamic chord
+     */
+    public double getMeanChord() {
+        return this.meanChord;
+    }
+
+    /**
+     *
+     * @return the lateral position of the mean aerodynamic chord, from the root
+     */
+    public double getMeanChordStation() {
+        return this.meanChordStation;
+    }
+
+    /**
+     *
+     * @return the x position of the aerodynamic center, taken as the quarter chord of the mean aerodynamic chord
+     */
+    public double getAerodynamicCenter() {
+        return this.aerodynamicCenter;
+    }
+
+    public double getTanQuarterSweep() {
+        return this.tanQuarterSweep;
+    }
+
+    public double getTanHalfSweep() {
+        return this.tanHalfSweep;
+    }
+
+    /**
+     *
+     * @return the lift curve slope of the sections, per radian
+     */
+    public double getSectionLiftSlope() {
+        return this.sectionLiftSlope;
+    }
+
+    /**
+     *
+     * @return the chord of the control surface as a fraction of the local chord, or zero if there is none
+     */
+    public double getControlChordFraction() {
+        return this.controlChordFraction;
+    }
+
+
+    // Initialization
+    /**
+     * Creates a surface from its planform.
+     *
+     * @param planform             the planform
+     * @param x                    the x position of the leading edge of the root
+     * @param z                    the height of the root above the centerline of the body
+     * @param sectionLiftSlope     the lift curve slope of the sections, per radian
+     * @param controlChordFraction the chord of the control surface as a fraction of the local chord, or zero if there
+     *                             is none
+     */
+    public SurfaceGeometry(WingPlanform planform, double x, double z, double sectionLiftSlope,
+            double controlChordFraction) {
+        if (planform.span() <= 0.0 || planform.area() <= 0.0) {
+            throw new IllegalArgumentException("A surface must have a positive span and area.");
+        }
+        if (controlChordFraction < 0.0 || controlChordFraction > 1.0) {
+            throw new IllegalArgumentException("The control chord fraction must be between zero and one.");
+        }
+
+        this.x = x;
+        this.z = z;
+        this.span = planform.span();
+        this.area = planform.area();
+        this.taperRatio = planform.taperRatio();
+        this.sectionLiftSlope = sectionLiftSlope;
+        this.controlChordFraction = controlChordFraction;
+
+        double rootChord = planform.chordAt(0.0);
+        double tipChord = planform.chordAt(this.span);
+        double tipOffset = planform.xPositionAt(this.span);
+        this.tanQuarterSweep = (tipOffset + 0.25 * (tipChord - rootChord)) / this.span;
+        this.tanHalfSweep = (tipOffset + 0.5 * (tipChord - rootChord)) / this.span;
+
+        // Midpoint integration of the chord-weighted quantities over the span
+        double step = this.span / INTEGRATION_STEPS;
+        double chordArea = 0.0;
+        double chordSquared = 0.0;
+        double chordStation = 0.0;
+        double chordQuarterChord = 0.0;
+        for (int i = 0; i < INTEGRATION_STEPS; i++) {
+            double station = (i + 0.5) * step;
+            double chord = planform.chordAt(station);
+            chordArea += chord * step;
+            chordSquared += chord * chord * step;
+            chordStation += chord * station * step;
+            chordQuarterChord += chord * (planform.xPositionAt(station) + 0.25 * chord) * step;
+        }
+        this.meanChord = chordSquared / chordArea;
+        this.meanChordStation = chordStation / chordArea;
+        this.aerodynamicCenter = x + chordQuarterChord / chordArea;
+
+        this.key = new double[]{this.x, this.z, this.span, this.area, this.taperRatio, this.meanChord,
+            this.meanChordStation, this.aerodynamicCenter, this.tanQuarterSweep, this.tanHalfSweep,
+            this.sectionLiftSlope, this.controlChordFraction};
+        this.hash = Arrays.hashCode(this.key);
+    }
+
+    /**
+     * Creates a surface from a wing, taking the section lift curve slope from the airfoil at its root.
+     *
+     * @param wing                 the wing
+     * @param x                    the x position of the leading edge of the root
+     * @param z                    the height of the root above the centerline of the body
+     * @param controlChordFraction the chord of the control surface as a fraction of the local chord, or zero if there
+     *                             is none
+     *
+     * @return the surface
+     */
+    public static SurfaceGeometry of(Wing wing, double x, double z, double controlChordFraction) {
+        Airfoil airfoil = wing.sectionAt(0.0).airfoil();
+        // Airfoil data is tabulated in degrees
+        double slope = Math.toDegrees((airfoil.cl(SLOPE_STEP) - airfoil.cl(-SLOPE_STEP)) / (2.0 * SLOPE_STEP));
+        if (!(slope > 0.0) || Double.isInfinite(slope)) {
+            slope = 2.0 * Math.PI;
+        }
+        return new SurfaceGeometry(wing.getPlanform(), x, z, slope, controlChordFraction);
+    }
+
+
+    // Public Methods
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SurfaceGeometry)) {
+            return false;
+        }
+        SurfaceGeometry surface = (SurfaceGeometry) other;
+        return this.hash == surface.hash && Arrays.equals(this.key, surface.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+}
@@ -25,10 +25,12 @@ package dynamics;
 
 import aero.AeroReferenceQuantities;
 import aero.AerodynamicCoefficientModel;
+import aero.Flap;
 import aero.fluid.Fluid;
 import aero.fluid.FluidState;
 import aero.fluid.IdealGas;
-import aero.fluid.IdealGasState;
+import aero.fluid.MutableFluidState;
+import aero.fluid.StandardAtmosphere;
 import com.jupiter.ganymede.math.matrix.Matrix;
 import com.jupiter.ganymede.math.vector.Vector;
 import com.jupiter.ganymede.math.geometry.Angle;
@@ -37,11 +39,16 @@ import com.jupiter.ganymede.math.geometry.Plane3;
 import com.jupiter.ganymede.math.vector.Vector3;
 import dynamics.airplane.WindModel;
 import dynamics.analysis.InertiaModel;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import propulsion.PropulsionForceModel;
+import propulsion.PropulsionSample;
 import util.PhysicalConstants;
+import util.RealFunction;
 
 /**
  *
@@ -52,6 +59,9 @@ public class AerodynamicSystem extends DynamicSystem {
     // Constants
     public static final double ANGLE_CALCULATION_SPEED_THRESHOLD = 1;
 
+    /**
+     * The state of the air around the vehicle. This is an immutable copy that belongs to the state it was recorded in.
+     */
     public static final StateVariable<FluidState> FLUID_STATE = new StateVariable<>("Fluid State");
     public static final StateVariable<Double> CL = new StateVariable<>("CL");
     public static final StateVariable<Double> CD = new StateVariable<>("CD");
@@ -66,6 +76,7 @@ public class AerodynamicSystem extends DynamicSystem {
     public static final StateVariable<Double> PITCHING_MOMENT = new StateVariable<>("Pitching Moment");
     public static final StateVariable<Double> YAWING_MOMENT = new StateVariable<>("Yawing Moment");
     public static final StateVariable<Double> THRUST = new StateVariable<>("Thrust");
+    public static final StateVariable<PropulsionSample> PROPULSION = new StateVariable<>("Propulsion");
 
     public static final StateVariable<Double> Q_HAT = new StateVariable<>("Q Hat");
 
@@ -75,6 +86,7 @@ public class AerodynamicSystem extends DynamicSystem {
     public static final StateVariable<Double> CPM_FROM_A = new StateVariable<>("CPM from Alpha");
 
     public static final StateVariable<Angle> DELTA_E = new StateVariable<>("Elevator Deflection");
+    public static final StateVariable<Double> CL_FLAPS = new StateVariable<>("CL from Flaps");
 
     public static final StateVariable<Double> DYNAMIC_PRESSURE = new StateVariable<>("Q");
     public static final StateVariable<Double> MACH = new StateVariable<>("Mach");
@@ -119,6 +131,16 @@ public class AerodynamicSystem extends DynamicSystem {
     public static final Plane3 XZ_PLANE = new Plane3(Y_AXIS);
     public static final Plane3 YZ_PLANE = new Plane3(X_AXIS);
 
+    /**
+     * The temperature (Rankine) and pressure (psf) at the launch site, used to set up the default atmosphere.
+     */
+    public static final double DEFAULT_SITE_TEMPERATURE = 99.0 + 459.0;
+    public static final double DEFAULT_SITE_PRESSURE = 2011.33;
+
+    private static final int X_POS_COMPONENT = 1;
+    private static final int Y_POS_COMPONENT = 3;
+    private static final int Z_POS_COMPONENT = 5;
+
 
     // Fields
     private final AerodynamicCoefficientModel model;
@@ -128,7 +150,11 @@ public class AerodynamicSystem extends DynamicSystem {
     private final SystemState initialState;
     private final Fluid fluid;
     private final WindModel windModel;
+    private final List<Flap> flaps = new ArrayList<>();
+    private final List<RealFunction> flapDeflections = new ArrayList<>();
 
+    private StandardAtmosphere atmosphere;
+    private ThreadLocal<MutableFluidState> fluidStates;
     private boolean useLaunchRod = false;
 
 
@@ -151,6 +177,23 @@ public class AerodynamicSystem extends DynamicSystem {
         return this.useLaunchRod;
     }
 
+    public final StandardAtmosphere getAtmosphere() {
+        return this.atmosphere;
+    }
+
+    /**
+     *
+     * @param atmosphere the atmosphere the vehicle flies through, with altitudes measured from the launch site
+     */
+    public final void setAtmosphere(StandardAtmosphere atmosphere) {
+        this.atmosphere = atmosphere;
+        this.fluidStates = ThreadLocal.withInitial(atmosphere::createState);
+    }
+
+    public final List<Flap> getFlaps() {
+        return Collections.unmodifiableList(this.flaps);
+    }
+
 
     // Initialization
     public AerodynamicSystem(AerodynamicCoefficientModel model, AeroReferenceQuantities reference, PropulsionForceModel prop,
@@ -162,10 +205,28 @@ public class AerodynamicSystem extends DynamicSystem {
         this.initialState = initialState;
         this.fluid = fluid;
         this.windModel = wind;
+
+        this.setAtmosphere(StandardAtmosphere.forSiteConditions((IdealGas) fluid, DEFAULT_SITE_TEMPERATURE,
+                DEFAULT_SITE_PRESSURE));
     }
 
 
     // Public Methods
+    /**
+     * Adds a flap, whose lift coefficient increment is added to the lift coefficient of the model at every step. The
+     * reference area of the flap is set to that of the vehicle, so that its increment is normalized like the lift
+     * coefficient it is added to; a flap should therefore not be shared between vehicles with different reference
+     * areas.
+     *
+     * @param flap       the flap
+     * @param deflection the deflection of the flap as a function of time, in radians, positive trailing edge down
+     */
+    public final void addFlap(Flap flap, RealFunction deflection) {
+        flap.setSRef(this.reference.getArea());
+        this.flaps.add(flap);
+        this.flapDeflections.add(deflection);
+    }
+
     /**
      * Computes a step in a simulation by calculating the "delta vector" (velocities and accelerations) of the vehicle
      * in body axis.
@@ -181,7 +242,8 @@ public class AerodynamicSystem extends DynamicSystem {
      */
     @Override
     public final ComputeStepResults computeStep(double time, Vector stateVector) {
-        Vector3 wind = this.windModel.getWind(time);
+        Vector3 wind = this.windModel.getWind(time, stateVector.getComponent(X_POS_COMPONENT),
+                stateVector.getComponent(Y_POS_COMPONENT), stateVector.getComponent(Z_POS_COMPONENT));
 
         Map<SystemProperty, Object> props = new LinkedHashMap<>();
 
@@ -225,8 +287,11 @@ public class AerodynamicSystem extends DynamicSystem {
         Vector3 earthRotations = new Vector3(xRotateRate, yRotateRate, zRotateRate);
 
         // Fluid State and Flow Properties
+        //  The reused state is only read during this step; the recorded state keeps its own copy
         FluidState fluidState = this.getFluidState(time, stateVector);
-        props.put(AerodynamicSystem.FLUID_STATE, fluidState);
+        props.put(AerodynamicSystem.FLUID_STATE, fluidState instanceof MutableFluidState
+                ? ((MutableFluidState) fluidState).snapshot()
+                : fluidState);
         double mach = speed / fluidState.getSpeedOfSound();
         props.put(AerodynamicSystem.MACH, mach);
         double density = fluidState.getDensity();
@@ -309,14 +374,32 @@ public class AerodynamicSystem extends DynamicSystem {
         double nonDimPitchRate = (pitchRate * this.reference.getChord()) / (2.0 * airspeed);
         props.put(Q_HAT, nonDimPitchRate);
 
-        // Aerodynamic Coefficients
+        // Propulsion Sample
+        //  Sampled once per step and shared with the coefficient and inertia models, so the engine curves are only
+        //  looked up here
         SystemState preForceState = new SystemState(time, stateVector, props);
-        double cl = this.model.cl(preForceState);
-        double cd = this.model.cd(preForceState);
-        double csf = this.model.csf(preForceState);
-        double crm = this.model.crm(preForceState);
-        double cpm = this.model.cpm(preForceState);
-        double cym = this.model.cym(preForceState);
+        PropulsionSample propulsion = new PropulsionSample();
+        this.prop.sample(preForceState, propulsion);
+        props.put(PROPULSION, propulsion);
+
+        // Aerodynamic Coefficients
+        double[] coefficients = new double[AerodynamicCoefficientModel.COEFFICIENT_COUNT];
+        this.model.evaluateAll(preForceState, coefficients);
+        double cl = coefficients[AerodynamicCoefficientModel.CL_INDEX];
+        double cd = coefficients[AerodynamicCoefficientModel.CD_INDEX];
+        double csf = coefficients[AerodynamicCoefficientModel.CSF_INDEX];
+        double crm = coefficients[AerodynamicCoefficientModel.CRM_INDEX];
+        double cpm = coefficients[AerodynamicCoefficientModel.CPM_INDEX];
+        double cym = coefficients[AerodynamicCoefficientModel.CYM_INDEX];
+        if (!this.flaps.isEmpty()) {
+            double flapCl = 0.0;
+            for (int i = 0; i < this.flaps.size(); i++) {
+                double deflection = this.flapDeflections.get(i).applyAsDouble(time);
+                flapCl += this.flaps.get(i).getClIncrement(deflection, cl);
+            }
+            props.put(CL_FLAPS, flapCl);
+            cl += flapCl;
+        }
         props.put(CL, cl);
         props.put(CD, cd);
         props.put(CSF, csf);
@@ -353,12 +436,12 @@ public class AerodynamicSystem extends DynamicSystem {
         double zMoment = bodyMoments.getComponent(3);
 
         // Propulsion
-        double thrust = this.prop.thrust(preForceState);
+        double thrust = propulsion.getThrust();
         xForce += thrust;
         props.put(THRUST, thrust);
 
         // Inertia Fetching
-        Inertia inertia = this.inertiaModel.getInertia(time);
+        Inertia inertia = this.inertiaModel.getInertia(time, propulsion);
         final double mass = inertia.getMass();
         props.put(DynamicSystem.INERTIA, inertia);
         props.put(DynamicSystem.MASS, mass);
@@ -523,11 +606,18 @@ public class AerodynamicSystem extends DynamicSystem {
         return new ComputeStepResults(finalState, delta);
     }
 
+    /**
+     * Finds the state of the air at the altitude of the vehicle.
+     *
+     * @param time        the time of the step
+     * @param stateVector the state vector of the step
+     *
+     * @return the state of the air, which is reused and overwritten by the next call on the same thread
+     */
     public FluidState getFluidState(double time, Vector stateVector) {
-        return new IdealGasState(
-                (IdealGas) this.fluid, // Fluid
-                99.0 + 459.0, // Temperature (Rankine)
-                2011.33);               // Pressure (psf)
+        MutableFluidState state = this.fluidStates.get();
+        this.atmosphere.stateAt(stateVector.getComponent(Z_POS_COMPONENT), state);
+        return state;
     }
 
 }
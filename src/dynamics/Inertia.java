@@ -143,4 +143,24 @@ public class Inertia {
         
     }
     
+    /**
+     * 
+     * @param mass the mass, in slugs
+     * @param ixx  the moment of inertia about the x axis, in slug-square feet
+     * @param iyy  the moment of inertia about the y axis, in slug-square feet
+     * @param izz  the moment of inertia about the z axis, in slug-square feet
+     * @param ixy  the xy product of inertia, in slug-square feet
+     * @param ixz  the xz product of inertia, in slug-square feet
+     * @param iyz  the yz product of inertia, in slug-square feet
+     */
+    public Inertia(double mass, double ixx, double iyy, double izz, double ixy, double ixz, double iyz) {
+        this.mass = mass;
+        this.ixx = ixx;
+        this.iyy = iyy;
+        this.izz = izz;
+        this.ixy = ixy;
+        this.ixz = ixz;
+        this.iyz = iyz;
+    }
+    
 }
@@ -0,0 +1,354 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.airplane;
+
+import com.jupiter.ganymede.math.vector.Vector3;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A wind model that adds Dryden turbulence to a mean wind.
+ *
+ * The turbulence is treated as a frozen field that the vehicle crosses at a nominal airspeed, so each component is a
+ * stationary random process in time. The longitudinal component (along x) is shaped by the first-order Dryden filter
+ * and the lateral (along y) and vertical (along z) components by the second-order filters. The filters are discretized
+ * exactly at a fixed sample period and started from their stationary distribution, so the gusts have the Dryden
+ * intensities and correlations from the first sample.
+ *
+ * The gust histories are generated from a seeded random number generator in blocks of samples stored in primitive
+ * arrays, always in order of time, and the wind at any time is interpolated between the samples around it. The
+ * history for a seed is therefore the same no matter in what order, how often, or from which threads the model is
+ * queried, such as by the stages of a Runge-Kutta step. Each simulation of a Monte Carlo campaign should use its own
+ * model, created with {@link #withSeed(long)}.
+ *
+ * @author Nathan Templon
+ */
+public class DrydenTurbulence implements WindModel {
+
+    // Constants
+    public static final double DEFAULT_SAMPLE_TIME = 0.01;
+
+    private static final int BLOCK_SAMPLES = 4096;
+    private static final int COMPONENTS = 3;
+    private static final double SQRT_3 = Math.sqrt(3.0);
+
+
+    // Fields
+    private final WindModel mean;
+    private final long seed;
+    private final double airspeed;
+    private final double[] intensities;
+    private final double[] scaleLengths;
+    private final double sampleTime;
+
+    private final double longitudinalDecay;
+    private final double longitudinalNoise;
+    private final double[][] transitions;
+    private final double[][] noiseFactors;
+    private final double[][] stationaryFactors;
+    private final double[] outputGains;
+    private final double[] rateWeights;
+
+    private final Random random;
+    private double longitudinalState;
+    private final double[][] lateralStates = new double[2][2];
+    private volatile double[][] blocks = new double[0][];
+
+
+    // Properties
+    public WindModel getMean() {
+        return this.mean;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     *
+     * @return the nominal airspeed of the vehicle, in feet per second
+     */
+    public double getAirspeed() {
+        return this.airspeed;
+    }
+
+    /**
+     *
+     * @return the root mean square gust velocities along x, y and z, in feet per second
+     */
+    public double[] getIntensities() {
+        return this.intensities.clone();
+    }
+
+    /**
+     *
+     * @return the turbulence scale lengths along x, y and z, in feet
+     */
+    public double[] getScaleLengths() {
+        return this.scaleLengths.clone();
+    }
+
+    public double getSampleTime() {
+        return this.sampleTime;
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param mean         the mean wind, which the gusts are added to
+     * @param seed         the seed of the gust histories
+     * @param airspeed     the nominal airspeed of the vehicle, in feet per second
+     * @param intensities  the root mean square gust velocities along x, y and z, in feet per second
+     * @param scaleLengths the turbulence scale lengths along x, y and z, in feet
+     * @param sampleTime   the time between gust samples, in seconds
+     */
+    public DrydenTurbulence(WindModel mean, long seed, double airspeed, double[] intensities, double[] scaleLengths,
+            double sampleTime) {
+        if (intensities.length != COMPONENTS || scaleLengths.length != COMPONENTS) {
+            throw new IllegalArgumentException("Dryden turbulence needs an intensity and scale length for each axis.");
+        }
+        if (airspeed <= 0.0 || sampleTime <= 0.0) {
+            throw new IllegalArgumentException("The airspeed and sample time must be positive.");
+        }
+        for (double length : scaleLengths) {
+            if (length <= 0.0) {
+                throw new IllegalArgumentException("The scale lengths must be positive.");
+            }
+        }
+
+        this.mean = mean;
+        this.seed = seed;
+        this.airspeed = airspeed;
+        this.intensities = intensities.clone();
+        this.scaleLengths = scaleLengths.clone();
+        this.sampleTime = sampleTime;
+        this.random = new Random(seed);
+
+        // Longitudinal: a first order (Ornstein-Uhlenbeck) process with unit variance
+        this.longitudinalDecay = Math.exp(-airspeed * sampleTime / scaleLengths[0]);
+        this.longitudinalNoise = Math.sqrt(1.0 - this.longitudinalDecay * this.longitudinalDecay);
+
+        // Lateral and vertical: x'' + (2 / tau) x' + x / tau^2 = white noise, with the output x + sqrt(3) tau x'
+        this.transitions = new double[2][];
+        this.noiseFactors = new double[2][];
+        this.stationaryFactors = new double[2][];
+        this.outputGains = new double[2];
+        this.rateWeights = new double[2];
+        for (int i = 0; i < 2; i++) {
+            double tau = scaleLengths[i + 1] / airspeed;
+            double t = sampleTime;
+            double decay = Math.exp(-t / tau);
+            double[] phi = {
+                decay * (1.0 + t / tau), decay * t,
+                -decay * t / (tau * tau), decay * (1.0 - t / tau)
+            };
+
+            // Stationary covariance of the states, for unit intensity noise, and the noise added per sample
+            double[] stationary = {tau * tau * tau / 4.0, 0.0, 0.0, tau / 4.0};
+            double[] propagated = congruence(phi, stationary);
+            double[] noise = {
+                stationary[0] - propagated[0], stationary[1] - propagated[1],
+                stationary[2] - propagated[2], stationary[3] - propagated[3]
+            };
+
+            this.transitions[i] = phi;
+            this.noiseFactors[i] = cholesky(noise);
+            this.stationaryFactors[i] = cholesky(stationary);
+            // The output variance is tau^3 / 4 + 3 tau^2 * tau / 4 = tau^3
+            this.outputGains[i] = intensities[i + 1] / Math.sqrt(tau * tau * tau);
+            this.rateWeights[i] = SQRT_3 * tau;
+        }
+
+        this.startStates();
+    }
+
+    /**
+     * Creates turbulence with the MIL-F-8785C low altitude intensities and scale lengths.
+     *
+     * @param mean       the mean wind, which the gusts are added to
+     * @param seed       the seed of the gust histories
+     * @param airspeed   the nominal airspeed of the vehicle, in feet per second
+     * @param altitude   the nominal altitude of the vehicle, in feet, which is limited to between 10 and 1000 feet
+     * @param windAt20Ft the wind speed 20 feet above the ground, in feet per second
+     *
+     * @return the turbulence
+     */
+    public static DrydenTurbulence lowAltitude(WindModel mean, long seed, double airspeed, double altitude,
+            double windAt20Ft) {
+        double h = Math.max(10.0, Math.min(1000.0, altitude));
+        double factor = 0.177 + 0.000823 * h;
+
+        double verticalIntensity = 0.1 * windAt20Ft;
+        double horizontalIntensity = verticalIntensity / Math.pow(factor, 0.4);
+        double horizontalLength = h / Math.pow(factor, 1.2);
+
+        return new DrydenTurbulence(mean, seed, airspeed,
+                new double[]{horizontalIntensity, horizontalIntensity, verticalIntensity},
+                new double[]{horizontalLength, horizontalLength, h},
+                DEFAULT_SAMPLE_TIME);
+    }
+
+    /**
+     *
+     * @param seed the seed of the gust histories
+     *
+     * @return turbulence with the same mean wind and parameters as this, but its own gust histories
+     */
+    public DrydenTurbulence withSeed(long seed) {
+        return new DrydenTurbulence(this.mean, seed, this.airspeed, this.intensities, this.scaleLengths,
+                this.sampleTime);
+    }
+
+
+    // Public Methods
+    @Override
+    public Vector3 getWind(double time) {
+        return this.getWind(time, 0.0, 0.0, 0.0);
+    }
+
+    @Override
+    public Vector3 getWind(double time, double x, double y, double altitude) {
+        double position = Math.max(0.0, time / this.sampleTime);
+        long sample = (long) position;
+        double fraction = position - sample;
+
+        double[] lower = this.block(sample);
+        int lowerOffset = (int) (sample % BLOCK_SAMPLES) * COMPONENTS;
+        double[] upper = this.block(sample + 1);
+        int upperOffset = (int) ((sample + 1) % BLOCK_SAMPLES) * COMPONENTS;
+
+        double u = lower[lowerOffset] + (upper[upperOffset] - lower[lowerOffset]) * fraction;
+        double v = lower[lowerOffset + 1] + (upper[upperOffset + 1] - lower[lowerOffset + 1]) * fraction;
+        double w = lower[lowerOffset + 2] + (upper[upperOffset + 2] - lower[lowerOffset + 2]) * fraction;
+
+        Vector3 gust = new Vector3(u, v, w);
+        return this.mean == null ? gust : this.mean.getWind(time, x, y, altitude).plus(gust);
+    }
+
+
+    // Private Methods
+    /**
+     *
+     * @return the block holding a sample, generating it and the blocks before it if needed
+     */
+    private double[] block(long sample) {
+        long index = sample / BLOCK_SAMPLES;
+        if (index > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The time " + (sample * this.sampleTime) + " is too late for the "
+                    + "turbulence history.");
+        }
+
+        double[][] current = this.blocks;
+        if (index < current.length) {
+            return current[(int) index];
+        }
+
+        synchronized (this) {
+            current = this.blocks;
+            if (index >= current.length) {
+                double[][] grown = Arrays.copyOf(current, Math.max((int) index + 1, 2 * current.length));
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = this.generateBlock();
+                }
+                this.blocks = grown;
+                current = grown;
+            }
+        }
+        return current[(int) index];
+    }
+
+    /**
+     * Generates the next block of gust samples, advancing the filters.
+     */
+    private double[] generateBlock() {
+        double[] block = new double[BLOCK_SAMPLES * COMPONENTS];
+        for (int sample = 0; sample < BLOCK_SAMPLES; sample++) {
+            int offset = sample * COMPONENTS;
+            block[offset] = this.intensities[0] * this.longitudinalState;
+            for (int i = 0; i < 2; i++) {
+                double[] state = this.lateralStates[i];
+                block[offset + i + 1] = this.outputGains[i] * (state[0] + this.rateWeights[i] * state[1]);
+            }
+
+            this.longitudinalState = this.longitudinalDecay * this.longitudinalState
+                    + this.longitudinalNoise * this.random.nextGaussian();
+            for (int i = 0; i < 2; i++) {
+                double[] state = this.lateralStates[i];
+                double[] phi = this.transitions[i];
+                double[] noise = this.noiseFactors[i];
+                double n0 = this.random.nextGaussian();
+                double n1 = this.random.nextGaussian();
+                double next0 = phi[0] * state[0] + phi[1] * state[1] + noise[0] * n0;
+                double next1 = phi[2] * state[0] + phi[3] * state[1] + noise[2] * n0 + noise[3] * n1;
+                state[0] = next0;
+                state[1] = next1;
+            }
+        }
+        return block;
+    }
+
+    /**
+     * Draws the initial states of the filters from their stationary distributions.
+     */
+    private void startStates() {
+        this.longitudinalState = this.random.nextGaussian();
+        for (int i = 0; i < 2; i++) {
+            double[] factor = this.stationaryFactors[i];
+            double n0 = this.random.nextGaussian();
+            double n1 = this.random.nextGaussian();
+            this.lateralStates[i][0] = factor[0] * n0;
+            this.lateralStates[i][1] = factor[2] * n0 + factor[3] * n1;
+        }
+    }
+
+
+    // Private Static Methods
+    /**
+     *
+     * @return the 2 by 2 matrix a * b * transpose(a), with matrices stored by rows
+     */
+    private static double[] congruence(double[] a, double[] b) {
+        double[] ab = {
+            a[0] * b[0] + a[1] * b[2], a[0] * b[1] + a[1] * b[3],
+            a[2] * b[0] + a[3] * b[2], a[2] * b[1] + a[3] * b[3]
+        };
+        return new double[]{
+            ab[0] * a[0] + ab[1] * a[1], ab[0] * a[2] + ab[1] * a[3],
+            ab[2] * a[0] + ab[3] * a[1], ab[2] * a[2] + ab[3] * a[3]
+        };
+    }
+
+    /**
+     *
+     * @return the lower triangular Cholesky factor of a symmetric 2 by 2 matrix, stored by rows
+     */
+    private static double[] cholesky(double[] m) {
+        double l00 = Math.sqrt(Math.max(0.0, m[0]));
+        double l10 = l00 > 0.0 ? m[2] / l00 : 0.0;
+        double l11 = Math.sqrt(Math.max(0.0, m[3] - l10 * l10));
+        return new double[]{l00, 0.0, l10, l11};
+    }
+
+}
@@ -32,7 +32,9 @@ import static dynamics.AerodynamicSystem.CPM_FROM_A;
 import dynamics.Inertia;
 import dynamics.SystemState;
 import dynamics.analysis.InertiaModel;
+import dynamics.analysis.InertiaTable;
 import propulsion.PropulsionForceModel;
+import propulsion.PropulsionSample;
 import propulsion.rocket.HobbyRocketEngine;
 import util.PhysicalConstants;
 
@@ -76,9 +78,8 @@ public class PDRSeniorDesignPlane implements AerodynamicCoefficientModel, Propul
     
     
     // Fields
-    private final HobbyRocketEngine engine = HobbyRocketEngine.G25;
-//    private final HobbyRocketEngine engine = HobbyRocketEngine.G25_POST_BURN;
-    private final Inertia inertia = new Inertia();
+    private final HobbyRocketEngine engine;
+    private final InertiaTable inertia;
     private Angle deltaE = new Angle(0.0, AngleType.DEGREES);
     
     
@@ -94,58 +95,115 @@ public class PDRSeniorDesignPlane implements AerodynamicCoefficientModel, Propul
     
     // Initialization
     public PDRSeniorDesignPlane() {
-        inertia.setMass(BASE_MASS + this.engine.getMass(0.0));
-        inertia.setIxx(0.011801);
-        inertia.setIyy(0.056055);
-        inertia.setIzz(0.0671182);
-        inertia.setIxy(0.0000064);
-        inertia.setIxz(-0.0005178);
+        this(HobbyRocketEngine.G25);
+//        this(HobbyRocketEngine.G25_POST_BURN);
+    }
+
+    public PDRSeniorDesignPlane(HobbyRocketEngine engine) {
+        this.engine = engine;
+        
+        // The measured moments include the motor, so it is placed at the centre of gravity with no inertia of its own
+        Inertia measured = new Inertia(BASE_MASS, 0.011801, 0.056055, 0.0671182, 0.0000064, -0.0005178, 0.0);
+        this.inertia = new InertiaTable(BASE_MASS, measured, 0.0, 0.0, engine, 0.0, 0.0, 0.0, 0.0);
     }
 
 
     // Aerodynamic Coefficient Functions
     @Override
     public double cl(SystemState state) {
-        Angle totalAlpha = state.get(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC).plus(ALPHA_ZERO_LIFT.times(-1.0));
-        state.getProperties().put(AerodynamicSystem.ANGLE_OF_ATTACK_TOTAL, totalAlpha);
-        
-        double cl = CL_ALPHA * totalAlpha.getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
-
-        double cle = this.getDeltaE().getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus) * CL_DELTA_E;
-        cl += cle;
-        
-        double qHat = state.get(AerodynamicSystem.Q_HAT);
-        cl += qHat * CL_Q;
-
-        return cl;
+        return this.cl(state, this.totalAlpha(state), this.deltaERadians());
     }
 
     @Override
     public double cd(SystemState state) {
-        // Random constants are empiric adjustments to match AVL's data, based on the presence of two lifting surfaces, not one.
-        double cdi = (this.cl(state) * this.cl(state) * (1.8 / 2.4) * (1.8 / 2.4) * 1.05 * 1.05) / (Math.PI * OSWALD_EFFICIENCY * AR);
-        double cd = CD0 + cdi;
-        return cd;
+        return cd(this.cl(state));
     }
 
     @Override
     public double csf(SystemState state) {
-        double beta = state.get(AerodynamicSystem.SIDESLIP_ANGLE).getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
-        
-        double csf = beta * CSF_BETA;
-        csf += CSF_ROLL * state.get(AerodynamicSystem.ROLL_RATE);
-        csf += CSF_YAW * state.get(AerodynamicSystem.YAW_RATE);
-        
-        if (Math.abs(csf) < 1e-6) {
-            csf = 0.0;
-        }
-        
-        return csf;
+        return lateral(state, CSF_BETA, CSF_ROLL, CSF_YAW);
     }
 
     @Override
     public double cpm(SystemState state) {
-        double motorBurnFrac = this.getBurnFraction(state.getTime());
+        return this.cpm(state, this.deltaERadians());
+    }
+
+    @Override
+    public double cym(SystemState state) {
+        return lateral(state, CYM_BETA, CYM_ROLL, CYM_YAW);
+    }
+
+    @Override
+    public double crm(SystemState state) {
+        return lateral(state, CRM_BETA, CRM_ROLL, CRM_YAW);
+    }
+
+    @Override
+    public void evaluateAll(SystemState state, double[] out) {
+        double deltaE = this.deltaERadians();
+
+        double cl = this.cl(state, this.totalAlpha(state), deltaE);
+        out[CL_INDEX] = cl;
+        out[CD_INDEX] = cd(cl);
+        out[CPM_INDEX] = this.cpm(state, deltaE);
+
+        double beta = state.get(AerodynamicSystem.SIDESLIP_ANGLE).getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
+        double roll = state.get(AerodynamicSystem.ROLL_RATE);
+        double yaw = state.get(AerodynamicSystem.YAW_RATE);
+        out[CSF_INDEX] = lateral(beta, roll, yaw, CSF_BETA, CSF_ROLL, CSF_YAW);
+        out[CYM_INDEX] = lateral(beta, roll, yaw, CYM_BETA, CYM_ROLL, CYM_YAW);
+        out[CRM_INDEX] = lateral(beta, roll, yaw, CRM_BETA, CRM_ROLL, CRM_YAW);
+    }
+
+    
+    // PropulsionForceModel
+    @Override
+    public double thrust(SystemState state) {
+        return this.engine.getThrust(state.getTime());
+    }
+
+    @Override
+    public void sample(SystemState state, PropulsionSample sample) {
+        this.engine.sample(state.getTime(), sample);
+    }
+
+    
+    // InertiaModel
+    @Override
+    public Inertia getInertia(double time) {
+        return this.inertia.getInertia(time);
+    }
+    
+    
+    // Private Methods
+    private double deltaERadians() {
+        return this.getDeltaE().getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
+    }
+
+    private double totalAlpha(SystemState state) {
+        Angle totalAlpha = state.get(AerodynamicSystem.ANGLE_OF_ATTACK_GEOMETRIC).plus(ALPHA_ZERO_LIFT.times(-1.0));
+        state.getProperties().put(AerodynamicSystem.ANGLE_OF_ATTACK_TOTAL, totalAlpha);
+        return totalAlpha.getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
+    }
+
+    private double cl(SystemState state, double totalAlpha, double deltaE) {
+        double cl = CL_ALPHA * totalAlpha;
+
+        double cle = deltaE * CL_DELTA_E;
+        cl += cle;
+        
+        double qHat = state.get(AerodynamicSystem.Q_HAT);
+        cl += qHat * CL_Q;
+
+        return cl;
+    }
+
+    private double cpm(SystemState state, double deltaE) {
+        PropulsionSample propulsion = state.get(AerodynamicSystem.PROPULSION);
+        double motorBurnFrac = propulsion != null && !Double.isNaN(propulsion.getMass())
+                ? propulsion.getBurnFraction()
+                : this.engine.getBurnFraction(state.getTime());
         
         double cpm0 = CPM0_TAKEOFF + (CPM0_BURNOUT - CPM0_TAKEOFF) * motorBurnFrac;
         state.getProperties().put(AerodynamicSystem.CPM0, cpm0);
@@ -160,7 +218,7 @@ public class PDRSeniorDesignPlane implements AerodynamicCoefficientModel, Propul
         double cpmFromQ = CPM_Q * qHat;
         state.getProperties().put(AerodynamicSystem.CPM_FROM_Q, cpmFromQ);
 
-        double cpmFromElevator = this.getDeltaE().getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus) * CPM_DELTA_E;
+        double cpmFromElevator = deltaE * CPM_DELTA_E;
         
         double cpm = cpm0 + cpmFromAlpha + cpmFromElevator + cpmFromQ;
         
@@ -171,65 +229,33 @@ public class PDRSeniorDesignPlane implements AerodynamicCoefficientModel, Propul
         return cpm;
     }
 
-    @Override
-    public double cym(SystemState state) {
-        double beta = state.get(AerodynamicSystem.SIDESLIP_ANGLE).getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
-        
-        double cym = beta * CYM_BETA;
-        cym += CYM_ROLL * state.get(AerodynamicSystem.ROLL_RATE);
-        cym += CYM_YAW * state.get(AerodynamicSystem.YAW_RATE);
-        
-        if (Math.abs(cym) < 1e-6) {
-            cym = 0.0;
-        }
-        
-        return cym;
-    }
 
-    @Override
-    public double crm(SystemState state) {
-        double beta = state.get(AerodynamicSystem.SIDESLIP_ANGLE).getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
-        
-        double crm = beta * CRM_BETA;
-        crm += CRM_ROLL * state.get(AerodynamicSystem.ROLL_RATE);
-        crm += CRM_YAW * state.get(AerodynamicSystem.YAW_RATE);
-        
-        if (Math.abs(crm) < 1e-6) {
-            crm = 0.0;
-        }
-        
-        return crm;
+    // Private Static Methods
+    private static double cd(double cl) {
+        // Random constants are empiric adjustments to match AVL's data, based on the presence of two lifting surfaces, not one.
+        double cdi = (cl * cl * (1.8 / 2.4) * (1.8 / 2.4) * 1.05 * 1.05) / (Math.PI * OSWALD_EFFICIENCY * AR);
+        double cd = CD0 + cdi;
+        return cd;
     }
 
-    
-    // PropulsionForceModel
-    @Override
-    public double thrust(SystemState state) {
-        return this.engine.getThrust(state.getTime());
+    private static double lateral(SystemState state, double betaDerivative, double rollDerivative,
+            double yawDerivative) {
+        double beta = state.get(AerodynamicSystem.SIDESLIP_ANGLE).getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
+        return lateral(beta, state.get(AerodynamicSystem.ROLL_RATE), state.get(AerodynamicSystem.YAW_RATE),
+                betaDerivative, rollDerivative, yawDerivative);
     }
 
-    
-    // InertiaModel
-    @Override
-    public Inertia getInertia(double time) {
-        this.inertia.setMass(BASE_MASS + this.engine.getMass(time));
-        return this.inertia;
-    }
-    
-    
-    // Private Methods
-    private double getBurnFraction(double time) {
-        double initialMass = this.engine.getMass(0.0);
-        double finalMass = this.engine.getMass(this.engine.getBurnTime());
-        double currentMass = this.engine.getMass(time);
+    private static double lateral(double beta, double roll, double yaw, double betaDerivative, double rollDerivative,
+            double yawDerivative) {
+        double coefficient = beta * betaDerivative;
+        coefficient += rollDerivative * roll;
+        coefficient += yawDerivative * yaw;
         
-        double totalDifference = finalMass - initialMass;
-        if (totalDifference == 0.0) {
-            return 1.0;
+        if (Math.abs(coefficient) < 1e-6) {
+            coefficient = 0.0;
         }
         
-        double currentDifference = currentMass - initialMass;
-        return Math.max(0.0, Math.min(1.0, currentDifference / totalDifference));
+        return coefficient;
     }
 
 }
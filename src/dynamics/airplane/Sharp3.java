@@ -28,7 +28,10 @@ import dynamics.AerodynamicSystem;
 import dynamics.Inertia;
 import dynamics.SystemState;
 import dynamics.analysis.InertiaModel;
+import dynamics.analysis.InertiaTable;
+import java.util.Arrays;
 import propulsion.PropulsionForceModel;
+import propulsion.PropulsionSample;
 import propulsion.rocket.HobbyRocketEngine;
 import util.PhysicalConstants;
 
@@ -51,20 +54,13 @@ public class Sharp3 implements AerodynamicCoefficientModel, PropulsionForceModel
     
     
     // Fields
-    private final Inertia inertia;
+    private final InertiaTable inertia;
     
     
     // Initialization
     public Sharp3() {
-        this.inertia = new Inertia();
-        
-        this.inertia.setIxx(1.0);
-        this.inertia.setIxy(1.0);
-        this.inertia.setIxz(1.0);
-        this.inertia.setIyy(1.0);
-        this.inertia.setIyz(1.0);
-        this.inertia.setIzz(1.0);
-        this.inertia.setMass(this.getMass(0.0));
+        Inertia dry = new Inertia(this.baseMass, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0);
+        this.inertia = new InertiaTable(this.baseMass, dry, 0.0, 0.0, this.engine, 0.0, 0.0, 0.0, 0.0);
     }
     
 
@@ -76,17 +72,7 @@ public class Sharp3 implements AerodynamicCoefficientModel, PropulsionForceModel
 
     @Override
     public double cd(SystemState state) {
-        double cd = 0.0;
-        
-        double reynolds = state.get(AerodynamicSystem.REYNOLDS);
-        double mach = state.get(AerodynamicSystem.MACH);
-        double cdsf = 0.455 / (Math.pow(Math.log10(reynolds), 2.58) * Math.pow(1.0 + 0.144 * Math.pow(mach, 2), 0.65) * (this.wettedArea / this.refrenceArea));
-        cd += cdsf;
-        
-        double cdbase = (0.139 + 0.419 * Math.pow(mach, 2)) * (this.baseArea / this.refrenceArea);
-        cd += cdbase;
-        
-        return cd;
+        return this.cd(state.get(AerodynamicSystem.REYNOLDS), state.get(AerodynamicSystem.MACH));
     }
 
     @Override
@@ -109,21 +95,40 @@ public class Sharp3 implements AerodynamicCoefficientModel, PropulsionForceModel
         return 0.0;
     }
 
+    @Override
+    public void evaluateAll(SystemState state, double[] out) {
+        Arrays.fill(out, 0, COEFFICIENT_COUNT, 0.0);
+        out[CD_INDEX] = this.cd(state);
+    }
+
     @Override
     public double thrust(SystemState state) {
         return this.engine.getThrust(state.getTime());
     }
 
+    @Override
+    public void sample(SystemState state, PropulsionSample sample) {
+        this.engine.sample(state.getTime(), sample);
+    }
+
     @Override
     public Inertia getInertia(double time) {
-        this.inertia.setMass(this.getMass(time));
-        return this.inertia;
+        return this.inertia.getInertia(time);
     }
     
     
     // Private Methods
-    private double getMass(double time) {
-        return this.baseMass + this.engine.getMass(time);
+    private double cd(double reynolds, double mach) {
+        double cd = 0.0;
+        
+        double machSquared = mach * mach;
+        double cdsf = 0.455 / (Math.pow(Math.log10(reynolds), 2.58) * Math.pow(1.0 + 0.144 * machSquared, 0.65) * (this.wettedArea / this.refrenceArea));
+        cd += cdsf;
+        
+        double cdbase = (0.139 + 0.419 * machSquared) * (this.baseArea / this.refrenceArea);
+        cd += cdbase;
+        
+        return cd;
     }
 
 }
@@ -0,0 +1,429 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.airplane;
+
+import com.jupiter.ganymede.math.vector.Vector3;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import util.UniformIndex;
+
+/**
+ * A wind model that interpolates in a grid of wind vectors over x position, y position, altitude and time, stored in a
+ * binary file that is memory mapped when opened.
+ *
+ * Forecast profiles are converted once, with {@link #write} or {@link #importCsv(File, File)}, and after that opening
+ * a field only reads its axes; the wind vectors are read in place from the mapping. Fields opened through
+ * {@link #open(File)} are shared, so any number of simulations and threads flying through the same file use a single
+ * mapping. Any axis may have a single breakpoint, which makes the wind constant along it, so a field can hold anything
+ * from one profile of wind against altitude to a full forecast.
+ *
+ * The wind is interpolated linearly along every axis with more than one breakpoint, and positions outside of the grid
+ * are clamped to its edges. Each axis finds the cell of a position with a {@link UniformIndex} over its breakpoints, so
+ * a lookup needs no search and keeps no state, and a field can safely be shared between threads.
+ *
+ * The file holds a header (magic number and version), then the number of breakpoints and the breakpoints of the x, y,
+ * altitude and time axes as doubles, and then the x, y and z components of the wind at every grid point as floats,
+ * with the time axis varying fastest and the x axis slowest.
+ *
+ * @author Nathan Templon
+ */
+public class WindField implements WindModel {
+
+    // Constants
+    private static final int MAGIC = 0x4E465746; // "NFWF"
+    private static final int VERSION = 1;
+
+    public static final int X_AXIS = 0;
+    public static final int Y_AXIS = 1;
+    public static final int ALTITUDE_AXIS = 2;
+    public static final int TIME_AXIS = 3;
+    private static final int AXIS_COUNT = 4;
+    private static final int COMPONENTS = 3;
+
+    private static final Map<String, WindField> OPEN_FIELDS = new ConcurrentHashMap<>();
+
+
+    // Fields
+    private final File file;
+    private final long lastModified;
+    private final double[][] axes;
+    private final int[] strides;
+    private final FloatBuffer values;
+    private final UniformIndex[] indices;
+
+
+    // Properties
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     *
+     * @param axis the index of the axis, such as {@link #ALTITUDE_AXIS}
+     *
+     * @return the breakpoints of the axis
+     */
+    public double[] getBreakpoints(int axis) {
+        return this.axes[axis].clone();
+    }
+
+
+    // Initialization
+    private WindField(File file) throws IOException {
+        this.file = file;
+        this.lastModified = file.lastModified();
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The wind field " + file + " is too large to be mapped.");
+            }
+            // Mappings stay valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a wind field.");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported wind field version " + version + ".");
+            }
+
+            this.axes = new double[AXIS_COUNT][];
+            for (int i = 0; i < AXIS_COUNT; i++) {
+                this.axes[i] = new double[buffer.getInt()];
+                for (int j = 0; j < this.axes[i].length; j++) {
+                    this.axes[i][j] = buffer.getDouble();
+                }
+            }
+            validateAxes(this.axes);
+        }
+        catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException ex) {
+            throw new IOException("The wind field " + file + " is truncated or malformed.", ex);
+        }
+
+        this.strides = strides(this.axes);
+        this.values = buffer.slice().asFloatBuffer();
+        if (this.values.remaining() < this.strides[0] * this.axes[0].length * COMPONENTS) {
+            throw new IOException("The wind field " + file + " is truncated.");
+        }
+        this.indices = new UniformIndex[AXIS_COUNT];
+        for (int i = 0; i < AXIS_COUNT; i++) {
+            this.indices[i] = new UniformIndex(this.axes[i]);
+        }
+    }
+
+    /**
+     * Opens a wind field, or returns the already open field for the file. A file that has been rewritten since it was
+     * opened is opened again.
+     *
+     * @param file the wind field file
+     *
+     * @return the wind field
+     *
+     * @throws IOException if the file cannot be read or is not a wind field
+     */
+    public static WindField open(File file) throws IOException {
+        String key = file.getCanonicalPath();
+        WindField field = OPEN_FIELDS.get(key);
+        if (field == null || field.lastModified != file.lastModified()) {
+            field = new WindField(file);
+            OPEN_FIELDS.put(key, field);
+        }
+        return field;
+    }
+
+    /**
+     * Writes a wind field.
+     *
+     * @param file     the file to write
+     * @param x        the x positions of the grid, in feet and in increasing order
+     * @param y        the y positions of the grid, in feet and in increasing order
+     * @param altitude the altitudes of the grid, in feet and in increasing order
+     * @param time     the times of the grid, in increasing order
+     * @param wind     the x, y and z components of the wind at each grid point, in feet per second, with the time axis
+     *                 varying fastest and the x axis slowest
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(File file, double[] x, double[] y, double[] altitude, double[] time, double[] wind)
+            throws IOException {
+        double[][] axes = {x, y, altitude, time};
+        validateAxes(axes);
+        int points = strides(axes)[0] * x.length;
+        if (wind.length != points * COMPONENTS) {
+            throw new IllegalArgumentException("Expected " + (points * COMPONENTS) + " wind components, but got "
+                    + wind.length + ".");
+        }
+
+        // Written beside the target and renamed over it, so a mapped copy of the old file is never changed in place
+        File directory = file.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (double[] axis : axes) {
+                    out.writeInt(axis.length);
+                    for (double breakpoint : axis) {
+                        out.writeDouble(breakpoint);
+                    }
+                }
+                for (double component : wind) {
+                    out.writeFloat((float) component);
+                }
+            }
+            replace(temp, file);
+        }
+        finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Converts a comma separated wind profile into a wind field. Each line of the profile holds the x position, y
+     * position, altitude, time and the x, y and z components of the wind at one grid point, in any order; lines that
+     * do not start with a number, such as a header, are skipped. The points must cover the full grid.
+     *
+     * @param csv  the profile to read
+     * @param file the wind field file to write
+     *
+     * @throws IOException if the profile cannot be read, does not cover a grid, or the field cannot be written
+     */
+    public static void importCsv(File csv, File file) throws IOException {
+        List<TreeSet<Double>> breakpoints = new ArrayList<>();
+        for (int i = 0; i < AXIS_COUNT; i++) {
+            breakpoints.add(new TreeSet<>());
+        }
+
+        double[][] rows = readRows(csv);
+        for (double[] row : rows) {
+            for (int i = 0; i < AXIS_COUNT; i++) {
+                breakpoints.get(i).add(row[i]);
+            }
+        }
+
+        double[][] axes = new double[AXIS_COUNT][];
+        for (int i = 0; i < AXIS_COUNT; i++) {
+            axes[i] = breakpoints.get(i).stream().mapToDouble(Double::doubleValue).toArray();
+        }
+        int[] strides = strides(axes);
+        int points = strides[0] * axes[0].length;
+        if (rows.length != points) {
+            throw new IOException("The profile " + csv + " has " + rows.length + " points, but its grid has " + points
+                    + ".");
+        }
+
+        double[] wind = new double[points * COMPONENTS];
+        boolean[] filled = new boolean[points];
+        for (double[] row : rows) {
+            int point = 0;
+            for (int i = 0; i < AXIS_COUNT; i++) {
+                point += Arrays.binarySearch(axes[i], row[i]) * strides[i];
+            }
+            if (filled[point]) {
+                throw new IOException("The profile " + csv + " has more than one point at the same position.");
+            }
+            filled[point] = true;
+            System.arraycopy(row, AXIS_COUNT, wind, point * COMPONENTS, COMPONENTS);
+        }
+
+        write(file, axes[X_AXIS], axes[Y_AXIS], axes[ALTITUDE_AXIS], axes[TIME_AXIS], wind);
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @return the wind over the launch site, at the ground
+     */
+    @Override
+    public Vector3 getWind(double time) {
+        return this.getWind(time, 0.0, 0.0, 0.0);
+    }
+
+    @Override
+    public Vector3 getWind(double time, double x, double y, double altitude) {
+        int xCell = this.cellOf(X_AXIS, x);
+        int yCell = this.cellOf(Y_AXIS, y);
+        int altitudeCell = this.cellOf(ALTITUDE_AXIS, altitude);
+        int timeCell = this.cellOf(TIME_AXIS, time);
+        double xFraction = this.fractionOf(X_AXIS, x, xCell);
+        double yFraction = this.fractionOf(Y_AXIS, y, yCell);
+        double altitudeFraction = this.fractionOf(ALTITUDE_AXIS, altitude, altitudeCell);
+        double timeFraction = this.fractionOf(TIME_AXIS, time, timeCell);
+        int base = xCell * this.strides[X_AXIS] + yCell * this.strides[Y_AXIS]
+                + altitudeCell * this.strides[ALTITUDE_AXIS] + timeCell * this.strides[TIME_AXIS];
+
+        double u = 0.0;
+        double v = 0.0;
+        double w = 0.0;
+        for (int corner = 0; corner < (1 << AXIS_COUNT); corner++) {
+            // Corners along an axis with a single breakpoint have zero weight, and are skipped before they are read
+            double weight = this.cornerWeight(corner, X_AXIS, xFraction)
+                    * this.cornerWeight(corner, Y_AXIS, yFraction)
+                    * this.cornerWeight(corner, ALTITUDE_AXIS, altitudeFraction)
+                    * this.cornerWeight(corner, TIME_AXIS, timeFraction);
+            if (weight != 0.0) {
+                int offset = base;
+                for (int i = 0; i < AXIS_COUNT; i++) {
+                    if ((corner & (1 << i)) != 0) {
+                        offset += this.strides[i];
+                    }
+                }
+                int index = offset * COMPONENTS;
+                u += weight * this.values.get(index);
+                v += weight * this.values.get(index + 1);
+                w += weight * this.values.get(index + 2);
+            }
+        }
+
+        return new Vector3(u, v, w);
+    }
+
+
+    // Private Methods
+    /**
+     *
+     * @return the index of the cell of an axis holding a value
+     */
+    private int cellOf(int axis, double value) {
+        double[] breakpoints = this.axes[axis];
+        int cells = breakpoints.length - 1;
+        if (cells <= 0 || value <= breakpoints[0]) {
+            return 0;
+        }
+        if (value >= breakpoints[cells]) {
+            return cells - 1;
+        }
+        return Math.min(this.indices[axis].segmentOf(value), cells - 1);
+    }
+
+    /**
+     *
+     * @return the position of a value within a cell of an axis, from zero to one
+     */
+    private double fractionOf(int axis, double value, int cell) {
+        double[] breakpoints = this.axes[axis];
+        if (breakpoints.length == 1) {
+            return 0.0;
+        }
+        double fraction = (value - breakpoints[cell]) / (breakpoints[cell + 1] - breakpoints[cell]);
+        return Math.max(0.0, Math.min(1.0, fraction));
+    }
+
+    /**
+     *
+     * @return the interpolation weight along an axis of a corner of a cell, given the position within the cell
+     */
+    private double cornerWeight(int corner, int axis, double fraction) {
+        return (corner & (1 << axis)) != 0 ? fraction : 1.0 - fraction;
+    }
+
+
+    // Private Static Methods
+    private static void replace(File temp, File target) throws IOException {
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void validateAxes(double[][] axes) {
+        long points = 1;
+        for (double[] axis : axes) {
+            if (axis.length == 0) {
+                throw new IllegalArgumentException("Every axis of a wind field must have at least one breakpoint.");
+            }
+            for (int i = 1; i < axis.length; i++) {
+                if (!(axis[i] > axis[i - 1])) {
+                    throw new IllegalArgumentException("The breakpoints of an axis must be strictly increasing.");
+                }
+            }
+            points *= axis.length;
+        }
+        if (points * COMPONENTS * Float.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A wind field of " + points + " points is too large to be mapped.");
+        }
+    }
+
+    private static int[] strides(double[][] axes) {
+        int[] strides = new int[axes.length];
+        int points = 1;
+        for (int i = axes.length - 1; i >= 0; i--) {
+            strides[i] = points;
+            points *= axes[i].length;
+        }
+        return strides;
+    }
+
+    private static double[][] readRows(File csv) throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(csv))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < AXIS_COUNT + COMPONENTS) {
+                    continue;
+                }
+
+                double[] row = new double[AXIS_COUNT + COMPONENTS];
+                try {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = Double.parseDouble(fields[i].trim());
+                    }
+                }
+                catch (NumberFormatException ex) {
+                    continue;
+                }
+                rows.add(row);
+            }
+        }
+        return rows.toArray(new double[rows.size()][]);
+    }
+
+}
@@ -26,12 +26,48 @@ package dynamics.airplane;
 import com.jupiter.ganymede.math.vector.Vector3;
 
 /**
+ * A model of the wind, as a velocity of the air in earth axes, in feet per second.
  *
  * @author Nathan Templon
  */
 @FunctionalInterface
 public interface WindModel {
     
+    // Constants
+    /**
+     * A model with no wind anywhere, which returns one shared zero vector.
+     */
+    public static final WindModel CALM = new WindModel() {
+        private final Vector3 zero = new Vector3(0, 0, 0);
+        
+        @Override
+        public Vector3 getWind(double time) {
+            return this.zero;
+        }
+    };
+    
+    
+    // Public Methods
+    /**
+     * 
+     * @param time the time
+     * 
+     * @return the wind at the launch site
+     */
     Vector3 getWind(double time);
     
+    /**
+     * Finds the wind at a position. Models that only vary with time can leave this as it is.
+     * 
+     * @param time     the time
+     * @param x        the x position, in feet
+     * @param y        the y position, in feet
+     * @param altitude the altitude above the launch site, in feet
+     * 
+     * @return the wind at the position
+     */
+    default Vector3 getWind(double time, double x, double y, double altitude) {
+        return this.getWind(time);
+    }
+    
 }
@@ -24,6 +24,7 @@
 package dynamics.analysis;
 
 import dynamics.Inertia;
+import propulsion.PropulsionSample;
 
 /**
  *
@@ -32,4 +33,17 @@ import dynamics.Inertia;
 @FunctionalInterface
 public interface InertiaModel {
     Inertia getInertia(double time);
+    
+    /**
+     * Finds the inertia at a time, given the state of the propulsion system then. Models whose mass comes from their
+     * engine should override this to use the mass of the sample rather than looking it up again.
+     * 
+     * @param time   the time
+     * @param sample the propulsion sample at that time
+     * 
+     * @return the inertia
+     */
+    default Inertia getInertia(double time, PropulsionSample sample) {
+        return this.getInertia(time);
+    }
 }
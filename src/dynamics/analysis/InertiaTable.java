@@ -0,0 +1,472 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis;
+
+import dynamics.Inertia;
+import java.util.stream.DoubleStream;
+import propulsion.rocket.HobbyRocketEngine;
+import propulsion.rocket.SolidRocketEngine;
+import util.RealFunction;
+import util.TableFunction;
+import util.UniformIndex;
+
+/**
+ * An immutable inertia model for a vehicle with solid rocket motors, precomputed over the burn.
+ *
+ * The mass, centre of gravity and full inertia tensor are computed once, at the times of the motors' mass curves, from
+ * the parts of the vehicle, with each motor treated as a solid cylinder whose mass changes during the burn. The moments
+ * of every part are moved to the centre of gravity of the whole vehicle with the parallel axis theorem, so the tensor
+ * follows both the lost mass and the shifting centre of gravity. The values of each time are stored together, so a
+ * lookup finds its segment once and interpolates every term from it. Like {@link TableFunction}, the table finds
+ * segments through a stateless {@link UniformIndex}, and each lookup returns a new {@link Inertia}, so the table can be
+ * shared between threads.
+ *
+ * Positions are measured along the body axes, with x positive forward and z positive down, from any fixed reference
+ * point.
+ *
+ * @author Nathan Templon
+ */
+public class InertiaTable implements InertiaModel {
+
+    // Constants
+    public static final int MASS_INDEX = 0;
+    public static final int CG_X_INDEX = 1;
+    public static final int CG_Z_INDEX = 2;
+    public static final int IXX_INDEX = 3;
+    public static final int IYY_INDEX = 4;
+    public static final int IZZ_INDEX = 5;
+    public static final int IXY_INDEX = 6;
+    public static final int IXZ_INDEX = 7;
+    public static final int IYZ_INDEX = 8;
+    public static final int VALUE_COUNT = 9;
+
+    /**
+     * The longest time, in seconds, between two rows of the table
+     */
+    public static final double MAX_TIME_STEP = 0.05;
+
+
+    // Fields
+    private final double[] times;
+    private final double[] values;
+    private final int last;
+    private final UniformIndex index;
+
+
+    // Properties
+    public double getFirstTime() {
+        return this.times[0];
+    }
+
+    public double getLastTime() {
+        return this.times[this.last];
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param dryMass      the mass of the vehicle without its motor, in slugs
+     * @param dryInertia   the moments and products of inertia of the vehicle without its motor about its own centre of
+     *                     gravity, in slug-square feet; its mass is ignored
+     * @param dryCgX       the x position of the centre of gravity of the vehicle without its motor, in feet
+     * @param dryCgZ       the z position of the centre of gravity of the vehicle without its motor, in feet
+     * @param motor        the motor
+     * @param motorCgX     the x position of the centre of gravity of the motor, in feet
+     * @param motorCgZ     the z position of the centre of gravity of the motor, in feet
+     * @param motorLength  the length of the motor, in feet
+     * @param motorRadius  the radius of the motor, in feet
+     */
+    public InertiaTable(double dryMass, Inertia dryInertia, double dryCgX, double dryCgZ, SolidRocketEngine motor,
+            double motorCgX, double motorCgZ, double motorLength, double motorRadius) {
+        this(gridOf(motor), rigidBody(dryMass, dryInertia, dryCgX, dryCgZ),
+                motor(motor, motorCgX, motorCgZ, motorLength, motorRadius));
+    }
+
+    /**
+     * Builds a table for a vehicle made of several parts. The moments of each part about its own centre of gravity are
+     * moved to the centre of gravity of the whole vehicle at every time of the table.
+     *
+     * @param times      the times of the table, in seconds, which must be strictly increasing
+     * @param components the parts of the vehicle
+     */
+    public InertiaTable(double[] times, Component... components) {
+        if (times.length == 0 || components.length == 0) {
+            throw new IllegalArgumentException("An inertia table needs at least one time and one component.");
+        }
+
+        this.times = times.clone();
+        this.last = this.times.length - 1;
+        this.index = new UniformIndex(this.times);
+        this.values = new double[this.times.length * VALUE_COUNT];
+
+        double[] masses = new double[components.length];
+        double[] moments = new double[6];
+        for (int i = 0; i < this.times.length; i++) {
+            double time = this.times[i];
+            double mass = 0.0;
+            double momentX = 0.0;
+            double momentZ = 0.0;
+            for (int j = 0; j < components.length; j++) {
+                masses[j] = components[j].getMass(time);
+                mass += masses[j];
+                momentX += masses[j] * components[j].getCgX();
+                momentZ += masses[j] * components[j].getCgZ();
+            }
+            double cgX = mass > 0.0 ? momentX / mass : 0.0;
+            double cgZ = mass > 0.0 ? momentZ / mass : 0.0;
+
+            int offset = i * VALUE_COUNT;
+            this.values[offset + MASS_INDEX] = mass;
+            this.values[offset + CG_X_INDEX] = cgX;
+            this.values[offset + CG_Z_INDEX] = cgZ;
+            for (int j = 0; j < components.length; j++) {
+                Component component = components[j];
+                component.getMoments(time, masses[j], moments);
+
+                // Parallel axis theorem, for the offset of the part from the centre of gravity of the vehicle
+                double x = component.getCgX() - cgX;
+                double z = component.getCgZ() - cgZ;
+                double m = masses[j];
+                this.values[offset + IXX_INDEX] += moments[0] + m * z * z;
+                this.values[offset + IYY_INDEX] += moments[1] + m * (x * x + z * z);
+                this.values[offset + IZZ_INDEX] += moments[2] + m * x * x;
+                this.values[offset + IXY_INDEX] += moments[3];
+                this.values[offset + IXZ_INDEX] += moments[4] + m * x * z;
+                this.values[offset + IYZ_INDEX] += moments[5];
+            }
+        }
+    }
+
+
+    // Public Methods
+    /**
+     * Looks up every value of the table at a time.
+     *
+     * @param time   the time since ignition, in seconds
+     * @param values the array to write the values into, in the order given by the index constants
+     */
+    public void lookup(double time, double[] values) {
+        int segment = this.segmentOf(time);
+        if (segment < 0 || segment >= this.last) {
+            int offset = segment < 0 ? 0 : this.last * VALUE_COUNT;
+            System.arraycopy(this.values, offset, values, 0, VALUE_COUNT);
+            return;
+        }
+
+        double fraction = (time - this.times[segment]) / (this.times[segment + 1] - this.times[segment]);
+        int offset = segment * VALUE_COUNT;
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            double start = this.values[offset + i];
+            values[i] = start + fraction * (this.values[offset + VALUE_COUNT + i] - start);
+        }
+    }
+
+    /**
+     *
+     * @param time the time since ignition, in seconds
+     *
+     * @return the mass of the vehicle, in slugs
+     */
+    public double getMass(double time) {
+        return this.valueAt(time, MASS_INDEX);
+    }
+
+    /**
+     *
+     * @param time the time since ignition, in seconds
+     *
+     * @return the x position of the centre of gravity, in feet
+     */
+    public double getCgX(double time) {
+        return this.valueAt(time, CG_X_INDEX);
+    }
+
+    /**
+     *
+     * @param time the time since ignition, in seconds
+     *
+     * @return the z position of the centre of gravity, in feet
+     */
+    public double getCgZ(double time) {
+        return this.valueAt(time, CG_Z_INDEX);
+    }
+
+
+    // InertiaModel Implementation
+    @Override
+    public Inertia getInertia(double time) {
+        int segment = this.segmentOf(time);
+        if (segment < 0 || segment >= this.last) {
+            return this.inertiaAt(segment < 0 ? 0 : this.last * VALUE_COUNT, 0.0);
+        }
+        double fraction = (time - this.times[segment]) / (this.times[segment + 1] - this.times[segment]);
+        return this.inertiaAt(segment * VALUE_COUNT, fraction);
+    }
+
+
+    // Private Methods
+    /**
+     *
+     * @return the row starting the segment holding a time, -1 before the first row, or the last row at or after it
+     */
+    private int segmentOf(double time) {
+        if (!(time > this.times[0])) {
+            return -1;
+        }
+        if (time >= this.times[this.last]) {
+            return this.last;
+        }
+
+        return this.index.segmentOf(time);
+    }
+
+    private double valueAt(double time, int index) {
+        int segment = this.segmentOf(time);
+        if (segment < 0) {
+            return this.values[index];
+        }
+        if (segment >= this.last) {
+            return this.values[this.last * VALUE_COUNT + index];
+        }
+
+        double fraction = (time - this.times[segment]) / (this.times[segment + 1] - this.times[segment]);
+        double start = this.values[segment * VALUE_COUNT + index];
+        return start + fraction * (this.values[(segment + 1) * VALUE_COUNT + index] - start);
+    }
+
+    private Inertia inertiaAt(int offset, double fraction) {
+        double[] v = this.values;
+        int next = fraction == 0.0 ? offset : offset + VALUE_COUNT;
+        return new Inertia(
+                v[offset + MASS_INDEX] + fraction * (v[next + MASS_INDEX] - v[offset + MASS_INDEX]),
+                v[offset + IXX_INDEX] + fraction * (v[next + IXX_INDEX] - v[offset + IXX_INDEX]),
+                v[offset + IYY_INDEX] + fraction * (v[next + IYY_INDEX] - v[offset + IYY_INDEX]),
+                v[offset + IZZ_INDEX] + fraction * (v[next + IZZ_INDEX] - v[offset + IZZ_INDEX]),
+                v[offset + IXY_INDEX] + fraction * (v[next + IXY_INDEX] - v[offset + IXY_INDEX]),
+                v[offset + IXZ_INDEX] + fraction * (v[next + IXZ_INDEX] - v[offset + IXZ_INDEX]),
+                v[offset + IYZ_INDEX] + fraction * (v[next + IYZ_INDEX] - v[offset + IYZ_INDEX]));
+    }
+
+
+    // Public Static Methods
+    /**
+     *
+     * @param mass    the mass of the body, in slugs
+     * @param inertia the moments and products of inertia of the body about its own centre of gravity, in slug-square
+     *                feet; its mass is ignored
+     * @param cgX     the x position of the centre of gravity of the body, in feet
+     * @param cgZ     the z position of the centre of gravity of the body, in feet
+     *
+     * @return a part whose mass and inertia do not change
+     */
+    public static Component rigidBody(double mass, Inertia inertia, double cgX, double cgZ) {
+        return new RigidBody(mass, inertia, cgX, cgZ);
+    }
+
+    /**
+     *
+     * @param motor  the motor
+     * @param cgX    the x position of the centre of gravity of the motor, in feet
+     * @param cgZ    the z position of the centre of gravity of the motor, in feet
+     * @param length the length of the motor, in feet
+     * @param radius the radius of the motor, in feet
+     *
+     * @return a part that is a solid cylinder along the x axis, whose mass follows the mass of the motor
+     */
+    public static Component motor(SolidRocketEngine motor, double cgX, double cgZ, double length, double radius) {
+        return new Motor(motor, cgX, cgZ, length, radius);
+    }
+
+    /**
+     * Chooses the times of a table for a set of motors: ignition, the burnout of each motor, every point of their
+     * tabulated mass curves in between, and enough points between those that no two are more than
+     * {@link #MAX_TIME_STEP} apart.
+     *
+     * @param motors the motors
+     *
+     * @return the times, in seconds
+     */
+    public static double[] gridOf(SolidRocketEngine... motors) {
+        DoubleStream.Builder breakpoints = DoubleStream.builder();
+        breakpoints.add(0.0);
+        for (SolidRocketEngine motor : motors) {
+            double burnTime = Math.max(0.0, motor.getBurnTime());
+            breakpoints.add(burnTime);
+            RealFunction massCurve = motor instanceof HobbyRocketEngine
+                    ? ((HobbyRocketEngine) motor).getMassCurve()
+                    : null;
+            if (massCurve instanceof TableFunction) {
+                for (double time : ((TableFunction) massCurve).getX()) {
+                    if (time > 0.0 && time < burnTime) {
+                        breakpoints.add(time);
+                    }
+                }
+            }
+        }
+        double[] coarse = breakpoints.build().sorted().distinct().toArray();
+
+        DoubleStream.Builder grid = DoubleStream.builder();
+        grid.add(coarse[0]);
+        for (int i = 1; i < coarse.length; i++) {
+            double width = coarse[i] - coarse[i - 1];
+            int steps = Math.max(1, (int) Math.ceil(width / MAX_TIME_STEP));
+            for (int j = 1; j < steps; j++) {
+                grid.add(coarse[i - 1] + width * j / steps);
+            }
+            grid.add(coarse[i]);
+        }
+        return grid.build().toArray();
+    }
+
+
+    // Nested Classes
+    /**
+     * A part of a vehicle, at a fixed position, whose mass and inertia may change with time.
+     */
+    public interface Component {
+
+        /**
+         *
+         * @param time the time since ignition, in seconds
+         *
+         * @return the mass of the part, in slugs
+         */
+        double getMass(double time);
+
+        /**
+         *
+         * @return the x position of the centre of gravity of the part, in feet
+         */
+        double getCgX();
+
+        /**
+         *
+         * @return the z position of the centre of gravity of the part, in feet
+         */
+        double getCgZ();
+
+        /**
+         * Finds the moments and products of inertia of the part about its own centre of gravity.
+         *
+         * @param time    the time since ignition, in seconds
+         * @param mass    the mass of the part at that time, in slugs
+         * @param moments the array to write Ixx, Iyy, Izz, Ixy, Ixz and Iyz into, in slug-square feet
+         */
+        void getMoments(double time, double mass, double[] moments);
+
+    }
+
+    private static final class RigidBody implements Component {
+
+        // Fields
+        private final double mass;
+        private final double cgX;
+        private final double cgZ;
+        private final double[] moments;
+
+
+        // Initialization
+        private RigidBody(double mass, Inertia inertia, double cgX, double cgZ) {
+            this.mass = mass;
+            this.cgX = cgX;
+            this.cgZ = cgZ;
+            this.moments = new double[]{inertia.getIxx(), inertia.getIyy(), inertia.getIzz(), inertia.getIxy(),
+                inertia.getIxz(), inertia.getIyz()};
+        }
+
+
+        // Component Implementation
+        @Override
+        public double getMass(double time) {
+            return this.mass;
+        }
+
+        @Override
+        public double getCgX() {
+            return this.cgX;
+        }
+
+        @Override
+        public double getCgZ() {
+            return this.cgZ;
+        }
+
+        @Override
+        public void getMoments(double time, double mass, double[] moments) {
+            System.arraycopy(this.moments, 0, moments, 0, this.moments.length);
+        }
+
+    }
+
+    private static final class Motor implements Component {
+
+        // Fields
+        private final SolidRocketEngine motor;
+        private final double cgX;
+        private final double cgZ;
+        private final double radiusSquared;
+        private final double lengthSquared;
+
+
+        // Initialization
+        private Motor(SolidRocketEngine motor, double cgX, double cgZ, double length, double radius) {
+            this.motor = motor;
+            this.cgX = cgX;
+            this.cgZ = cgZ;
+            this.radiusSquared = radius * radius;
+            this.lengthSquared = length * length;
+        }
+
+
+        // Component Implementation
+        @Override
+        public double getMass(double time) {
+            return this.motor.getMass(time);
+        }
+
+        @Override
+        public double getCgX() {
+            return this.cgX;
+        }
+
+        @Override
+        public double getCgZ() {
+            return this.cgZ;
+        }
+
+        @Override
+        public void getMoments(double time, double mass, double[] moments) {
+            double transverse = mass * (3.0 * this.radiusSquared + this.lengthSquared) / 12.0;
+            moments[0] = 0.5 * mass * this.radiusSquared;
+            moments[1] = transverse;
+            moments[2] = transverse;
+            moments[3] = 0.0;
+            moments[4] = 0.0;
+            moments[5] = 0.0;
+        }
+
+    }
+
+}
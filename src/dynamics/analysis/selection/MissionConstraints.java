@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.selection;
+
+/**
+ * The requirements a motor has to meet to fly a mission: a minimum speed when leaving the launch rail, so the vehicle
+ * is controllable, a limit on the dynamic pressure the structure sees, and the apogee the flight should reach.
+ *
+ * @author Nathan Templon
+ */
+public class MissionConstraints {
+
+    // Constants
+    public static final double DEFAULT_RAIL_LENGTH = 4.0;
+
+
+    // Fields
+    private final double minimumRailExitSpeed;
+    private final double maximumDynamicPressure;
+    private final double targetApogee;
+    private final double railLength;
+
+
+    // Properties
+    /**
+     *
+     * @return the slowest acceptable speed at the end of the rail, in feet per second
+     */
+    public double getMinimumRailExitSpeed() {
+        return this.minimumRailExitSpeed;
+    }
+
+    /**
+     *
+     * @return the highest acceptable dynamic pressure, in pounds per square foot
+     */
+    public double getMaximumDynamicPressure() {
+        return this.maximumDynamicPressure;
+    }
+
+    /**
+     *
+     * @return the apogee to aim for, in feet above the launch site
+     */
+    public double getTargetApogee() {
+        return this.targetApogee;
+    }
+
+    /**
+     *
+     * @return the height the vehicle has to climb to leave the rail, in feet
+     */
+    public double getRailLength() {
+        return this.railLength;
+    }
+
+
+    // Initialization
+    /**
+     * Creates constraints for a rail of the default length, which matches the launch rod of
+     * {@link dynamics.AerodynamicSystem}.
+     *
+     * @param minimumRailExitSpeed   the slowest acceptable speed at the end of the rail, in feet per second
+     * @param maximumDynamicPressure the highest acceptable dynamic pressure, in pounds per square foot
+     * @param targetApogee           the apogee to aim for, in feet above the launch site
+     */
+    public MissionConstraints(double minimumRailExitSpeed, double maximumDynamicPressure, double targetApogee) {
+        this(minimumRailExitSpeed, maximumDynamicPressure, targetApogee, DEFAULT_RAIL_LENGTH);
+    }
+
+    /**
+     *
+     * @param minimumRailExitSpeed   the slowest acceptable speed at the end of the rail, in feet per second
+     * @param maximumDynamicPressure the highest acceptable dynamic pressure, in pounds per square foot
+     * @param targetApogee           the apogee to aim for, in feet above the launch site
+     * @param railLength             the height the vehicle has to climb to leave the rail, in feet
+     */
+    public MissionConstraints(double minimumRailExitSpeed, double maximumDynamicPressure, double targetApogee,
+            double railLength) {
+        if (!(maximumDynamicPressure > 0.0) || !(targetApogee > 0.0) || !(railLength >= 0.0)) {
+            throw new IllegalArgumentException("The dynamic pressure limit and target apogee must be positive, and "
+                    + "the rail length must not be negative.");
+        }
+
+        this.minimumRailExitSpeed = minimumRailExitSpeed;
+        this.maximumDynamicPressure = maximumDynamicPressure;
+        this.targetApogee = targetApogee;
+        this.railLength = railLength;
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param railExitSpeed the speed at the end of the rail, in feet per second
+     * @param maximumQ      the highest dynamic pressure of the flight, in pounds per square foot
+     *
+     * @return whether a flight with these values meets the constraints
+     */
+    public boolean isSatisfiedBy(double railExitSpeed, double maximumQ) {
+        return railExitSpeed >= this.minimumRailExitSpeed && maximumQ <= this.maximumDynamicPressure;
+    }
+
+}
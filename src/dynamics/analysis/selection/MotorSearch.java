@@ -0,0 +1,453 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.selection;
+
+import com.jupiter.ganymede.math.vector.Vector;
+import dynamics.AerodynamicSystem;
+import dynamics.DynamicSystem.StateUpdatedEventArgs;
+import dynamics.SystemState;
+import dynamics.analysis.simulation.ExitCondition;
+import dynamics.analysis.simulation.Simulation;
+import dynamics.analysis.simulation.SimulationRecorder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import propulsion.rocket.HobbyRocketEngine;
+import propulsion.rocket.MotorCatalog;
+
+/**
+ * Finds the motors in a catalog that best fly a vehicle on a mission, by simulating the vehicle with each candidate
+ * from the launch rail to apogee.
+ *
+ * Candidates are first pruned by impulse class. The least and most powerful motor of every class are flown, and a
+ * class is dropped when a probe of a neighbouring class already dominates all of its motors: classes below one whose
+ * most powerful motor stays under the dynamic pressure limit and still falls short of the target apogee, and classes
+ * above one whose least powerful motor leaves the rail fast enough and still overshoots. This relies on apogee, rail
+ * exit speed and dynamic pressure all growing with impulse, which holds for any sensible vehicle. The motors of the
+ * remaining classes are then all flown. Flights run in parallel, each with its own vehicle, and every motor that was
+ * flown is ranked: motors that meet the constraints come first, closest to the target apogee first.
+ *
+ * @author Nathan Templon
+ */
+public class MotorSearch {
+
+    // Constants
+    public static final double DEFAULT_TIME_STEP = 0.01;
+    public static final double MAX_FLIGHT_TIME = 100.0;
+
+    private static final Comparator<Result> RANKING = Comparator.comparing((Result result) -> !result.feasible)
+            .thenComparingDouble((Result result) -> Math.abs(result.getApogeeError()))
+            .thenComparing((Result result) -> result.entry.getName());
+
+
+    // Fields
+    private final MotorCatalog catalog;
+    private final VehicleModel vehicle;
+
+    private double timeStep = DEFAULT_TIME_STEP;
+    private boolean parallel = true;
+    private boolean pruning = true;
+
+
+    // Properties
+    public MotorCatalog getCatalog() {
+        return this.catalog;
+    }
+
+    public double getTimeStep() {
+        return this.timeStep;
+    }
+
+    /**
+     *
+     * @param timeStep the time step of each flight, in seconds
+     */
+    public void setTimeStep(double timeStep) {
+        if (!(timeStep > 0.0)) {
+            throw new IllegalArgumentException("The time step must be positive.");
+        }
+        this.timeStep = timeStep;
+    }
+
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
+    /**
+     *
+     * @param parallel whether to fly the candidates in parallel, which requires a vehicle model that builds independent
+     *                 vehicles
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isPruning() {
+        return this.pruning;
+    }
+
+    /**
+     *
+     * @param pruning whether to drop impulse classes that cannot hold the best motor before flying every candidate
+     */
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param catalog the motors to choose from
+     * @param vehicle builds the vehicle to fly with each motor
+     */
+    public MotorSearch(MotorCatalog catalog, VehicleModel vehicle) {
+        this.catalog = catalog;
+        this.vehicle = vehicle;
+    }
+
+
+    // Public Methods
+    /**
+     * Searches every motor in the catalog.
+     *
+     * @param constraints the mission to fly
+     *
+     * @return the motors that were flown, best first
+     *
+     * @throws IOException if the thrust curve of a motor cannot be read
+     */
+    public List<Result> search(MissionConstraints constraints) throws IOException {
+        return this.search(constraints, this.catalog.getEntries());
+    }
+
+    /**
+     * Searches a set of motors from the catalog.
+     *
+     * @param constraints the mission to fly
+     * @param candidates  the motors to choose from
+     *
+     * @return the motors that were flown, best first
+     *
+     * @throws IOException if the thrust curve of a motor cannot be read
+     */
+    public List<Result> search(MissionConstraints constraints, List<MotorCatalog.Entry> candidates)
+            throws IOException {
+        List<MotorCatalog.Entry> sorted = new ArrayList<>(candidates);
+        sorted.sort(Comparator.comparingDouble(MotorCatalog.Entry::getTotalImpulse));
+
+        Map<String, List<MotorCatalog.Entry>> classes = new LinkedHashMap<>();
+        for (MotorCatalog.Entry entry : sorted) {
+            classes.computeIfAbsent(entry.getImpulseClass(), (String key) -> new ArrayList<>()).add(entry);
+        }
+
+        Map<MotorCatalog.Entry, Result> results = new ConcurrentHashMap<>();
+        List<List<MotorCatalog.Entry>> remaining = new ArrayList<>(classes.values());
+        if (this.pruning && remaining.size() > 2) {
+            remaining = this.pruneClasses(constraints, remaining, results);
+        }
+
+        List<MotorCatalog.Entry> flights = new ArrayList<>();
+        for (List<MotorCatalog.Entry> impulseClass : remaining) {
+            for (MotorCatalog.Entry entry : impulseClass) {
+                if (!results.containsKey(entry)) {
+                    flights.add(entry);
+                }
+            }
+        }
+        this.flyAll(constraints, flights, results);
+
+        List<Result> ranked = new ArrayList<>(results.values());
+        ranked.sort(RANKING);
+        return ranked;
+    }
+
+    /**
+     * Flies the vehicle with a single motor.
+     *
+     * @param constraints the mission to fly
+     * @param entry       the motor
+     *
+     * @return the result of the flight
+     *
+     * @throws IOException if the thrust curve of the motor cannot be read
+     */
+    public Result fly(MissionConstraints constraints, MotorCatalog.Entry entry) throws IOException {
+        HobbyRocketEngine engine = this.catalog.get(entry);
+        AerodynamicSystem system = this.vehicle.create(engine);
+
+        FlightRecorder recorder = new FlightRecorder(system.getInitialState(), constraints.getRailLength());
+        ExitCondition exit = (SystemState state) -> state.getTime() > MAX_FLIGHT_TIME
+                || (state.getTime() > engine.getBurnTime() && state.getStateVector().getComponent(6) < 0.0);
+        new Simulation<>(system, exit, recorder, this.timeStep).run();
+
+        double railExitSpeed = recorder.railExitSpeed;
+        double maximumQ = recorder.maximumQ;
+        return new Result(entry, recorder.apogee, maximumQ, railExitSpeed, constraints.getTargetApogee(),
+                constraints.isSatisfiedBy(railExitSpeed, maximumQ));
+    }
+
+
+    // Private Methods
+    /**
+     * Flies the least and most powerful motor of each class, and drops the classes those flights show cannot hold the
+     * best motor.
+     *
+     * @param constraints the mission to fly
+     * @param classes     the motors of each impulse class, in order of increasing impulse
+     * @param results     the map to add the probe flights to
+     *
+     * @return the classes that remain
+     */
+    private List<List<MotorCatalog.Entry>> pruneClasses(MissionConstraints constraints,
+            List<List<MotorCatalog.Entry>> classes, Map<MotorCatalog.Entry, Result> results) throws IOException {
+        List<MotorCatalog.Entry> probes = new ArrayList<>();
+        for (List<MotorCatalog.Entry> impulseClass : classes) {
+            probes.add(impulseClass.get(0));
+            if (impulseClass.size() > 1) {
+                probes.add(impulseClass.get(impulseClass.size() - 1));
+            }
+        }
+        this.flyAll(constraints, probes, results);
+
+        int first = 0;
+        int last = classes.size() - 1;
+        for (int i = 0; i < classes.size(); i++) {
+            List<MotorCatalog.Entry> impulseClass = classes.get(i);
+            Result weakest = results.get(impulseClass.get(0));
+            Result strongest = results.get(impulseClass.get(impulseClass.size() - 1));
+
+            // Everything weaker is further below the target and leaves the rail no faster
+            if (strongest.getApogeeError() < 0.0 && strongest.maximumQ <= constraints.getMaximumDynamicPressure()) {
+                first = i;
+            }
+            // Everything stronger overshoots further and sees no lower dynamic pressure
+            if (weakest.getApogeeError() > 0.0 && weakest.railExitSpeed >= constraints.getMinimumRailExitSpeed()) {
+                last = i;
+                break;
+            }
+        }
+
+        return classes.subList(first, Math.max(first, last) + 1);
+    }
+
+    private void flyAll(MissionConstraints constraints, List<MotorCatalog.Entry> entries,
+            Map<MotorCatalog.Entry, Result> results) throws IOException {
+        Stream<MotorCatalog.Entry> stream = entries.stream();
+        if (this.parallel) {
+            stream = stream.parallel();
+        }
+
+        try {
+            stream.forEach((MotorCatalog.Entry entry) -> {
+                try {
+                    results.put(entry, this.fly(constraints, entry));
+                }
+                catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+
+    // Nested Classes
+    /**
+     * Builds a vehicle, ready to launch, around a motor.
+     */
+    @FunctionalInterface
+    public interface VehicleModel {
+
+        /**
+         * Builds a vehicle. Each call must return a new system that shares no mutable state with the others, so that
+         * vehicles can be flown at the same time.
+         *
+         * @param engine the motor to fly
+         *
+         * @return the vehicle on the launch rail
+         */
+        AerodynamicSystem create(HobbyRocketEngine engine);
+
+    }
+
+    /**
+     * The outcome of flying the vehicle with one motor.
+     */
+    public static final class Result {
+
+        // Fields
+        private final MotorCatalog.Entry entry;
+        private final double apogee;
+        private final double maximumQ;
+        private final double railExitSpeed;
+        private final double targetApogee;
+        private final boolean feasible;
+
+
+        // Properties
+        public MotorCatalog.Entry getEntry() {
+            return this.entry;
+        }
+
+        /**
+         *
+         * @return the highest altitude reached, in feet above the launch site
+         */
+        public double getApogee() {
+            return this.apogee;
+        }
+
+        /**
+         *
+         * @return the highest dynamic pressure of the flight, in pounds per square foot
+         */
+        public double getMaximumQ() {
+            return this.maximumQ;
+        }
+
+        /**
+         *
+         * @return the speed at the end of the rail, in feet per second, or zero if the vehicle never left it
+         */
+        public double getRailExitSpeed() {
+            return this.railExitSpeed;
+        }
+
+        /**
+         *
+         * @return how far the apogee is above the target, in feet
+         */
+        public double getApogeeError() {
+            return this.apogee - this.targetApogee;
+        }
+
+        /**
+         *
+         * @return whether the flight met the rail exit speed and dynamic pressure constraints
+         */
+        public boolean isFeasible() {
+            return this.feasible;
+        }
+
+
+        // Initialization
+        private Result(MotorCatalog.Entry entry, double apogee, double maximumQ, double railExitSpeed,
+                double targetApogee, boolean feasible) {
+            this.entry = entry;
+            this.apogee = apogee;
+            this.maximumQ = maximumQ;
+            this.railExitSpeed = railExitSpeed;
+            this.targetApogee = targetApogee;
+            this.feasible = feasible;
+        }
+
+
+        // Public Methods
+        @Override
+        public String toString() {
+            return String.format("%s: apogee %.0f ft, max Q %.1f psf, rail exit %.1f ft/s%s", this.entry.getName(),
+                    this.apogee, this.maximumQ, this.railExitSpeed, this.feasible ? "" : " (infeasible)");
+        }
+
+    }
+
+    /**
+     * Tracks the apogee, the highest dynamic pressure and the rail exit speed of a flight. Positions and speeds are
+     * read from the state vector, since the derived properties of a state describe the start of the step that
+     * produced it.
+     */
+    private static final class FlightRecorder implements SimulationRecorder {
+
+        // Fields
+        private final double launchX;
+        private final double launchY;
+        private final double launchAltitude;
+        private final double railLength;
+
+        private double apogee;
+        private double maximumQ;
+        private double railExitSpeed;
+        private boolean onRail;
+
+
+        // Initialization
+        private FlightRecorder(SystemState initialState, double railLength) {
+            Vector launch = initialState.getStateVector();
+            this.launchX = launch.getComponent(1);
+            this.launchY = launch.getComponent(3);
+            this.launchAltitude = launch.getComponent(5);
+            this.railLength = railLength;
+        }
+
+
+        // SimulationRecorder Implementation
+        @Override
+        public void start() {
+            this.apogee = 0.0;
+            this.maximumQ = 0.0;
+            this.railExitSpeed = 0.0;
+            this.onRail = true;
+        }
+
+        @Override
+        public void handle(StateUpdatedEventArgs e) {
+            Vector vector = e.state.getStateVector();
+            double altitude = vector.getComponent(5) - this.launchAltitude;
+            this.apogee = Math.max(this.apogee, altitude);
+
+            Double q = e.state.get(AerodynamicSystem.DYNAMIC_PRESSURE);
+            if (q != null) {
+                this.maximumQ = Math.max(this.maximumQ, q);
+            }
+
+            // The rail may be tilted, so the vehicle leaves it once it has travelled its length in any direction
+            double x = vector.getComponent(1) - this.launchX;
+            double y = vector.getComponent(3) - this.launchY;
+            if (this.onRail && Math.sqrt(x * x + y * y + altitude * altitude) >= this.railLength) {
+                double xVel = vector.getComponent(2);
+                double yVel = vector.getComponent(4);
+                double zVel = vector.getComponent(6);
+                this.railExitSpeed = Math.sqrt(xVel * xVel + yVel * yVel + zVel * zVel);
+                this.onRail = false;
+            }
+        }
+
+        @Override
+        public void finish() {
+
+        }
+
+    }
+
+}
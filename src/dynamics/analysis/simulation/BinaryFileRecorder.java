@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Records states to a file in the {@link BinaryTrajectoryFormat}. Unlike the text output of a {@link FileRecorder},
+ * values are written at full precision and can be read back without any parsing.
+ *
+ * @author Nathan Templon
+ */
+public class BinaryFileRecorder extends SampleRecorder implements AutoCloseable {
+
+    // Fields
+    private final File outputFile;
+
+    private DataOutputStream out;
+    private boolean writtenHeader;
+    private int rowCount;
+
+
+    // Properties
+    public File getOutputFile() {
+        return this.outputFile;
+    }
+
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+
+    // Initialization
+    public BinaryFileRecorder(File outputFile, SystemProperty[] outputVariables) {
+        super(outputVariables);
+        this.outputFile = outputFile;
+    }
+
+
+    // SampleRecorder Implementation
+    @Override
+    public void start() {
+        this.writtenHeader = false;
+        this.rowCount = 0;
+
+        try {
+            File parent = this.getOutputFile().getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.getOutputFile())));
+        }
+        catch (IOException ex) {
+            this.out = null;
+        }
+    }
+
+    @Override
+    public void record(SystemState state, double[] values) {
+        if (this.out == null) {
+            return;
+        }
+
+        try {
+            if (!this.writtenHeader) {
+                this.writeHeader(state);
+            }
+            BinaryTrajectoryFormat.writeRow(this.out, state.getTime(), values);
+            this.rowCount++;
+        }
+        catch (IOException ex) {
+            this.close();
+        }
+    }
+
+    @Override
+    public void finish() {
+        if (this.out != null && !this.writtenHeader) {
+            try {
+                this.writeHeader(null);
+            }
+            catch (IOException ex) {
+
+            }
+        }
+        this.close();
+    }
+
+
+    // AutoCloseable Implementation
+    @Override
+    public void close() {
+        if (this.out != null) {
+            try {
+                this.out.close();
+            }
+            catch (IOException ex) {
+
+            }
+            this.out = null;
+        }
+    }
+
+
+    // Private Methods
+    /**
+     * The header is written with the first row, so that the value kinds can be taken from the first recorded state.
+     */
+    private void writeHeader(SystemState state) throws IOException {
+        SystemProperty[] properties = this.getRecordedProperties();
+        BinaryTrajectoryFormat.writeHeader(this.out, properties, BinaryTrajectoryFormat.kindsOf(state, properties));
+        this.writtenHeader = true;
+    }
+
+}
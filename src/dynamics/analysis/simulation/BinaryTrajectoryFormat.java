@@ -0,0 +1,221 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import com.jupiter.ganymede.math.geometry.Angle;
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Describes the binary trajectory format written by {@link BinaryFileRecorder}.
+ *
+ * A trajectory starts with a header: the magic number, the format version, the number of columns and, for each
+ * column, its property name and value kind. The header is followed by fixed-size rows of big-endian doubles, each
+ * holding the time followed by one value per column. Because every row has the same size, the number of rows follows
+ * from the length of the data and any row can be found without reading the ones before it.
+ *
+ * @author Nathan Templon
+ */
+public final class BinaryTrajectoryFormat {
+
+    // Constants
+    public static final int MAGIC = 0x4E465452; // "NFTR"
+    public static final int VERSION = 1;
+
+    /**
+     * A plain scalar value, stored as is.
+     */
+    public static final byte SCALAR = 0;
+
+    /**
+     * An angle, stored in radians.
+     */
+    public static final byte ANGLE = 1;
+
+
+    // Public Static Methods
+    /**
+     *
+     * @param value a value of a property
+     *
+     * @return the kind the value is stored as
+     */
+    public static byte kindOf(Object value) {
+        if (value instanceof Angle) {
+            return ANGLE;
+        }
+        return SCALAR;
+    }
+
+    /**
+     *
+     * @param state      a state, or null if there is none
+     * @param properties the recorded properties
+     *
+     * @return the kinds the properties are stored as, based on their values in the state
+     */
+    public static byte[] kindsOf(SystemState state, SystemProperty[] properties) {
+        byte[] kinds = new byte[properties.length];
+        if (state != null) {
+            for (int i = 0; i < properties.length; i++) {
+                kinds[i] = kindOf(state.get(properties[i]));
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     *
+     * @param columnCount the number of recorded properties
+     *
+     * @return the size of one row, in bytes
+     */
+    public static int rowSize(int columnCount) {
+        return (columnCount + 1) * Double.BYTES;
+    }
+
+    public static void writeHeader(DataOutput out, SystemProperty[] properties, byte[] kinds) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(properties.length);
+        for (int i = 0; i < properties.length; i++) {
+            out.writeUTF(properties[i].getName());
+            out.writeByte(kinds[i]);
+        }
+    }
+
+    /**
+     * Reads a header, starting at the current position of a buffer. The buffer is left positioned at the first row.
+     *
+     * @param buffer the buffer holding the trajectory
+     *
+     * @return the header
+     *
+     * @throws IOException if the buffer does not hold a trajectory of a supported version
+     */
+    public static Header readHeader(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        if (buffer.remaining() < 3 * Integer.BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("The data is not a binary trajectory.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary trajectory version " + version + ".");
+        }
+
+        int columnCount = buffer.getInt();
+        String[] names = new String[columnCount];
+        byte[] kinds = new byte[columnCount];
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                // Names are stored as modified UTF-8 with a two byte length prefix
+                int length = buffer.getShort() & 0xFFFF;
+                byte[] encoded = new byte[length + 2];
+                encoded[0] = (byte) (length >> 8);
+                encoded[1] = (byte) length;
+                buffer.get(encoded, 2, length);
+                names[i] = new DataInputStream(new ByteArrayInputStream(encoded)).readUTF();
+                kinds[i] = buffer.get();
+            }
+        }
+        catch (BufferUnderflowException ex) {
+            throw new IOException("The binary trajectory header is truncated.");
+        }
+
+        return new Header(names, kinds, buffer.position() - start);
+    }
+
+    public static void writeRow(DataOutput out, double time, double[] values) throws IOException {
+        out.writeDouble(time);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+
+    // Initialization
+    private BinaryTrajectoryFormat() {
+        // Sealed to prevent instantiation
+    }
+
+
+    // Nested Classes
+    public static class Header {
+
+        // Fields
+        private final String[] names;
+        private final byte[] kinds;
+        private final int size;
+
+
+        // Properties
+        /**
+         *
+         * @return the property names of the columns
+         */
+        public String[] getNames() {
+            return this.names;
+        }
+
+        /**
+         *
+         * @return the value kinds of the columns
+         */
+        public byte[] getKinds() {
+            return this.kinds;
+        }
+
+        /**
+         *
+         * @return the size of the header, in bytes
+         */
+        public int getSize() {
+            return this.size;
+        }
+
+        /**
+         *
+         * @return the size of one row, in bytes
+         */
+        public int getRowSize() {
+            return rowSize(this.names.length);
+        }
+
+
+        // Initialization
+        public Header(String[] names, byte[] kinds, int size) {
+            this.names = names;
+            this.kinds = kinds;
+            this.size = size;
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import dynamics.SystemState;
+
+/**
+ * Records the first state and every n-th state after it.
+ *
+ * @author Nathan Templon
+ */
+public class DecimationPolicy implements RecordingPolicy {
+
+    // Constants
+    public static final DecimationPolicy EVERY_STATE = new DecimationPolicy(1);
+
+
+    // Fields
+    private final int recordFrequency;
+    private int datapointCounter;
+    private boolean recordedFirst;
+
+
+    // Properties
+    public int getRecordFrequency() {
+        return this.recordFrequency;
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param recordFrequency the number of states between recorded states
+     */
+    public DecimationPolicy(int recordFrequency) {
+        if (recordFrequency < 1) {
+            throw new IllegalArgumentException("The record frequency must be at least one.");
+        }
+        this.recordFrequency = recordFrequency;
+    }
+
+
+    // RecordingPolicy Implementation
+    @Override
+    public void start() {
+        this.datapointCounter = 0;
+        this.recordedFirst = false;
+    }
+
+    @Override
+    public boolean shouldRecord(SystemState state) {
+        if (this.recordFrequency == 1) {
+            return true;
+        }
+
+        this.datapointCounter++;
+        if (this.datapointCounter >= this.recordFrequency || !this.recordedFirst) {
+            this.recordedFirst = true;
+            this.datapointCounter = 0;
+            return true;
+        }
+        return false;
+    }
+
+}
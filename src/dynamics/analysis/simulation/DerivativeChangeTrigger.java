@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+
+/**
+ * Triggers when the time derivative of a property changes by more than a threshold from one step to the next, which
+ * catches sudden changes in behavior such as a pitch-over.
+ *
+ * @author Nathan Templon
+ */
+public class DerivativeChangeTrigger implements RecordingTrigger {
+
+    // Fields
+    private final SystemProperty property;
+    private final double threshold;
+
+    private double lastTime;
+    private double lastValue;
+    private double lastDerivative;
+
+
+    // Initialization
+    /**
+     *
+     * @param property  the property to watch
+     * @param threshold the change in the time derivative of the property, in units of the property per second, above
+     *                  which the trigger fires
+     */
+    public DerivativeChangeTrigger(SystemProperty property, double threshold) {
+        this.property = property;
+        this.threshold = threshold;
+    }
+
+
+    // RecordingTrigger Implementation
+    @Override
+    public void start() {
+        this.lastTime = Double.NaN;
+        this.lastValue = Double.NaN;
+        this.lastDerivative = Double.NaN;
+    }
+
+    @Override
+    public boolean isTriggered(SystemState state) {
+        double time = state.getTime();
+        double value = SampleRecorder.valueOf(state.get(this.property));
+        if (Double.isNaN(value) || !(time > this.lastTime || Double.isNaN(this.lastTime))) {
+            return false;
+        }
+
+        boolean triggered = false;
+        if (!Double.isNaN(this.lastValue)) {
+            double derivative = (value - this.lastValue) / (time - this.lastTime);
+            triggered = !Double.isNaN(this.lastDerivative)
+                    && Math.abs(derivative - this.lastDerivative) > this.threshold;
+            this.lastDerivative = derivative;
+        }
+        this.lastTime = time;
+        this.lastValue = value;
+        return triggered;
+    }
+
+}
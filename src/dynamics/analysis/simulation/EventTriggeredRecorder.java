@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import dynamics.AerodynamicSystem;
+import dynamics.DynamicSystem;
+import dynamics.DynamicSystem.StateUpdatedEventArgs;
+import dynamics.SystemState;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Passes states on to another recorder at a high rate around interesting events, and at a low rate elsewhere.
+ *
+ * Whenever one of the triggers fires, a recording window is opened that lasts for the post-trigger time. Outside of a
+ * window every state is held in a history buffer for the pre-trigger time, and states the low rate policy picked are
+ * only passed on once they are older than that. When a trigger fires, the buffered lead-up to the event is passed on at
+ * the high rate, merged in time order with the low rate picks, so the window also covers the pre-trigger time. The
+ * final state of the simulation is always passed on.
+ *
+ * @author Nathan Templon
+ */
+public class EventTriggeredRecorder implements SimulationRecorder {
+
+    // Fields
+    private final SimulationRecorder sink;
+    private final RecordingPolicy lowRate;
+    private final RecordingPolicy highRate;
+    private final double preTriggerTime;
+    private final double postTriggerTime;
+    private final List<RecordingTrigger> triggers = new ArrayList<>();
+
+    private final ArrayDeque<BufferedState> history = new ArrayDeque<>();
+    private double windowEnd;
+    private StateUpdatedEventArgs lastEvent;
+    private SystemState lastRecorded;
+
+
+    // Initialization
+    /**
+     *
+     * @param sink            the recorder to pass the selected states to
+     * @param lowRate         the policy used outside of recording windows
+     * @param highRate        the policy used inside of recording windows
+     * @param preTriggerTime  the time before a trigger that is covered by its recording window, in seconds
+     * @param postTriggerTime the time after a trigger that is covered by its recording window, in seconds
+     */
+    public EventTriggeredRecorder(SimulationRecorder sink, RecordingPolicy lowRate, RecordingPolicy highRate,
+            double preTriggerTime, double postTriggerTime) {
+        this.sink = sink;
+        this.lowRate = lowRate;
+        this.highRate = highRate;
+        this.preTriggerTime = preTriggerTime;
+        this.postTriggerTime = postTriggerTime;
+    }
+
+
+    // Public Methods
+    public void addTrigger(RecordingTrigger trigger) {
+        this.triggers.add(trigger);
+    }
+
+    /**
+     * Adds triggers for ignition and burnout, maximum dynamic pressure and the top of the climb of an
+     * {@link AerodynamicSystem}.
+     */
+    public void addFlightEventTriggers() {
+        this.addTrigger(new ThresholdTrigger(AerodynamicSystem.THRUST, 1e-6));
+        this.addTrigger(new PeakTrigger(AerodynamicSystem.DYNAMIC_PRESSURE));
+        this.addTrigger(new ThresholdTrigger(DynamicSystem.Z_VEL, 0.0));
+    }
+
+
+    // SimulationRecorder Implementation
+    @Override
+    public void start() {
+        this.history.clear();
+        this.windowEnd = Double.NEGATIVE_INFINITY;
+        this.lastEvent = null;
+        this.lastRecorded = null;
+
+        this.lowRate.start();
+        this.highRate.start();
+        this.triggers.stream().forEach(RecordingTrigger::start);
+
+        this.sink.start();
+    }
+
+    @Override
+    public void handle(StateUpdatedEventArgs e) {
+        double time = e.state.getTime();
+        this.lastEvent = e;
+
+        // Every trigger sees every state, so that they can track changes between states
+        boolean triggered = false;
+        for (RecordingTrigger trigger : this.triggers) {
+            triggered |= trigger.isTriggered(e.state);
+        }
+
+        if (triggered) {
+            if (time > this.windowEnd) {
+                // Pass on the whole lead-up, at the high rate and with every low rate pick
+                this.highRate.start();
+                while (!this.history.isEmpty()) {
+                    BufferedState buffered = this.history.removeFirst();
+                    if (this.highRate.shouldRecord(buffered.event.state) || buffered.lowRate) {
+                        this.record(buffered.event);
+                    }
+                }
+            }
+            this.windowEnd = Math.max(this.windowEnd, time + this.postTriggerTime);
+        }
+
+        if (time <= this.windowEnd) {
+            if (this.highRate.shouldRecord(e.state)) {
+                this.record(e);
+            }
+        }
+        else {
+            this.history.addLast(new BufferedState(e, this.lowRate.shouldRecord(e.state)));
+            this.releaseHistory(time - this.preTriggerTime);
+        }
+    }
+
+    @Override
+    public void finish() {
+        this.releaseHistory(Double.POSITIVE_INFINITY);
+        if (this.lastEvent != null && this.lastRecorded != this.lastEvent.state) {
+            this.sink.handle(this.lastEvent);
+        }
+        this.history.clear();
+
+        this.sink.finish();
+    }
+
+
+    // Private Methods
+    private void record(StateUpdatedEventArgs e) {
+        this.sink.handle(e);
+        this.lastRecorded = e.state;
+    }
+
+    /**
+     * Removes the buffered states from before a time, passing on those the low rate policy picked.
+     *
+     * @param time the time before which states can no longer be part of a recording window
+     */
+    private void releaseHistory(double time) {
+        while (!this.history.isEmpty() && this.history.peekFirst().event.state.getTime() < time) {
+            BufferedState buffered = this.history.removeFirst();
+            if (buffered.lowRate) {
+                this.record(buffered.event);
+            }
+        }
+    }
+
+
+    // Nested Classes
+    /**
+     * A state held in the history buffer, and whether the low rate policy picked it.
+     */
+    private static final class BufferedState {
+
+        // Fields
+        private final StateUpdatedEventArgs event;
+        private final boolean lowRate;
+
+
+        // Initialization
+        private BufferedState(StateUpdatedEventArgs event, boolean lowRate) {
+            this.event = event;
+            this.lowRate = lowRate;
+        }
+
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import dynamics.DynamicSystem.StateUpdatedEventArgs;
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Passes the states of a single simulation on to several recorders, each with its own {@link RecordingPolicy}.
+ *
+ * The values needed by all {@link SampleRecorder} sinks are extracted from each state once and shared, so each of
+ * those sinks only copies out its own subset. Other recorders are passed the original event. Every sink is also given
+ * the final state of the simulation, even if its policy skipped it.
+ *
+ * @author Nathan Templon
+ */
+public class FanOutRecorder implements SimulationRecorder {
+
+    // Fields
+    private final List<Channel> channels = new ArrayList<>();
+
+    private SystemProperty[] extractedProperties = new SystemProperty[0];
+    private double[] extractedValues = new double[0];
+    private StateUpdatedEventArgs lastEvent;
+
+
+    // Initialization
+    public FanOutRecorder() {
+
+    }
+
+
+    // Public Methods
+    /**
+     * Adds a sink that is passed every state.
+     *
+     * @param sink the recorder to add
+     */
+    public void addSink(SimulationRecorder sink) {
+        this.addSink(sink, DecimationPolicy.EVERY_STATE);
+    }
+
+    /**
+     * Adds a sink that is passed the states selected by a policy. Sinks must be added before the simulation starts.
+     *
+     * @param sink   the recorder to add
+     * @param policy the policy selecting the states passed to the recorder
+     */
+    public void addSink(SimulationRecorder sink, RecordingPolicy policy) {
+        this.channels.add(new Channel(sink, policy));
+    }
+
+
+    // SimulationRecorder Implementation
+    @Override
+    public void start() {
+        // Build the union of all sample properties, and the map from each sink's properties into it
+        Map<SystemProperty, Integer> indices = new LinkedHashMap<>();
+        for (Channel channel : this.channels) {
+            if (channel.sampleSink != null) {
+                SystemProperty[] properties = channel.sampleSink.getRecordedProperties();
+                channel.indices = new int[properties.length];
+                channel.values = new double[properties.length];
+                for (int i = 0; i < properties.length; i++) {
+                    Integer index = indices.get(properties[i]);
+                    if (index == null) {
+                        index = indices.size();
+                        indices.put(properties[i], index);
+                    }
+                    channel.indices[i] = index;
+                }
+            }
+        }
+        this.extractedProperties = indices.keySet().toArray(new SystemProperty[indices.size()]);
+        this.extractedValues = new double[this.extractedProperties.length];
+        this.lastEvent = null;
+
+        for (Channel channel : this.channels) {
+            channel.lastRecorded = null;
+            channel.policy.start();
+            channel.sink.start();
+        }
+    }
+
+    @Override
+    public void handle(StateUpdatedEventArgs e) {
+        SampleRecorder.extract(e.state, this.extractedProperties, this.extractedValues);
+
+        for (Channel channel : this.channels) {
+            if (channel.policy.shouldRecord(e.state)) {
+                channel.record(e, this.extractedValues);
+            }
+        }
+
+        this.lastEvent = e;
+    }
+
+    @Override
+    public void finish() {
+        if (this.lastEvent != null) {
+            boolean extracted = false;
+            for (Channel channel : this.channels) {
+                if (channel.lastRecorded != this.lastEvent.state) {
+                    if (!extracted) {
+                        SampleRecorder.extract(this.lastEvent.state, this.extractedProperties, this.extractedValues);
+                        extracted = true;
+                    }
+                    channel.record(this.lastEvent, this.extractedValues);
+                }
+            }
+        }
+
+        for (Channel channel : this.channels) {
+            channel.sink.finish();
+        }
+    }
+
+
+    // Nested Classes
+    private static class Channel {
+
+        // Fields
+        private final SimulationRecorder sink;
+        private final SampleRecorder sampleSink;
+        private final RecordingPolicy policy;
+
+        private int[] indices;
+        private double[] values;
+        private SystemState lastRecorded;
+
+
+        // Initialization
+        private Channel(SimulationRecorder sink, RecordingPolicy policy) {
+            this.sink = sink;
+            this.sampleSink = sink instanceof SampleRecorder ? (SampleRecorder) sink : null;
+            this.policy = policy;
+        }
+
+
+        // Private Methods
+        private void record(StateUpdatedEventArgs e, double[] extractedValues) {
+            if (this.sampleSink != null) {
+                for (int i = 0; i < this.indices.length; i++) {
+                    this.values[i] = extractedValues[this.indices[i]];
+                }
+                this.sampleSink.record(e.state, this.values);
+            }
+            else {
+                this.sink.handle(e);
+            }
+            this.lastRecorded = e.state;
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+
+/**
+ * Triggers when a property stops increasing, for example at maximum dynamic pressure or at apogee.
+ *
+ * @author Nathan Templon
+ */
+public class PeakTrigger implements RecordingTrigger {
+
+    // Fields
+    private final SystemProperty property;
+
+    private double lastValue;
+    private boolean increasing;
+
+
+    // Initialization
+    public PeakTrigger(SystemProperty property) {
+        this.property = property;
+    }
+
+
+    // RecordingTrigger Implementation
+    @Override
+    public void start() {
+        this.lastValue = Double.NaN;
+        this.increasing = false;
+    }
+
+    @Override
+    public boolean isTriggered(SystemState state) {
+        double value = SampleRecorder.valueOf(state.get(this.property));
+        if (Double.isNaN(value)) {
+            return false;
+        }
+
+        boolean triggered = false;
+        if (!Double.isNaN(this.lastValue)) {
+            triggered = this.increasing && value < this.lastValue;
+            if (value != this.lastValue) {
+                this.increasing = value > this.lastValue;
+            }
+        }
+        this.lastValue = value;
+        return triggered;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import com.jupiter.ganymede.math.geometry.Angle;
+import com.jupiter.ganymede.math.geometry.Angle.AngleType;
+import com.jupiter.ganymede.math.geometry.Angle.MeasureRange;
+import dynamics.DynamicSystem.StateUpdatedEventArgs;
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+
+/**
+ * A recorder that works on the numeric values of a fixed set of properties rather than on the raw state. Angles are
+ * extracted in radians, and missing or non-numeric properties are extracted as NaN.
+ *
+ * When used on its own, the recorder extracts its values from each state itself. A {@link FanOutRecorder} instead
+ * extracts the values for all of its sinks once and passes each sink its share.
+ *
+ * @author Nathan Templon
+ */
+public abstract class SampleRecorder implements SimulationRecorder {
+
+    // Fields
+    private final SystemProperty[] recordedProperties;
+    private final double[] values;
+
+
+    // Properties
+    public final SystemProperty[] getRecordedProperties() {
+        return this.recordedProperties;
+    }
+
+
+    // Initialization
+    public SampleRecorder(SystemProperty[] recordedProperties) {
+        this.recordedProperties = recordedProperties;
+        this.values = new double[recordedProperties.length];
+    }
+
+
+    // Public Methods
+    /**
+     * Records a single state.
+     *
+     * @param state  the state being recorded
+     * @param values the values of the recorded properties in that state, in the order given by
+     *               {@link #getRecordedProperties()}. The array is reused between calls.
+     */
+    public abstract void record(SystemState state, double[] values);
+
+
+    // SimulationRecorder Implementation
+    @Override
+    public void handle(StateUpdatedEventArgs e) {
+        extract(e.state, this.recordedProperties, this.values);
+        this.record(e.state, this.values);
+    }
+
+
+    // Public Static Methods
+    /**
+     * Extracts the numeric values of a set of properties from a state.
+     *
+     * @param state      the state to read
+     * @param properties the properties to extract
+     * @param values     the array to write the values into
+     */
+    public static void extract(SystemState state, SystemProperty[] properties, double[] values) {
+        for (int i = 0; i < properties.length; i++) {
+            values[i] = valueOf(state.get(properties[i]));
+        }
+    }
+
+    /**
+     *
+     * @param value the value of a property
+     *
+     * @return the numeric value of the property, in radians for angles, or NaN if it is not numeric
+     */
+    public static double valueOf(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        else if (value instanceof Angle) {
+            return ((Angle) value).getMeasure(AngleType.RADIANS, MeasureRange.PlusMinus);
+        }
+        else if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.NaN;
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+import java.util.Arrays;
+
+/**
+ * Keeps running summary statistics of a set of properties without storing the states themselves. NaN values are
+ * ignored.
+ *
+ * @author Nathan Templon
+ */
+public class StatisticsRecorder extends SampleRecorder {
+
+    // Enumerations
+    public enum Statistic {
+
+        MIN,
+        MAX,
+        MEAN,
+        FINAL
+    }
+
+
+    // Fields
+    private final double[] min;
+    private final double[] max;
+    private final double[] minTime;
+    private final double[] maxTime;
+    private final double[] sum;
+    private final double[] last;
+    private final int[] count;
+
+
+    // Initialization
+    public StatisticsRecorder(SystemProperty[] properties) {
+        super(properties);
+
+        int length = properties.length;
+        this.min = new double[length];
+        this.max = new double[length];
+        this.minTime = new double[length];
+        this.maxTime = new double[length];
+        this.sum = new double[length];
+        this.last = new double[length];
+        this.count = new int[length];
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param property  a recorded property
+     * @param statistic the statistic to retrieve
+     *
+     * @return the statistic of the property over the recorded states, or NaN if the property is not recorded or had
+     *         no values
+     */
+    public double get(SystemProperty property, Statistic statistic) {
+        int index = this.indexOf(property);
+        if (index < 0 || this.count[index] == 0) {
+            return Double.NaN;
+        }
+
+        switch (statistic) {
+            case MIN:
+                return this.min[index];
+            case MAX:
+                return this.max[index];
+            case MEAN:
+                return this.sum[index] / this.count[index];
+            case FINAL:
+                return this.last[index];
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     *
+     * @param property a recorded property
+     *
+     * @return the time at which the property reached its maximum, or NaN if it had no values
+     */
+    public double getTimeOfMax(SystemProperty property) {
+        int index = this.indexOf(property);
+        if (index < 0 || this.count[index] == 0) {
+            return Double.NaN;
+        }
+        return this.maxTime[index];
+    }
+
+    /**
+     *
+     * @param property a recorded property
+     *
+     * @return the time at which the property reached its minimum, or NaN if it had no values
+     */
+    public double getTimeOfMin(SystemProperty property) {
+        int index = this.indexOf(property);
+        if (index < 0 || this.count[index] == 0) {
+            return Double.NaN;
+        }
+        return this.minTime[index];
+    }
+
+
+    // SampleRecorder Implementation
+    @Override
+    public void start() {
+        Arrays.fill(this.min, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.max, Double.NEGATIVE_INFINITY);
+        Arrays.fill(this.sum, 0.0);
+        Arrays.fill(this.last, Double.NaN);
+        Arrays.fill(this.count, 0);
+    }
+
+    @Override
+    public void record(SystemState state, double[] values) {
+        double time = state.getTime();
+        for (int i = 0; i < values.length; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+
+            if (value < this.min[i]) {
+                this.min[i] = value;
+                this.minTime[i] = time;
+            }
+            if (value > this.max[i]) {
+                this.max[i] = value;
+                this.maxTime[i] = time;
+            }
+            this.sum[i] += value;
+            this.last[i] = value;
+            this.count[i]++;
+        }
+    }
+
+    @Override
+    public void finish() {
+
+    }
+
+
+    // Private Methods
+    private int indexOf(SystemProperty property) {
+        SystemProperty[] properties = this.getRecordedProperties();
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i] == property) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
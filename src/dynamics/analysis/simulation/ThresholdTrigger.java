@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+
+/**
+ * Triggers when a property crosses a threshold in either direction, for example the thrust rising above zero at
+ * ignition and falling back to zero at burnout.
+ *
+ * @author Nathan Templon
+ */
+public class ThresholdTrigger implements RecordingTrigger {
+
+    // Fields
+    private final SystemProperty property;
+    private final double threshold;
+
+    private double lastValue;
+
+
+    // Initialization
+    public ThresholdTrigger(SystemProperty property, double threshold) {
+        this.property = property;
+        this.threshold = threshold;
+    }
+
+
+    // RecordingTrigger Implementation
+    @Override
+    public void start() {
+        this.lastValue = Double.NaN;
+    }
+
+    @Override
+    public boolean isTriggered(SystemState state) {
+        double value = SampleRecorder.valueOf(state.get(this.property));
+        if (Double.isNaN(value)) {
+            return false;
+        }
+
+        boolean triggered = !Double.isNaN(this.lastValue)
+                && (this.lastValue < this.threshold) != (value < this.threshold);
+        this.lastValue = value;
+        return triggered;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.simulation;
+
+import dynamics.SystemState;
+
+/**
+ * Records the first state at or after each point of a fixed time grid, independent of the simulation time step.
+ *
+ * @author Nathan Templon
+ */
+public class TimeGridPolicy implements RecordingPolicy {
+
+    // Fields
+    private final double interval;
+    private double nextTime;
+
+
+    // Properties
+    /**
+     *
+     * @return the spacing of the time grid, in seconds
+     */
+    public double getInterval() {
+        return this.interval;
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param interval the spacing of the time grid, in seconds
+     */
+    public TimeGridPolicy(double interval) {
+        if (!(interval > 0.0)) {
+            throw new IllegalArgumentException("The recording interval must be positive.");
+        }
+        this.interval = interval;
+    }
+
+
+    // RecordingPolicy Implementation
+    @Override
+    public void start() {
+        this.nextTime = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public boolean shouldRecord(SystemState state) {
+        double time = state.getTime();
+        if (time < this.nextTime) {
+            return false;
+        }
+
+        if (this.nextTime == Double.NEGATIVE_INFINITY) {
+            this.nextTime = time + this.interval;
+        }
+        else {
+            // Skip any grid points the simulation stepped over entirely
+            this.nextTime += this.interval * (Math.floor((time - this.nextTime) / this.interval) + 1.0);
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,278 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.trajectory;
+
+import dynamics.DynamicSystem;
+import dynamics.SystemProperty;
+import dynamics.analysis.simulation.BinaryTrajectoryFormat;
+import dynamics.analysis.simulation.BinaryTrajectoryFormat.Header;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads trajectories in the {@link BinaryTrajectoryFormat} through memory mapping.
+ *
+ * Since every row has the same size, no index has to be built: the rows of a time window are found with a binary search
+ * on the time column of the mapped data, and columns can be viewed in place through {@link TrajectoryColumn}s. Files
+ * larger than a single mapping are mapped in several segments, each holding a whole number of rows. Angles are read in
+ * radians. The reader only uses absolute reads, so it can be shared between threads.
+ *
+ * @author Nathan Templon
+ */
+public class BinaryTrajectoryReader implements TrajectoryReader {
+
+    // Constants
+    private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+
+    // Fields
+    private final Header header;
+    private final int rowSize;
+    private final int rowCount;
+    private final int rowsPerSegment;
+    private final ByteBuffer[] segments;
+
+
+    // Properties
+    @Override
+    public String[] getPropertyNames() {
+        return this.header.getNames();
+    }
+
+    /**
+     *
+     * @return the value kinds of the columns, as defined by {@link BinaryTrajectoryFormat}
+     */
+    public byte[] getKinds() {
+        return this.header.getKinds();
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    @Override
+    public double getStartTime() {
+        return this.rowCount > 0 ? this.getTime(0) : Double.NaN;
+    }
+
+    @Override
+    public double getEndTime() {
+        return this.rowCount > 0 ? this.getTime(this.rowCount - 1) : Double.NaN;
+    }
+
+
+    // Initialization
+    /**
+     * Creates a reader over a trajectory held in a buffer, starting at its current position. The contents of the buffer
+     * are not copied.
+     *
+     * @param buffer the buffer holding the trajectory
+     *
+     * @throws IOException if the buffer does not hold a binary trajectory
+     */
+    public BinaryTrajectoryReader(ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.slice();
+        this.header = BinaryTrajectoryFormat.readHeader(data);
+        this.rowSize = this.header.getRowSize();
+        this.rowCount = (data.limit() - this.header.getSize()) / this.rowSize;
+        this.rowsPerSegment = Math.max(this.rowCount, 1);
+
+        data.position(this.header.getSize());
+        this.segments = new ByteBuffer[]{data.slice()};
+    }
+
+    private BinaryTrajectoryReader(Header header, int rowCount, int rowsPerSegment, ByteBuffer[] segments) {
+        this.header = header;
+        this.rowSize = header.getRowSize();
+        this.rowCount = rowCount;
+        this.rowsPerSegment = rowsPerSegment;
+        this.segments = segments;
+    }
+
+    /**
+     * Opens a binary trajectory file. The file is mapped rather than read, so opening even very large files is cheap.
+     *
+     * @param file the trajectory file
+     *
+     * @return a reader for the file
+     *
+     * @throws IOException if the file cannot be read or is not a binary trajectory
+     */
+    public static BinaryTrajectoryReader open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            Header header = BinaryTrajectoryFormat.readHeader(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_SEGMENT_SIZE)));
+
+            long rowSize = header.getRowSize();
+            long rows = (size - header.getSize()) / rowSize;
+            if (rows > Integer.MAX_VALUE) {
+                throw new IOException("The trajectory has too many rows to be read.");
+            }
+            int rowCount = (int) rows;
+
+            // Mappings stay valid after the channel is closed
+            int rowsPerSegment = (int) Math.max(1, Math.min(rowCount, MAX_SEGMENT_SIZE / rowSize));
+            int segmentCount = (rowCount + rowsPerSegment - 1) / rowsPerSegment;
+            ByteBuffer[] segments = new ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long start = header.getSize() + (long) i * rowsPerSegment * rowSize;
+                long length = Math.min(rowsPerSegment, rowCount - (long) i * rowsPerSegment) * rowSize;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+
+            return new BinaryTrajectoryReader(header, rowCount, rowsPerSegment, segments);
+        }
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param row the index of a recorded state
+     *
+     * @return the time of the state, in seconds
+     */
+    public double getTime(int row) {
+        return this.getValue(row, -1);
+    }
+
+    /**
+     *
+     * @param row    the index of a recorded state
+     * @param column the index of a column
+     *
+     * @return the value of the column in the state
+     */
+    public double getValue(int row, int column) {
+        ByteBuffer segment = this.segments[row / this.rowsPerSegment];
+        return segment.getDouble((row % this.rowsPerSegment) * this.rowSize + (column + 1) * Double.BYTES);
+    }
+
+    /**
+     *
+     * @param name the name of a property
+     *
+     * @return the column of the property, -1 for the time, or -2 if the property was not recorded
+     */
+    public int columnOf(String name) {
+        String[] names = this.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        if (DynamicSystem.TIME.getName().equals(name)) {
+            return -1;
+        }
+        return -2;
+    }
+
+    /**
+     *
+     * @param time a time, in seconds
+     *
+     * @return the index of the first recorded state at or after the time, or the row count if there is none
+     */
+    public int firstRowAtOrAfter(double time) {
+        int low = 0;
+        int high = this.rowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.getTime(mid) < time) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Views a column in place, without copying any values.
+     *
+     * @param property a recorded property
+     *
+     * @return a view of the values of the property
+     */
+    public TrajectoryColumn column(SystemProperty property) {
+        return new TrajectoryColumn(this, this.requireColumn(property), 0, this.rowCount);
+    }
+
+    /**
+     * Views the part of a column within a time window in place, without copying any values.
+     *
+     * @param property a recorded property
+     * @param t0       the start of the window, in seconds
+     * @param t1       the end of the window, in seconds
+     *
+     * @return a view of the values of the property in all recorded states with t0 &lt;= time &lt;= t1
+     */
+    public TrajectoryColumn column(SystemProperty property, double t0, double t1) {
+        int column = this.requireColumn(property);
+        int first = this.firstRowAtOrAfter(t0);
+        int end = Math.max(first, this.firstRowAtOrAfter(Math.nextUp(t1)));
+        return new TrajectoryColumn(this, column, first, end);
+    }
+
+    @Override
+    public double[][] read(SystemProperty[] properties, double t0, double t1) {
+        int[] columns = new int[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            columns[i] = this.requireColumn(properties[i]);
+        }
+
+        int first = this.firstRowAtOrAfter(t0);
+        int end = Math.max(first, this.firstRowAtOrAfter(Math.nextUp(t1)));
+        double[][] values = new double[properties.length][end - first];
+        for (int row = first; row < end; row++) {
+            for (int i = 0; i < columns.length; i++) {
+                values[i][row - first] = this.getValue(row, columns[i]);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void close() {
+        // Mapped buffers are released by the garbage collector
+    }
+
+
+    // Private Methods
+    private int requireColumn(SystemProperty property) {
+        int column = this.columnOf(property.getName());
+        if (column < -1) {
+            throw new IllegalArgumentException("The property " + property.getName() + " was not recorded.");
+        }
+        return column;
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.trajectory;
+
+import dynamics.DynamicSystem;
+import dynamics.SystemProperty;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the text recordings written by a {@link dynamics.analysis.simulation.FileRecorder}.
+ *
+ * The first time a recording is opened, it is scanned once to build a sparse index holding the time and file offset of
+ * every {@link #INDEX_INTERVAL}th row. The index is stored next to the recording, so later readers load it instead of
+ * scanning again. Reading a time window then only parses the rows between the nearest index entry and the end of the
+ * window. Values are returned as written, so angles are in degrees. Any lines after the recorded rows, such as the
+ * summary written by a {@link dynamics.analysis.simulation.PitchOverRecorder}, are ignored.
+ *
+ * @author Nathan Templon
+ */
+public class CsvTrajectoryReader implements TrajectoryReader {
+
+    // Constants
+    public static final int INDEX_INTERVAL = 1024;
+    public static final String INDEX_EXTENSION = ".idx";
+
+    private static final int INDEX_MAGIC = 0x4E465449; // "NFTI"
+
+
+    // Fields
+    private final File file;
+    private final String[] names;
+    private final int timeColumn;
+
+    private int rowCount;
+    private double endTime;
+    private double[] indexTimes;
+    private long[] indexOffsets;
+
+
+    // Properties
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     *
+     * @return the file the index of the recording is stored in
+     */
+    public File getIndexFile() {
+        return new File(this.file.getPath() + INDEX_EXTENSION);
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return this.names;
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    @Override
+    public double getStartTime() {
+        return this.rowCount > 0 ? this.indexTimes[0] : Double.NaN;
+    }
+
+    @Override
+    public double getEndTime() {
+        return this.rowCount > 0 ? this.endTime : Double.NaN;
+    }
+
+
+    // Initialization
+    /**
+     * Opens a recording, loading its index or building it if there is no up to date index.
+     *
+     * @param file the recording
+     *
+     * @throws IOException if the recording cannot be read, or has no time column
+     */
+    public CsvTrajectoryReader(File file) throws IOException {
+        this.file = file;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            this.names = line == null ? new String[0] : line.split(",", -1);
+        }
+        this.timeColumn = Arrays.asList(this.names).indexOf(DynamicSystem.TIME.getName());
+        if (this.timeColumn < 0) {
+            throw new IOException("The recording " + file + " has no time column.");
+        }
+
+        if (!this.loadIndex()) {
+            this.buildIndex();
+            this.saveIndex();
+        }
+    }
+
+
+    // Public Methods
+    @Override
+    public double[][] read(SystemProperty[] properties, double t0, double t1) throws IOException {
+        int[] columns = new int[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            columns[i] = Arrays.asList(this.names).indexOf(properties[i].getName());
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("The property " + properties[i].getName() + " was not recorded.");
+            }
+        }
+
+        List<double[]> rows = new ArrayList<>();
+        if (this.rowCount > 0 && t0 <= this.endTime) {
+            // Start from the last index entry at or before the start of the window
+            int entry = Arrays.binarySearch(this.indexTimes, t0);
+            if (entry < 0) {
+                entry = Math.max(0, -entry - 2);
+            }
+            while (entry > 0 && this.indexTimes[entry - 1] == t0) {
+                entry--;
+            }
+
+            try (RandomAccessFile raf = new RandomAccessFile(this.file, "r")) {
+                raf.seek(this.indexOffsets[entry]);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        Channels.newInputStream(raf.getChannel()), StandardCharsets.UTF_8));
+
+                String[] fields = new String[this.names.length];
+                String line;
+                while ((line = reader.readLine()) != null && split(line, fields)) {
+                    double time = parse(fields[this.timeColumn]);
+                    if (Double.isNaN(time) || time > t1) {
+                        break;
+                    }
+                    if (time >= t0) {
+                        double[] row = new double[columns.length];
+                        for (int i = 0; i < columns.length; i++) {
+                            row[i] = parse(fields[columns[i]]);
+                        }
+                        rows.add(row);
+                    }
+                }
+            }
+        }
+
+        double[][] values = new double[properties.length][rows.size()];
+        for (int row = 0; row < rows.size(); row++) {
+            for (int i = 0; i < properties.length; i++) {
+                values[i][row] = rows.get(row)[i];
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void close() {
+        // Files are only held open while reading
+    }
+
+
+    // Private Methods
+    private void buildIndex() throws IOException {
+        List<Double> times = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        this.rowCount = 0;
+        this.endTime = Double.NaN;
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(this.file))) {
+            StringBuilder line = new StringBuilder();
+            String[] fields = new String[this.names.length];
+
+            // Skip the header line
+            long offset = readLine(in, line);
+            while (offset >= 0) {
+                int length = readLine(in, line);
+                if (length < 0 || !split(line.toString(), fields)) {
+                    break;
+                }
+                double time = parse(fields[this.timeColumn]);
+                if (Double.isNaN(time)) {
+                    break;
+                }
+
+                if (this.rowCount % INDEX_INTERVAL == 0) {
+                    times.add(time);
+                    offsets.add(offset);
+                }
+                this.rowCount++;
+                this.endTime = time;
+                offset += length;
+            }
+        }
+
+        this.indexTimes = new double[times.size()];
+        this.indexOffsets = new long[offsets.size()];
+        for (int i = 0; i < this.indexTimes.length; i++) {
+            this.indexTimes[i] = times.get(i);
+            this.indexOffsets[i] = offsets.get(i);
+        }
+    }
+
+    private boolean loadIndex() {
+        File indexFile = this.getIndexFile();
+        if (!indexFile.exists()) {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readLong() != this.file.length()
+                    || in.readLong() != this.file.lastModified() || in.readInt() != INDEX_INTERVAL) {
+                return false;
+            }
+
+            this.rowCount = in.readInt();
+            this.endTime = in.readDouble();
+            int entries = in.readInt();
+            this.indexTimes = new double[entries];
+            this.indexOffsets = new long[entries];
+            for (int i = 0; i < entries; i++) {
+                this.indexTimes[i] = in.readDouble();
+                this.indexOffsets[i] = in.readLong();
+            }
+            return true;
+        }
+        catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private void saveIndex() {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(this.getIndexFile())))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeLong(this.file.length());
+            out.writeLong(this.file.lastModified());
+            out.writeInt(INDEX_INTERVAL);
+            out.writeInt(this.rowCount);
+            out.writeDouble(this.endTime);
+            out.writeInt(this.indexTimes.length);
+            for (int i = 0; i < this.indexTimes.length; i++) {
+                out.writeDouble(this.indexTimes[i]);
+                out.writeLong(this.indexOffsets[i]);
+            }
+        }
+        catch (IOException ex) {
+            // The index is only a cache - it will be rebuilt next time
+        }
+    }
+
+
+    // Private Static Methods
+    /**
+     * Reads a line of ASCII text, without its line terminator.
+     *
+     * @return the number of bytes consumed, including the line terminator, or -1 at the end of the stream
+     */
+    private static int readLine(InputStream in, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int length = 0;
+        int next;
+        while ((next = in.read()) >= 0) {
+            length++;
+            if (next == '\n') {
+                break;
+            }
+            if (next != '\r') {
+                line.append((char) next);
+            }
+        }
+        return length == 0 ? -1 : length;
+    }
+
+    /**
+     * Splits a line into exactly as many fields as there are columns.
+     *
+     * @return false if the line does not have the right number of fields
+     */
+    private static boolean split(String line, String[] fields) {
+        int start = 0;
+        for (int i = 0; i < fields.length; i++) {
+            int end = line.indexOf(',', start);
+            if (end < 0) {
+                if (i != fields.length - 1) {
+                    return false;
+                }
+                end = line.length();
+            }
+            else if (i == fields.length - 1) {
+                return false;
+            }
+            fields[i] = line.substring(start, end);
+            start = end + 1;
+        }
+        return true;
+    }
+
+    private static double parse(String field) {
+        try {
+            return Double.parseDouble(field);
+        }
+        catch (NumberFormatException ex) {
+            return Double.NaN;
+        }
+    }
+
+}
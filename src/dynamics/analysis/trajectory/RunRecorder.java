@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.trajectory;
+
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+import dynamics.analysis.simulation.BinaryTrajectoryFormat;
+import dynamics.analysis.simulation.SampleRecorder;
+import dynamics.analysis.simulation.StatisticsRecorder;
+import dynamics.analysis.simulation.StatisticsRecorder.Statistic;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records a single run into a {@link RunStore}. The trajectory is kept in memory during the simulation and appended to
+ * the store, together with the outcome scalars of the run, when the simulation finishes. Use a
+ * {@link dynamics.analysis.simulation.FanOutRecorder} with a recording policy to limit the size of long runs.
+ *
+ * @author Nathan Templon
+ */
+public class RunRecorder extends SampleRecorder {
+
+    // Fields
+    private final RunStore store;
+    private final String name;
+    private final long seed;
+    private final Map<String, Double> parameters;
+
+    private final List<Outcome> outcomes = new ArrayList<>();
+    private final Map<String, Double> fixedOutcomes = new LinkedHashMap<>();
+    private final StatisticsRecorder statistics;
+
+    private ByteArrayOutputStream bytes;
+    private DataOutputStream out;
+    private boolean writtenHeader;
+    private RunSummary summary;
+    private IOException failure;
+
+
+    // Properties
+    /**
+     *
+     * @return the summary of the stored run, or null if the run has not been stored
+     */
+    public RunSummary getSummary() {
+        return this.summary;
+    }
+
+    /**
+     *
+     * @return the error that prevented the run from being stored, or null if there was none
+     */
+    public IOException getFailure() {
+        return this.failure;
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param store              the store to append the run to
+     * @param name               the name of the run
+     * @param seed               the random seed of the run
+     * @param parameters         the input parameters of the run
+     * @param recordedProperties the properties to record in the trajectory of the run
+     */
+    public RunRecorder(RunStore store, String name, long seed, Map<String, Double> parameters,
+            SystemProperty[] recordedProperties) {
+        super(recordedProperties);
+        this.store = store;
+        this.name = name;
+        this.seed = seed;
+        this.parameters = new LinkedHashMap<>(parameters);
+        this.statistics = new StatisticsRecorder(recordedProperties);
+    }
+
+
+    // Public Methods
+    /**
+     * Adds an outcome computed from a recorded property, such as the maximum altitude.
+     *
+     * @param outcomeName the name of the outcome in the store
+     * @param property    a recorded property
+     * @param statistic   the statistic of the property to store
+     */
+    public void addOutcome(String outcomeName, SystemProperty property, Statistic statistic) {
+        this.outcomes.add(new Outcome(outcomeName, property, statistic));
+    }
+
+    /**
+     * Sets an outcome computed outside of the recorder. Must be called before the simulation finishes.
+     *
+     * @param outcomeName the name of the outcome in the store
+     * @param value       the value of the outcome
+     */
+    public void setOutcome(String outcomeName, double value) {
+        this.fixedOutcomes.put(outcomeName, value);
+    }
+
+
+    // SampleRecorder Implementation
+    @Override
+    public void start() {
+        this.bytes = new ByteArrayOutputStream();
+        this.out = new DataOutputStream(this.bytes);
+        this.writtenHeader = false;
+        this.summary = null;
+        this.failure = null;
+        this.statistics.start();
+    }
+
+    @Override
+    public void record(SystemState state, double[] values) {
+        try {
+            if (!this.writtenHeader) {
+                this.writeHeader(state);
+            }
+            BinaryTrajectoryFormat.writeRow(this.out, state.getTime(), values);
+        }
+        catch (IOException ex) {
+            // Writes to memory do not fail
+        }
+        this.statistics.record(state, values);
+    }
+
+    @Override
+    public void finish() {
+        try {
+            if (!this.writtenHeader) {
+                this.writeHeader(null);
+            }
+            this.out.flush();
+
+            Map<String, Double> outcomeValues = new LinkedHashMap<>();
+            for (Outcome outcome : this.outcomes) {
+                outcomeValues.put(outcome.name, this.statistics.get(outcome.property, outcome.statistic));
+            }
+            outcomeValues.putAll(this.fixedOutcomes);
+
+            this.summary = this.store.append(this.name, this.seed, this.parameters, outcomeValues,
+                    this.bytes.toByteArray());
+        }
+        catch (IOException ex) {
+            this.failure = ex;
+        }
+        this.bytes = null;
+        this.out = null;
+    }
+
+
+    // Private Methods
+    private void writeHeader(SystemState state) throws IOException {
+        SystemProperty[] properties = this.getRecordedProperties();
+        BinaryTrajectoryFormat.writeHeader(this.out, properties, BinaryTrajectoryFormat.kindsOf(state, properties));
+        this.writtenHeader = true;
+    }
+
+
+    // Nested Classes
+    private static class Outcome {
+
+        // Fields
+        private final String name;
+        private final SystemProperty property;
+        private final Statistic statistic;
+
+
+        // Initialization
+        private Outcome(String name, SystemProperty property, Statistic statistic) {
+            this.name = name;
+            this.property = property;
+            this.statistic = statistic;
+        }
+
+    }
+
+}
@@ -0,0 +1,482 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.trajectory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Stores many runs, such as the cases of a Monte Carlo dispersion study, in a single append-only file.
+ *
+ * Each run is stored as a block holding its {@link RunSummary} followed by its trajectory in the
+ * {@link dynamics.analysis.simulation.BinaryTrajectoryFormat}. When the store is closed, an index of all run summaries
+ * is written to the end of the file, so that queries over parameters and outcomes only have to read the index. If a
+ * store was not closed properly, its index is rebuilt from the blocks the next time it is opened. A run whose write
+ * failed leaves its region of the file marked as skipped, and any other region that does not hold a complete block,
+ * such as one left by a crash, is stepped over, so the runs after it are still recovered.
+ *
+ * Runs can be appended from several threads at once. Each append reserves its region of the file atomically and then
+ * writes it independently, so appends never wait on each other.
+ *
+ * @author Nathan Templon
+ */
+public class RunStore implements AutoCloseable {
+
+    // Constants
+    private static final int MAGIC = 0x4E465253; // "NFRS"
+    private static final int VERSION = 1;
+    private static final int BLOCK_MAGIC = 0x4E465242; // "NFRB"
+    private static final int INDEX_MAGIC = 0x4E465249; // "NFRI"
+    private static final int SKIP_MAGIC = 0x4E465258; // "NFRX"
+
+    private static final int FILE_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int SKIP_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int SEARCH_CHUNK_SIZE = 1 << 16;
+
+
+    // Fields
+    private final File file;
+    private final FileChannel channel;
+    private final boolean writable;
+
+    private final AtomicLong end;
+    private final AtomicInteger nextId;
+    private final ConcurrentLinkedQueue<RunSummary> runs = new ConcurrentLinkedQueue<>();
+
+    private boolean closed = false;
+
+
+    // Properties
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     *
+     * @return the summaries of all runs in the store, ordered by id
+     */
+    public List<RunSummary> getRuns() {
+        List<RunSummary> result = new ArrayList<>(this.runs);
+        result.sort(Comparator.comparingInt(RunSummary::getId));
+        return result;
+    }
+
+
+    // Initialization
+    private RunStore(File file, boolean writable) throws IOException {
+        this.file = file;
+        this.writable = writable;
+
+        if (writable) {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+        else {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+
+        long dataEnd;
+        try {
+            if (this.channel.size() == 0 && writable) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                this.write(header, 0);
+                dataEnd = FILE_HEADER_SIZE;
+            }
+            else {
+                this.checkFileHeader();
+                dataEnd = this.readIndex();
+                if (dataEnd < 0) {
+                    dataEnd = this.scanBlocks();
+                }
+                if (writable) {
+                    // New runs replace the old index, which is rewritten on close
+                    this.channel.truncate(dataEnd);
+                }
+            }
+        }
+        catch (IOException ex) {
+            this.channel.close();
+            throw ex;
+        }
+
+        this.end = new AtomicLong(dataEnd);
+        int maxId = -1;
+        for (RunSummary run : this.runs) {
+            maxId = Math.max(maxId, run.getId());
+        }
+        this.nextId = new AtomicInteger(maxId + 1);
+    }
+
+    /**
+     * Opens a store for appending runs, creating it if it does not exist.
+     *
+     * @param file the store
+     *
+     * @return the opened store
+     *
+     * @throws IOException if the file cannot be opened or is not a run store
+     */
+    public static RunStore open(File file) throws IOException {
+        return new RunStore(file, true);
+    }
+
+    /**
+     * Opens an existing store for reading only.
+     *
+     * @param file the store
+     *
+     * @return the opened store
+     *
+     * @throws IOException if the file cannot be opened or is not a run store
+     */
+    public static RunStore openForReading(File file) throws IOException {
+        return new RunStore(file, false);
+    }
+
+
+    // Public Methods
+    /**
+     * Appends a run to the store. May be called from several threads at once.
+     *
+     * @param name       the name of the run
+     * @param seed       the random seed of the run
+     * @param parameters the input parameters of the run
+     * @param outcomes   the outcome scalars of the run
+     * @param trajectory the trajectory of the run, in the binary trajectory format
+     *
+     * @return the summary of the stored run
+     *
+     * @throws IOException if the run cannot be written
+     */
+    public RunSummary append(String name, long seed, Map<String, Double> parameters, Map<String, Double> outcomes,
+            byte[] trajectory) throws IOException {
+        if (!this.writable || this.closed) {
+            throw new IOException("The run store " + this.file + " is not open for writing.");
+        }
+
+        RunSummary summary = new RunSummary(this.nextId.getAndIncrement(), name, seed, parameters, outcomes);
+
+        ByteArrayOutputStream summaryBytes = new ByteArrayOutputStream();
+        summary.write(new DataOutputStream(summaryBytes));
+
+        int blockHeaderSize = Integer.BYTES + Integer.BYTES + summaryBytes.size() + Long.BYTES;
+        ByteBuffer block = ByteBuffer.allocate(blockHeaderSize + trajectory.length);
+        block.putInt(BLOCK_MAGIC);
+        block.putInt(summaryBytes.size());
+        block.put(summaryBytes.toByteArray());
+        block.putLong(trajectory.length);
+        block.put(trajectory);
+        block.flip();
+
+        // Reserving the region is the only point of contention between writers
+        int length = block.remaining();
+        long position = this.end.getAndAdd(length);
+        try {
+            this.write(block, position);
+        }
+        catch (IOException ex) {
+            this.markSkipped(position, length, ex);
+            throw ex;
+        }
+
+        summary.setTrajectory(position + blockHeaderSize, trajectory.length);
+        this.runs.add(summary);
+        return summary;
+    }
+
+    /**
+     * Finds runs using only the index.
+     *
+     * @param filter the condition the runs must meet
+     *
+     * @return the summaries of the matching runs, ordered by id
+     */
+    public List<RunSummary> query(Predicate<RunSummary> filter) {
+        return this.getRuns().stream().filter(filter).collect(Collectors.toList());
+    }
+
+    /**
+     * Opens the trajectory of a run. The trajectory is mapped rather than read.
+     *
+     * @param run a run in this store
+     *
+     * @return a reader for the trajectory of the run
+     *
+     * @throws IOException if the trajectory cannot be read
+     */
+    public BinaryTrajectoryReader openTrajectory(RunSummary run) throws IOException {
+        return new BinaryTrajectoryReader(this.channel.map(FileChannel.MapMode.READ_ONLY, run.getTrajectoryOffset(),
+                run.getTrajectoryLength()));
+    }
+
+    /**
+     * Writes the index and closes the store. Must not be called while runs are being appended.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+
+        try {
+            if (this.writable) {
+                this.writeIndex();
+            }
+        }
+        finally {
+            this.channel.close();
+        }
+    }
+
+
+    // Private Methods
+    private void checkFileHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        this.read(header, 0);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("The file " + this.file + " is not a run store.");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported run store version " + version + ".");
+        }
+    }
+
+    /**
+     * Loads the index at the end of the file.
+     *
+     * @return the position of the index, which is also the end of the run data, or -1 if there is no valid index
+     */
+    private long readIndex() throws IOException {
+        long size = this.channel.size();
+        if (size < FILE_HEADER_SIZE + TRAILER_SIZE) {
+            return -1;
+        }
+
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+        this.read(trailer, size - TRAILER_SIZE);
+        long indexOffset = trailer.getLong();
+        if (trailer.getInt() != INDEX_MAGIC || indexOffset < FILE_HEADER_SIZE || indexOffset > size - TRAILER_SIZE) {
+            return -1;
+        }
+
+        this.channel.position(indexOffset);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(this.channel)));
+        try {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long offset = in.readLong();
+                long length = in.readLong();
+                RunSummary run = RunSummary.read(in);
+                run.setTrajectory(offset, length);
+                this.runs.add(run);
+            }
+        }
+        catch (IOException ex) {
+            this.runs.clear();
+            return -1;
+        }
+        return indexOffset;
+    }
+
+    /**
+     * Rebuilds the index by walking the blocks of the file. Skipped regions are stepped over, and anything else that is
+     * not a complete block is searched past for the next one, so a hole left by a failed write does not hide the runs
+     * after it. Anything after the last complete block is dropped.
+     *
+     * @return the end of the last complete block
+     */
+    private long scanBlocks() throws IOException {
+        long size = this.channel.size();
+        long position = FILE_HEADER_SIZE;
+        long dataEnd = position;
+        this.runs.clear();
+
+        while (position < size) {
+            long next = this.readBlock(position, size);
+            if (next < 0) {
+                position = this.findBlock(position + 1, size);
+            }
+            else {
+                position = next;
+                dataEnd = next;
+            }
+        }
+        return dataEnd;
+    }
+
+    /**
+     * Reads the block or skipped region at a position, adding the run of a block.
+     *
+     * @return the end of the block or region, or -1 if there is no complete block or region at the position
+     */
+    private long readBlock(long position, long size) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(2 * Integer.BYTES);
+        if (position + prefix.capacity() > size) {
+            return -1;
+        }
+        this.read(prefix, position);
+        int magic = prefix.getInt();
+
+        if (magic == SKIP_MAGIC) {
+            if (position + SKIP_SIZE > size) {
+                return -1;
+            }
+            ByteBuffer skip = ByteBuffer.allocate(Long.BYTES);
+            this.read(skip, position + Integer.BYTES);
+            long length = skip.getLong();
+            return length >= SKIP_SIZE && position + length <= size ? position + length : -1;
+        }
+        if (magic != BLOCK_MAGIC) {
+            return -1;
+        }
+
+        int summaryLength = prefix.getInt();
+        long trajectoryStart = position + prefix.capacity() + summaryLength + Long.BYTES;
+        if (summaryLength < 0 || trajectoryStart > size) {
+            return -1;
+        }
+
+        ByteBuffer summaryBytes = ByteBuffer.allocate(summaryLength + Long.BYTES);
+        this.read(summaryBytes, position + prefix.capacity());
+        RunSummary run;
+        try {
+            run = RunSummary.read(new DataInputStream(new ByteArrayInputStream(summaryBytes.array(), 0,
+                    summaryLength)));
+        }
+        catch (IOException ex) {
+            return -1;
+        }
+        summaryBytes.position(summaryLength);
+        long trajectoryLength = summaryBytes.getLong();
+        if (trajectoryLength < 0 || trajectoryStart + trajectoryLength > size) {
+            return -1;
+        }
+
+        run.setTrajectory(trajectoryStart, trajectoryLength);
+        this.runs.add(run);
+        return trajectoryStart + trajectoryLength;
+    }
+
+    /**
+     *
+     * @return the first position at or after a position that starts with the magic number of a block or skipped region,
+     *         or the size of the file if there is none
+     */
+    private long findBlock(long from, long size) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(SEARCH_CHUNK_SIZE);
+        long start = from;
+        while (start + Integer.BYTES <= size) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), size - start));
+            this.read(chunk, start);
+            for (int i = 0; i + Integer.BYTES <= chunk.limit(); i++) {
+                int magic = chunk.getInt(i);
+                if (magic == BLOCK_MAGIC || magic == SKIP_MAGIC) {
+                    return start + i;
+                }
+            }
+            // Overlap the chunks so that a magic number split between them is still found
+            start += chunk.limit() - (Integer.BYTES - 1);
+        }
+        return size;
+    }
+
+    /**
+     * Marks the region reserved by a failed append as skipped, so that recovering the index steps over it.
+     */
+    private void markSkipped(long position, int length, IOException failure) {
+        ByteBuffer skip = ByteBuffer.allocate(SKIP_SIZE);
+        skip.putInt(SKIP_MAGIC).putLong(length).flip();
+        try {
+            this.write(skip, position);
+        }
+        catch (IOException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        long indexOffset = this.end.get();
+
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(indexBytes);
+        List<RunSummary> summaries = this.getRuns();
+        out.writeInt(summaries.size());
+        for (RunSummary run : summaries) {
+            out.writeLong(run.getTrajectoryOffset());
+            out.writeLong(run.getTrajectoryLength());
+            run.write(out);
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(INDEX_MAGIC);
+        out.flush();
+
+        this.write(ByteBuffer.wrap(indexBytes.toByteArray()), indexOffset);
+        this.channel.truncate(indexOffset + indexBytes.size());
+        this.channel.force(true);
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += this.channel.write(buffer, position);
+        }
+    }
+
+    private void read(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = this.channel.read(buffer, position);
+            if (count < 0) {
+                throw new EOFException("Unexpected end of the run store " + this.file + ".");
+            }
+            position += count;
+        }
+        buffer.flip();
+    }
+
+}
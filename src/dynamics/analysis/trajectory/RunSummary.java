@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.trajectory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The index entry of a single run in a {@link RunStore}: its parameters, random seed and outcome scalars, along with
+ * the location of its trajectory in the store.
+ *
+ * @author Nathan Templon
+ */
+public class RunSummary {
+
+    // Fields
+    private final int id;
+    private final String name;
+    private final long seed;
+    private final Map<String, Double> parameters;
+    private final Map<String, Double> outcomes;
+
+    private long trajectoryOffset;
+    private long trajectoryLength;
+
+
+    // Properties
+    /**
+     *
+     * @return the identifier of the run, unique within its store
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public Map<String, Double> getParameters() {
+        return this.parameters;
+    }
+
+    public Map<String, Double> getOutcomes() {
+        return this.outcomes;
+    }
+
+    /**
+     *
+     * @param name the name of a parameter
+     *
+     * @return the value of the parameter, or NaN if the run does not have it
+     */
+    public double getParameter(String name) {
+        Double value = this.parameters.get(name);
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     *
+     * @param name the name of an outcome
+     *
+     * @return the value of the outcome, or NaN if the run does not have it
+     */
+    public double getOutcome(String name) {
+        Double value = this.outcomes.get(name);
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     *
+     * @return the position of the trajectory of the run in its store, in bytes
+     */
+    long getTrajectoryOffset() {
+        return this.trajectoryOffset;
+    }
+
+    /**
+     *
+     * @return the length of the trajectory of the run, in bytes
+     */
+    long getTrajectoryLength() {
+        return this.trajectoryLength;
+    }
+
+    void setTrajectory(long offset, long length) {
+        this.trajectoryOffset = offset;
+        this.trajectoryLength = length;
+    }
+
+
+    // Initialization
+    public RunSummary(int id, String name, long seed, Map<String, Double> parameters, Map<String, Double> outcomes) {
+        this.id = id;
+        this.name = name;
+        this.seed = seed;
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+        this.outcomes = Collections.unmodifiableMap(new LinkedHashMap<>(outcomes));
+    }
+
+
+    // Public Methods
+    @Override
+    public String toString() {
+        return this.name + " (" + this.id + ")";
+    }
+
+
+    // Package Methods
+    void write(DataOutput out) throws IOException {
+        out.writeInt(this.id);
+        out.writeUTF(this.name);
+        out.writeLong(this.seed);
+        writeMap(out, this.parameters);
+        writeMap(out, this.outcomes);
+    }
+
+    static RunSummary read(DataInput in) throws IOException {
+        int id = in.readInt();
+        String name = in.readUTF();
+        long seed = in.readLong();
+        Map<String, Double> parameters = readMap(in);
+        Map<String, Double> outcomes = readMap(in);
+        return new RunSummary(id, name, seed, parameters, outcomes);
+    }
+
+
+    // Private Static Methods
+    private static void writeMap(DataOutput out, Map<String, Double> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Double> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeDouble(entry.getValue());
+        }
+    }
+
+    private static Map<String, Double> readMap(DataInput in) throws IOException {
+        int size = in.readInt();
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = in.readUTF();
+            map.put(key, in.readDouble());
+        }
+        return map;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.trajectory;
+
+/**
+ * A view of part of a column of a {@link BinaryTrajectoryReader}. Values are read from the mapped recording on access
+ * rather than copied.
+ *
+ * @author Nathan Templon
+ */
+public class TrajectoryColumn {
+
+    // Fields
+    private final BinaryTrajectoryReader reader;
+    private final int column;
+    private final int firstRow;
+    private final int endRow;
+
+
+    // Properties
+    public int size() {
+        return this.endRow - this.firstRow;
+    }
+
+
+    // Initialization
+    TrajectoryColumn(BinaryTrajectoryReader reader, int column, int firstRow, int endRow) {
+        this.reader = reader;
+        this.column = column;
+        this.firstRow = firstRow;
+        this.endRow = endRow;
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param index the index within the view
+     *
+     * @return the value at the index
+     */
+    public double get(int index) {
+        if (index < 0 || index >= this.size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside of a column of size " + this.size()
+                    + ".");
+        }
+        return this.reader.getValue(this.firstRow + index, this.column);
+    }
+
+    /**
+     *
+     * @param index the index within the view
+     *
+     * @return the time of the state at the index, in seconds
+     */
+    public double getTime(int index) {
+        if (index < 0 || index >= this.size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside of a column of size " + this.size()
+                    + ".");
+        }
+        return this.reader.getTime(this.firstRow + index);
+    }
+
+    /**
+     *
+     * @return a copy of the values in the view
+     */
+    public double[] toArray() {
+        double[] values = new double[this.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.reader.getValue(this.firstRow + i, this.column);
+        }
+        return values;
+    }
+
+}
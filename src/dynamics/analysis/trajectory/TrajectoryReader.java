@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.trajectory;
+
+import dynamics.SystemProperty;
+import dynamics.analysis.simulation.BinaryTrajectoryFormat;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Reads time windows of recorded trajectories without loading the whole recording.
+ *
+ * @author Nathan Templon
+ */
+public interface TrajectoryReader extends AutoCloseable {
+
+    // Properties
+    /**
+     *
+     * @return the names of the recorded properties, in column order
+     */
+    String[] getPropertyNames();
+
+    /**
+     *
+     * @return the number of recorded states
+     */
+    int getRowCount();
+
+    /**
+     *
+     * @return the time of the first recorded state, or NaN if there are none
+     */
+    double getStartTime();
+
+    /**
+     *
+     * @return the time of the last recorded state, or NaN if there are none
+     */
+    double getEndTime();
+
+
+    // Public Methods
+    /**
+     * Reads the values of several properties in a time window. The time itself can be read through
+     * {@link dynamics.DynamicSystem#TIME}.
+     *
+     * @param properties the properties to read
+     * @param t0         the start of the window, in seconds
+     * @param t1         the end of the window, in seconds
+     *
+     * @return one array per property, holding its values in all recorded states with t0 &lt;= time &lt;= t1
+     *
+     * @throws IOException if the recording cannot be read
+     */
+    double[][] read(SystemProperty[] properties, double t0, double t1) throws IOException;
+
+    /**
+     * Reads the values of a property in a time window.
+     *
+     * @param property the property to read
+     * @param t0       the start of the window, in seconds
+     * @param t1       the end of the window, in seconds
+     *
+     * @return the values of the property in all recorded states with t0 &lt;= time &lt;= t1
+     *
+     * @throws IOException if the recording cannot be read
+     */
+    default double[] read(SystemProperty property, double t0, double t1) throws IOException {
+        return this.read(new SystemProperty[]{property}, t0, t1)[0];
+    }
+
+    @Override
+    void close() throws IOException;
+
+
+    // Static Methods
+    /**
+     * Opens a recording written by either a {@link dynamics.analysis.simulation.BinaryFileRecorder} or a
+     * {@link dynamics.analysis.simulation.FileRecorder}.
+     *
+     * @param file the recording
+     *
+     * @return a reader for the recording
+     *
+     * @throws IOException if the recording cannot be read
+     */
+    static TrajectoryReader open(File file) throws IOException {
+        boolean binary;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            binary = file.length() >= Integer.BYTES && in.readInt() == BinaryTrajectoryFormat.MAGIC;
+        }
+
+        if (binary) {
+            return BinaryTrajectoryReader.open(file);
+        }
+        return new CsvTrajectoryReader(file);
+    }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dynamics.analysis.trajectory;
+
+import com.jupiter.ganymede.math.geometry.Angle;
+import com.jupiter.ganymede.math.vector.Vector;
+import dynamics.AerodynamicSystem;
+import dynamics.DynamicSystem.StateUpdatedEventArgs;
+import dynamics.StateVariable;
+import dynamics.SystemProperty;
+import dynamics.SystemState;
+import dynamics.analysis.simulation.BinaryTrajectoryFormat;
+import dynamics.analysis.simulation.SimulationRecorder;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Replays a recorded trajectory through {@link SimulationRecorder}s, as if the simulation were being run again. This
+ * allows new outputs to be computed from existing recordings at the speed of reading them.
+ *
+ * Recorded columns are matched to properties by name. Angles are restored as {@link Angle}s, and the state vector is
+ * restored if all of its variables were recorded. Recorders can only use properties that were recorded.
+ *
+ * @author Nathan Templon
+ */
+public class TrajectoryReplay {
+
+    // Fields
+    private final BinaryTrajectoryReader reader;
+    private final SystemProperty[] columnProperties;
+    private final int[] vectorColumns;
+
+
+    // Initialization
+    /**
+     * Creates a replay that matches the recorded columns to the properties of an {@link AerodynamicSystem}.
+     *
+     * @param reader the recorded trajectory
+     */
+    public TrajectoryReplay(BinaryTrajectoryReader reader) {
+        this(reader, systemProperties());
+    }
+
+    /**
+     *
+     * @param reader     the recorded trajectory
+     * @param properties the properties to match the recorded columns to. Columns that match none of them are replayed
+     *                   under new properties with the same name.
+     */
+    public TrajectoryReplay(BinaryTrajectoryReader reader, SystemProperty[] properties) {
+        this.reader = reader;
+
+        Map<String, SystemProperty> byName = new HashMap<>();
+        for (SystemProperty property : properties) {
+            byName.putIfAbsent(property.getName(), property);
+        }
+
+        String[] names = reader.getPropertyNames();
+        this.columnProperties = new SystemProperty[names.length];
+        for (int i = 0; i < names.length; i++) {
+            SystemProperty property = byName.get(names[i]);
+            this.columnProperties[i] = property != null ? property : new StateVariable<>(names[i]);
+        }
+
+        int[] columns = new int[AerodynamicSystem.VECTOR_VARIABLES.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = reader.columnOf(AerodynamicSystem.VECTOR_VARIABLES[i].getName());
+            if (columns[i] < 0) {
+                columns = null;
+                break;
+            }
+        }
+        this.vectorColumns = columns;
+    }
+
+
+    // Public Methods
+    /**
+     * Replays the whole trajectory.
+     *
+     * @param recorders the recorders to pass the states to
+     */
+    public void replay(SimulationRecorder... recorders) {
+        this.replay(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, recorders);
+    }
+
+    /**
+     * Replays the part of the trajectory within a time window.
+     *
+     * @param t0        the start of the window, in seconds
+     * @param t1        the end of the window, in seconds
+     * @param recorders the recorders to pass the states to
+     */
+    public void replay(double t0, double t1, SimulationRecorder... recorders) {
+        byte[] kinds = this.reader.getKinds();
+        int first = this.reader.firstRowAtOrAfter(t0);
+        int end = Math.max(first, this.reader.firstRowAtOrAfter(Math.nextUp(t1)));
+
+        for (SimulationRecorder recorder : recorders) {
+            recorder.start();
+        }
+
+        for (int row = first; row < end; row++) {
+            Map<SystemProperty, Object> props = new LinkedHashMap<>();
+            for (int column = 0; column < this.columnProperties.length; column++) {
+                double value = this.reader.getValue(row, column);
+                if (kinds[column] == BinaryTrajectoryFormat.ANGLE) {
+                    props.put(this.columnProperties[column], new Angle(value));
+                }
+                else {
+                    props.put(this.columnProperties[column], value);
+                }
+            }
+
+            Vector stateVector = null;
+            if (this.vectorColumns != null) {
+                double[] components = new double[this.vectorColumns.length];
+                for (int i = 0; i < components.length; i++) {
+                    components[i] = this.reader.getValue(row, this.vectorColumns[i]);
+                }
+                stateVector = new Vector(components);
+            }
+
+            StateUpdatedEventArgs e = new StateUpdatedEventArgs(
+                    new SystemState(this.reader.getTime(row), stateVector, props));
+            for (SimulationRecorder recorder : recorders) {
+                recorder.handle(e);
+            }
+        }
+
+        for (SimulationRecorder recorder : recorders) {
+            recorder.finish();
+        }
+    }
+
+
+    // Public Static Methods
+    /**
+     * Replays runs of a store, each through its own recorder.
+     *
+     * @param store           the store holding the runs
+     * @param runs            the runs to replay
+     * @param recorderFactory creates the recorder for each run
+     *
+     * @throws IOException if a trajectory cannot be read
+     */
+    public static void replay(RunStore store, List<RunSummary> runs,
+            Function<RunSummary, SimulationRecorder> recorderFactory) throws IOException {
+        SystemProperty[] properties = systemProperties();
+        for (RunSummary run : runs) {
+            new TrajectoryReplay(store.openTrajectory(run), properties).replay(recorderFactory.apply(run));
+        }
+    }
+
+    /**
+     *
+     * @return the properties defined by {@link AerodynamicSystem} and its base classes
+     */
+    public static SystemProperty[] systemProperties() {
+        return Arrays.stream(AerodynamicSystem.class.getFields())
+                .filter((Field field) -> Modifier.isStatic(field.getModifiers())
+                        && SystemProperty.class.isAssignableFrom(field.getType()))
+                .map((Field field) -> {
+                    try {
+                        return (SystemProperty) field.get(null);
+                    }
+                    catch (IllegalAccessException ex) {
+                        return null;
+                    }
+                })
+                .filter((SystemProperty property) -> property != null)
+                .toArray(SystemProperty[]::new);
+    }
+
+}
@@ -32,4 +32,15 @@ import dynamics.SystemState;
 @FunctionalInterface
 public interface PropulsionForceModel {
     double thrust(SystemState state);
+    
+    /**
+     * Fills a sample of the propulsion system in a state. Models that know their engine should override this to
+     * report its mass and burn, ideally from a single lookup of its curves; by default only the thrust is known.
+     * 
+     * @param state  the state
+     * @param sample the sample to fill
+     */
+    default void sample(SystemState state, PropulsionSample sample) {
+        sample.set(state.getTime(), this.thrust(state), Double.NaN, 0.0, 0.0);
+    }
 }
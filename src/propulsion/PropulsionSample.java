@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package propulsion;
+
+/**
+ * The state of the propulsion system at one time: thrust, mass, the rate the mass changes, how far through its burn the
+ * engine is and how far the centre of gravity has moved because of it.
+ *
+ * A sample is filled once for each evaluation of the equations of motion, by
+ * {@link PropulsionForceModel#sample(dynamics.SystemState, PropulsionSample)}, and then read by the force, inertia and
+ * coefficient models, so none of them look up the engine curves again.
+ *
+ * @author Nathan Templon
+ */
+public class PropulsionSample {
+
+    // Fields
+    private double time;
+    private double thrust;
+    private double mass = Double.NaN;
+    private double massRate;
+    private double burnFraction;
+    private double cgShift;
+
+
+    // Properties
+    /**
+     *
+     * @return the time of the sample, in seconds
+     */
+    public double getTime() {
+        return this.time;
+    }
+
+    /**
+     *
+     * @return the thrust, in pounds
+     */
+    public double getThrust() {
+        return this.thrust;
+    }
+
+    /**
+     *
+     * @return the mass of the engine, in slugs, or NaN if the propulsion model does not know it
+     */
+    public double getMass() {
+        return this.mass;
+    }
+
+    /**
+     *
+     * @return the rate the mass of the engine changes, in slugs per second, which is negative during the burn
+     */
+    public double getMassRate() {
+        return this.massRate;
+    }
+
+    /**
+     *
+     * @return the fraction of the mass the engine loses during its burn that has been lost
+     */
+    public double getBurnFraction() {
+        return this.burnFraction;
+    }
+
+    /**
+     *
+     * @return how far the centre of gravity of the vehicle has moved forward since ignition, in feet
+     */
+    public double getCgShift() {
+        return this.cgShift;
+    }
+
+    public void setCgShift(double cgShift) {
+        this.cgShift = cgShift;
+    }
+
+
+    // Public Methods
+    /**
+     * Sets every value of the sample, with no shift of the centre of gravity.
+     *
+     * @param time         the time of the sample, in seconds
+     * @param thrust       the thrust, in pounds
+     * @param mass         the mass of the engine, in slugs, or NaN if it is not known
+     * @param massRate     the rate the mass of the engine changes, in slugs per second
+     * @param burnFraction the fraction of the mass lost during the burn that has been lost
+     */
+    public void set(double time, double thrust, double mass, double massRate, double burnFraction) {
+        this.time = time;
+        this.thrust = thrust;
+        this.mass = mass;
+        this.massRate = massRate;
+        this.burnFraction = burnFraction;
+        this.cgShift = 0.0;
+    }
+
+}
@@ -23,11 +23,20 @@
  */
 package propulsion.rocket;
 
-import com.jupiter.ganymede.math.function.FuncPoint;
 import com.jupiter.ganymede.math.function.SingleVariableRealFunction;
-import com.jupiter.ganymede.math.function.SingleVariableTableFunction;
+import java.util.stream.DoubleStream;
+import propulsion.PropulsionSample;
+import util.RealFunction;
+import util.TableFunction;
 
 /**
+ * A solid rocket engine defined by curves of thrust and mass against time.
+ *
+ * The curves are usually {@link TableFunction}s, which look up the increasing times of a simulation in constant time.
+ * The masses at ignition and burnout and the total impulse are computed once, when the engine is created, and the mass
+ * lost per unit of the total is kept so that the burn fraction is a single lookup. When both curves are tables of the
+ * same times, as they are for the built in engines and those read from engine files, a {@link PropulsionSample} finds
+ * the segment once and reads thrust, mass and mass rate from it.
  *
  * @author nathant
  */
@@ -36,229 +45,232 @@ public class HobbyRocketEngine implements SolidRocketEngine {
     // Constants
     public static final double NEWT0NS_TO_POUNDS = 0.224808943;
 
+    /**
+     * The spacing, in seconds, at which curves that are not tables are sampled when engines are clustered
+     */
+    public static final double CLUSTER_SAMPLE_INTERVAL = 0.01;
+
 //    public static final HobbyRocketEngine G78 = new HobbyRocketEngine("G78",
-//            new SingleVariableTableFunction(0.0, 1.808, new FuncPoint[]{
-//                new FuncPoint(0.0, 0.0),
-//                new FuncPoint(0.006, 0.260),
-//                new FuncPoint(0.008, 1.684),
-//                new FuncPoint(0.010, 7.589),
-//                new FuncPoint(0.012, 14.522),
-//                new FuncPoint(0.014, 14.148),
-//                new FuncPoint(0.016, 13.225),
-//                new FuncPoint(0.018, 16.841),
-//                new FuncPoint(0.020, 19.110),
-//                new FuncPoint(0.022, 20.482),
-//                new FuncPoint(0.026, 21.130),
-//                new FuncPoint(0.028, 22.128),
-//                new FuncPoint(0.032, 21.953),
-//                new FuncPoint(0.038, 22.975),
-//                new FuncPoint(0.074, 21.878),
-//                new FuncPoint(0.124, 21.454),
-//                new FuncPoint(0.376, 22.327),
-//                new FuncPoint(0.680, 22.352),
-//                new FuncPoint(0.994, 20.606),
-//                new FuncPoint(1.246, 18.661),
-//                new FuncPoint(1.282, 13.923),
-//                new FuncPoint(1.316, 13.923),
-//                new FuncPoint(1.360, 10.033),
-//                new FuncPoint(1.424, 6.542),
-//                new FuncPoint(1.504, 4.771),
-//                new FuncPoint(1.598, 4.347),
-//                new FuncPoint(1.656, 3.674),
-//                new FuncPoint(1.676, 1.145),
-//                new FuncPoint(1.678, 0.312),
-//                new FuncPoint(1.714, 1.145),
-//                new FuncPoint(1.734, 0.312),
-//                new FuncPoint(1.808, 0)
+//            RealFunction.table(new double[][]{
+//                {0.0, 0.0},
+//                {0.006, 0.260},
+//                {0.008, 1.684},
+//                {0.010, 7.589},
+//                {0.012, 14.522},
+//                {0.014, 14.148},
+//                {0.016, 13.225},
+//                {0.018, 16.841},
+//                {0.020, 19.110},
+//                {0.022, 20.482},
+//                {0.026, 21.130},
+//                {0.028, 22.128},
+//                {0.032, 21.953},
+//                {0.038, 22.975},
+//                {0.074, 21.878},
+//                {0.124, 21.454},
+//                {0.376, 22.327},
+//                {0.680, 22.352},
+//                {0.994, 20.606},
+//                {1.246, 18.661},
+//                {1.282, 13.923},
+//                {1.316, 13.923},
+//                {1.360, 10.033},
+//                {1.424, 6.542},
+//                {1.504, 4.771},
+//                {1.598, 4.347},
+//                {1.656, 3.674},
+//                {1.676, 1.145},
+//                {1.678, 0.312},
+//                {1.714, 1.145},
+//                {1.734, 0.312},
+//                {1.808, 0}
 //            })
 //    );
 
     public static final HobbyRocketEngine G25 = new HobbyRocketEngine("G25",
-            new SingleVariableTableFunction(0.0, 5.3, new FuncPoint[]{
-                new FuncPoint(-1, 0.0),
-                new FuncPoint(0.0, 0.0),
-                new FuncPoint(0.0001, 1.124),
-                new FuncPoint(0.13, 9.143),
-                new FuncPoint(0.177, 8.761),
-                new FuncPoint(0.295, 8.761),
-                new FuncPoint(0.343, 9.205),
-                new FuncPoint(0.413, 9.078),
-                new FuncPoint(0.437, 8.698),
-                new FuncPoint(0.484, 8.953),
-                new FuncPoint(0.532, 8.508),
-                new FuncPoint(0.65, 8.443),
-                new FuncPoint(0.721, 8.761),
-                new FuncPoint(0.803, 8.698),
-                new FuncPoint(0.85, 8.381),
-                new FuncPoint(0.98, 8.888),
-                new FuncPoint(1.063, 8.191),
-                new FuncPoint(1.098, 8.571),
-                new FuncPoint(1.252, 8.508),
-                new FuncPoint(1.37, 8.381),
-                new FuncPoint(1.583, 8.318),
-                new FuncPoint(1.819, 7.936),
-                new FuncPoint(1.984, 7.556),
-                new FuncPoint(2.185, 7.046),
-                new FuncPoint(2.315, 6.477),
-                new FuncPoint(2.622, 5.460),
-                new FuncPoint(3.024, 4.253),
-                new FuncPoint(3.39, 3.111),
-                new FuncPoint(3.839, 1.714),
-                new FuncPoint(4.323, 1.016),
-                new FuncPoint(4.783, 0.571),
-                new FuncPoint(5.3, 0),
-                new FuncPoint(5.4, 0)
+            RealFunction.table(new double[][]{
+                {-1, 0.0},
+                {0.0, 0.0},
+                {0.0001, 1.124},
+                {0.13, 9.143},
+                {0.177, 8.761},
+                {0.295, 8.761},
+                {0.343, 9.205},
+                {0.413, 9.078},
+                {0.437, 8.698},
+                {0.484, 8.953},
+                {0.532, 8.508},
+                {0.65, 8.443},
+                {0.721, 8.761},
+                {0.803, 8.698},
+                {0.85, 8.381},
+                {0.98, 8.888},
+                {1.063, 8.191},
+                {1.098, 8.571},
+                {1.252, 8.508},
+                {1.37, 8.381},
+                {1.583, 8.318},
+                {1.819, 7.936},
+                {1.984, 7.556},
+                {2.185, 7.046},
+                {2.315, 6.477},
+                {2.622, 5.460},
+                {3.024, 4.253},
+                {3.39, 3.111},
+                {3.839, 1.714},
+                {4.323, 1.016},
+                {4.783, 0.571},
+                {5.3, 0},
+                {5.4, 0}
             }),
-            new SingleVariableTableFunction(0.0, 5.3, new FuncPoint[]{
-                new FuncPoint(-1.0, 0.011455),
-                new FuncPoint(0.0, 0.011455),
-                new FuncPoint(0.0001, 0.011455),
-                new FuncPoint(0.13, 0.011455),
-                new FuncPoint(0.177, 0.011387),
-                new FuncPoint(0.295, 0.011219),
-                new FuncPoint(0.343, 0.011149),
-                new FuncPoint(0.413, 0.011045),
-                new FuncPoint(0.437, 0.011011),
-                new FuncPoint(0.484, 0.010943),
-                new FuncPoint(0.532, 0.010875),
-                new FuncPoint(0.65, 0.010713),
-                new FuncPoint(0.721, 0.010614),
-                new FuncPoint(0.803, 0.010498),
-                new FuncPoint(0.85, 0.010433),
-                new FuncPoint(0.98, 0.010088),
-                new FuncPoint(1.063, 0.010136),
-                new FuncPoint(1.098, 0.010088),
-                new FuncPoint(1.252, 0.009875),
-                new FuncPoint(1.37, 0.009713),
-                new FuncPoint(1.583, 0.009424),
-                new FuncPoint(1.819, 0.009113),
-                new FuncPoint(1.984, 0.008906),
-                new FuncPoint(2.185, 0.008668),
-                new FuncPoint(2.315, 0.008525),
-                new FuncPoint(2.622, 0.008228),
-                new FuncPoint(3.024, 0.007911),
-                new FuncPoint(3.39, 0.007693),
-                new FuncPoint(3.839, 0.007517),
-                new FuncPoint(4.323, 0.007410),
-                new FuncPoint(4.783, 0.007350),
-                new FuncPoint(5.3, 0.007326),
-                new FuncPoint(5.4, 0.007326)
+            RealFunction.table(new double[][]{
+                {-1.0, 0.011455},
+                {0.0, 0.011455},
+                {0.0001, 0.011455},
+                {0.13, 0.011455},
+                {0.177, 0.011387},
+                {0.295, 0.011219},
+                {0.343, 0.011149},
+                {0.413, 0.011045},
+                {0.437, 0.011011},
+                {0.484, 0.010943},
+                {0.532, 0.010875},
+                {0.65, 0.010713},
+                {0.721, 0.010614},
+                {0.803, 0.010498},
+                {0.85, 0.010433},
+                {0.98, 0.010088},
+                {1.063, 0.010136},
+                {1.098, 0.010088},
+                {1.252, 0.009875},
+                {1.37, 0.009713},
+                {1.583, 0.009424},
+                {1.819, 0.009113},
+                {1.984, 0.008906},
+                {2.185, 0.008668},
+                {2.315, 0.008525},
+                {2.622, 0.008228},
+                {3.024, 0.007911},
+                {3.39, 0.007693},
+                {3.839, 0.007517},
+                {4.323, 0.007410},
+                {4.783, 0.007350},
+                {5.3, 0.007326},
+                {5.4, 0.007326}
             }),
             5.3
     );
 
     public static final HobbyRocketEngine G25_POST_BURN = new HobbyRocketEngine("G25 - Post Burn",
-            (Double time) ->
-            0.0,
-            (Double time) ->
-            0.007326,
+            RealFunction.constant(0.0),
+            RealFunction.constant(0.007326),
             0.0
     );
 
     public static final HobbyRocketEngine F40 = new HobbyRocketEngine("F40",
-            new SingleVariableTableFunction(0, 2.06, new FuncPoint[]{
-                new FuncPoint(-1, 0.0),
-                new FuncPoint(0, 0.0),
-                new FuncPoint(0.015, 3.996),
-                new FuncPoint(0.049, 9.221),
-                new FuncPoint(0.089, 13.217),
-                new FuncPoint(0.124, 14.140),
-                new FuncPoint(0.148, 14.651),
-                new FuncPoint(0.183, 14.038),
-                new FuncPoint(0.242, 15.303),
-                new FuncPoint(0.292, 13.627),
-                new FuncPoint(0.321, 13.831),
-                new FuncPoint(0.415, 13.627),
-                new FuncPoint(0.524, 13.114),
-                new FuncPoint(0.741, 11.783),
-                new FuncPoint(0.87, 10.861),
-                new FuncPoint(0.889, 11.065),
-                new FuncPoint(0.914, 10.655),
-                new FuncPoint(1.102, 9.017),
-                new FuncPoint(1.285, 7.582),
-                new FuncPoint(1.492, 5.635),
-                new FuncPoint(1.665, 3.586),
-                new FuncPoint(1.808, 1.947),
-                new FuncPoint(1.942, 0.717),
-                new FuncPoint(2.06, 0.0),
-                new FuncPoint(2.1, 0.0)
+            RealFunction.table(new double[][]{
+                {-1, 0.0},
+                {0, 0.0},
+                {0.015, 3.996},
+                {0.049, 9.221},
+                {0.089, 13.217},
+                {0.124, 14.140},
+                {0.148, 14.651},
+                {0.183, 14.038},
+                {0.242, 15.303},
+                {0.292, 13.627},
+                {0.321, 13.831},
+                {0.415, 13.627},
+                {0.524, 13.114},
+                {0.741, 11.783},
+                {0.87, 10.861},
+                {0.889, 11.065},
+                {0.914, 10.655},
+                {1.102, 9.017},
+                {1.285, 7.582},
+                {1.492, 5.635},
+                {1.665, 3.586},
+                {1.808, 1.947},
+                {1.942, 0.717},
+                {2.06, 0.0},
+                {2.1, 0.0}
             }),
-            new SingleVariableTableFunction(0, 2.06, new FuncPoint[]{
-                new FuncPoint(0, 0.00857),
-                new FuncPoint(0.015, 0.00857),
-                new FuncPoint(0.049, 0.00856),
-                new FuncPoint(0.089, 0.00853),
-                new FuncPoint(0.124, 0.00846),
-                new FuncPoint(0.148, 0.00838),
-                new FuncPoint(0.183, 0.00833),
-                new FuncPoint(0.242, 0.00825),
-                new FuncPoint(0.292, 0.00811),
-                new FuncPoint(0.321, 0.00800),
-                new FuncPoint(0.415, 0.00794),
-                new FuncPoint(0.524, 0.00774),
-                new FuncPoint(0.741, 0.00751),
-                new FuncPoint(0.87, 0.00709),
-                new FuncPoint(0.889, 0.00686),
-                new FuncPoint(0.914, 0.00683),
-                new FuncPoint(1.102, 0.00678),
-                new FuncPoint(1.285, 0.00649),
-                new FuncPoint(1.492, 0.00626),
-                new FuncPoint(1.665, 0.00604),
-                new FuncPoint(1.808, 0.00592),
-                new FuncPoint(1.942, 0.00586),
-                new FuncPoint(2.06, 0.00582),
-                new FuncPoint(2.1, 0.00582)
+            RealFunction.table(new double[][]{
+                {0, 0.00857},
+                {0.015, 0.00857},
+                {0.049, 0.00856},
+                {0.089, 0.00853},
+                {0.124, 0.00846},
+                {0.148, 0.00838},
+                {0.183, 0.00833},
+                {0.242, 0.00825},
+                {0.292, 0.00811},
+                {0.321, 0.00800},
+                {0.415, 0.00794},
+                {0.524, 0.00774},
+                {0.741, 0.00751},
+                {0.87, 0.00709},
+                {0.889, 0.00686},
+                {0.914, 0.00683},
+                {1.102, 0.00678},
+                {1.285, 0.00649},
+                {1.492, 0.00626},
+                {1.665, 0.00604},
+                {1.808, 0.00592},
+                {1.942, 0.00586},
+                {2.06, 0.00582},
+                {2.1, 0.00582}
             }),
             2.06
     );
 
     public static final HobbyRocketEngine M750 = new HobbyRocketEngine("M750",
-            new SingleVariableTableFunction(0, 16.0, new FuncPoint[]{
-                new FuncPoint(-1.0, 232.00),
-                new FuncPoint(0.0, 232.00),
-                new FuncPoint(0.1, 223.01),
-                new FuncPoint(0.3, 218.96),
-                new FuncPoint(0.48, 217.17),
-                new FuncPoint(1.0, 237.17),
-                new FuncPoint(1.5, 258.98),
-                new FuncPoint(2.0, 267.97),
-                new FuncPoint(2.5, 273.82),
-                new FuncPoint(4.0, 247.96),
-                new FuncPoint(6.0, 183.89),
-                new FuncPoint(8.0, 126.12),
-                new FuncPoint(10.0, 71.49),
-                new FuncPoint(11.0, 48.56),
-                new FuncPoint(12.0, 28.10),
-                new FuncPoint(13.0, 17.09),
-                new FuncPoint(14.0, 10.57),
-                new FuncPoint(15.0, 5.17),
-                new FuncPoint(15.5, 2.02),
-                new FuncPoint(16.0, 0.0),
-                new FuncPoint(17.0, 0.0)
+            RealFunction.table(new double[][]{
+                {-1.0, 232.00},
+                {0.0, 232.00},
+                {0.1, 223.01},
+                {0.3, 218.96},
+                {0.48, 217.17},
+                {1.0, 237.17},
+                {1.5, 258.98},
+                {2.0, 267.97},
+                {2.5, 273.82},
+                {4.0, 247.96},
+                {6.0, 183.89},
+                {8.0, 126.12},
+                {10.0, 71.49},
+                {11.0, 48.56},
+                {12.0, 28.10},
+                {13.0, 17.09},
+                {14.0, 10.57},
+                {15.0, 5.17},
+                {15.5, 2.02},
+                {16.0, 0.0},
+                {17.0, 0.0}
             }),
-            new SingleVariableTableFunction(0, 16.0, new FuncPoint[]{
-                new FuncPoint(-1.0, 0.60009),
-                new FuncPoint(0.0, 0.60009),
-                new FuncPoint(0.1, 0.59807),
-                new FuncPoint(0.2, 0.59410),
-                new FuncPoint(0.3, 0.59026),
-                new FuncPoint(0.48, 0.58342),
-                new FuncPoint(1.0, 0.56385),
-                new FuncPoint(1.5, 0.54124),
-                new FuncPoint(2.0, 0.51830),
-                new FuncPoint(2.5, 0.49471),
-                new FuncPoint(4.0, 0.42655),
-                new FuncPoint(6.0, 0.35134),
-                new FuncPoint(8.0, 0.29734),
-                new FuncPoint(10.0, 0.26293),
-                new FuncPoint(11.0, 0.25247),
-                new FuncPoint(12.0, 0.24580),
-                new FuncPoint(13.0, 0.241860),
-                new FuncPoint(14.0, 0.23945),
-                new FuncPoint(15.0, 0.23808),
-                new FuncPoint(15.5, 0.23777),
-                new FuncPoint(16.0, 0.23768),
-                new FuncPoint(17.0, 0.23768)
+            RealFunction.table(new double[][]{
+                {-1.0, 0.60009},
+                {0.0, 0.60009},
+                {0.1, 0.59807},
+                {0.2, 0.59410},
+                {0.3, 0.59026},
+                {0.48, 0.58342},
+                {1.0, 0.56385},
+                {1.5, 0.54124},
+                {2.0, 0.51830},
+                {2.5, 0.49471},
+                {4.0, 0.42655},
+                {6.0, 0.35134},
+                {8.0, 0.29734},
+                {10.0, 0.26293},
+                {11.0, 0.25247},
+                {12.0, 0.24580},
+                {13.0, 0.241860},
+                {14.0, 0.23945},
+                {15.0, 0.23808},
+                {15.5, 0.23777},
+                {16.0, 0.23768},
+                {17.0, 0.23768}
             }),
             16.0
     );
@@ -267,8 +279,14 @@ public class HobbyRocketEngine implements SolidRocketEngine {
     // Fields
     private final String name;
     private final double burnTime;
-    private final SingleVariableRealFunction thrust;
-    private final SingleVariableRealFunction mass;
+    private final RealFunction thrust;
+    private final RealFunction mass;
+    private final double initialMass;
+    private final double burnoutMass;
+    private final double inverseMassLoss;
+    private final double totalImpulse;
+    private final TableFunction thrustTable;
+    private final TableFunction massTable;
 
 
     // Properties
@@ -282,14 +300,67 @@ public class HobbyRocketEngine implements SolidRocketEngine {
         return this.burnTime;
     }
 
+    @Override
+    public double getInitialMass() {
+        return this.initialMass;
+    }
+
+    @Override
+    public double getBurnoutMass() {
+        return this.burnoutMass;
+    }
+
+    @Override
+    public double getTotalImpulse() {
+        return this.totalImpulse;
+    }
+
+    /**
+     *
+     * @return the thrust, in pounds, against the time since ignition, in seconds
+     */
+    public RealFunction getThrustCurve() {
+        return this.thrust;
+    }
+
+    /**
+     *
+     * @return the mass, in slugs, against the time since ignition, in seconds
+     */
+    public RealFunction getMassCurve() {
+        return this.mass;
+    }
+
 
     // Initialization
-    public HobbyRocketEngine(String name, SingleVariableRealFunction thrust, SingleVariableRealFunction mass, double burnTime) {
+    public HobbyRocketEngine(String name, RealFunction thrust, RealFunction mass, double burnTime) {
         this.name = name;
         this.thrust = thrust;
         this.mass = mass;
 
         this.burnTime = burnTime;
+
+        this.initialMass = mass.applyAsDouble(0.0);
+        this.burnoutMass = mass.applyAsDouble(burnTime);
+        double massLoss = this.burnoutMass - this.initialMass;
+        this.inverseMassLoss = massLoss == 0.0 ? 0.0 : 1.0 / massLoss;
+        this.totalImpulse = thrust instanceof TableFunction
+                ? ((TableFunction) thrust).integral(0.0, burnTime)
+                : SolidRocketEngine.super.getTotalImpulse();
+
+        if (thrust instanceof TableFunction && mass instanceof TableFunction
+                && ((TableFunction) thrust).hasSameX((TableFunction) mass)) {
+            this.thrustTable = (TableFunction) thrust;
+            this.massTable = (TableFunction) mass;
+        }
+        else {
+            this.thrustTable = null;
+            this.massTable = null;
+        }
+    }
+
+    public HobbyRocketEngine(String name, SingleVariableRealFunction thrust, SingleVariableRealFunction mass, double burnTime) {
+        this(name, RealFunction.of(thrust), RealFunction.of(mass), burnTime);
     }
 
 
@@ -302,20 +373,104 @@ public class HobbyRocketEngine implements SolidRocketEngine {
      */
     @Override
     public double getThrust(double time) {
-        return thrust.apply(time);
+        return thrust.applyAsDouble(time);
     }
 
     @Override
     public double getMass(double time) {
-        return mass.apply(time);
+        return mass.applyAsDouble(time);
+    }
+
+    @Override
+    public double getBurnFraction(double time) {
+        if (this.inverseMassLoss == 0.0) {
+            return 1.0;
+        }
+        double fraction = (this.mass.applyAsDouble(time) - this.initialMass) * this.inverseMassLoss;
+        return Math.max(0.0, Math.min(1.0, fraction));
+    }
+
+    @Override
+    public void sample(double time, PropulsionSample sample) {
+        if (this.thrustTable == null) {
+            SolidRocketEngine.super.sample(time, sample);
+            return;
+        }
+
+        int segment = this.thrustTable.locate(time);
+        double mass = this.massTable.valueAt(segment, time);
+        double fraction = this.inverseMassLoss == 0.0
+                ? 1.0
+                : Math.max(0.0, Math.min(1.0, (mass - this.initialMass) * this.inverseMassLoss));
+        sample.set(time, this.thrustTable.valueAt(segment, time), mass, this.massTable.slopeAt(segment), fraction);
     }
 
     public HobbyRocketEngine getThrustVariationEngine(double variation) {
         String newName = this.getName() + " THRUST_VAR_" + variation;
-        SingleVariableRealFunction newThrust = (Double input) ->
-                HobbyRocketEngine.this.thrust.apply(input) * variation;
+        RealFunction newThrust = this.thrust.scaled(variation);
 
         return new HobbyRocketEngine(newName, newThrust, mass, this.burnTime);
     }
 
+
+    // Public Static Methods
+    /**
+     * Merges several engines, each lit at its own time, into a single engine whose thrust and mass are the sums of
+     * theirs. The merged curves are tables on the union of the times of the engines' tables, so they are exact for
+     * engines defined by tables, and a sample of the cluster costs the same as a sample of one engine.
+     *
+     * @param name          the name of the cluster
+     * @param engines       the engines
+     * @param ignitionTimes the time each engine is lit, in seconds after the ignition of the cluster
+     *
+     * @return the cluster, as a single engine that burns until its last engine burns out
+     */
+    public static HobbyRocketEngine cluster(String name, HobbyRocketEngine[] engines, double[] ignitionTimes) {
+        if (engines.length == 0 || engines.length != ignitionTimes.length) {
+            throw new IllegalArgumentException("A cluster needs at least one engine, and one ignition time per "
+                    + "engine.");
+        }
+
+        DoubleStream.Builder times = DoubleStream.builder();
+        double burnTime = 0.0;
+        for (int i = 0; i < engines.length; i++) {
+            HobbyRocketEngine engine = engines[i];
+            double ignition = ignitionTimes[i];
+            times.add(ignition);
+            addBreakpoints(engine.thrust, engine.burnTime, ignition, times);
+            addBreakpoints(engine.mass, engine.burnTime, ignition, times);
+            burnTime = Math.max(burnTime, ignition + engine.burnTime);
+        }
+        double[] x = times.build().sorted().distinct().toArray();
+
+        double[] thrust = new double[x.length];
+        double[] mass = new double[x.length];
+        for (int i = 0; i < engines.length; i++) {
+            HobbyRocketEngine engine = engines[i];
+            for (int j = 0; j < x.length; j++) {
+                double time = x[j] - ignitionTimes[i];
+                thrust[j] += engine.getThrust(time);
+                mass[j] += engine.getMass(time);
+            }
+        }
+
+        return new HobbyRocketEngine(name, new TableFunction(x, thrust), new TableFunction(x, mass), burnTime);
+    }
+
+
+    // Private Static Methods
+    private static void addBreakpoints(RealFunction curve, double burnTime, double offset, DoubleStream.Builder times) {
+        if (curve instanceof TableFunction) {
+            for (double x : ((TableFunction) curve).getX()) {
+                times.add(x + offset);
+            }
+            return;
+        }
+
+        int steps = (int) Math.ceil(burnTime / CLUSTER_SAMPLE_INTERVAL);
+        for (int i = 0; i <= steps; i++) {
+            times.add(offset + Math.min(burnTime, i * CLUSTER_SAMPLE_INTERVAL));
+        }
+    }
+
 }
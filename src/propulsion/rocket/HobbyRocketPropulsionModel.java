@@ -25,8 +25,11 @@ package propulsion.rocket;
 
 import dynamics.SystemState;
 import propulsion.PropulsionForceModel;
+import propulsion.PropulsionSample;
 
 /**
+ * Propels a vehicle with a single hobby rocket engine. When the dry mass of the vehicle and the position of the engine
+ * are given, samples also report how far the centre of gravity moves forward as the propellant burns.
  *
  * @author Nathan Templon
  */
@@ -34,11 +37,28 @@ public class HobbyRocketPropulsionModel implements PropulsionForceModel {
     
     // Fields
     private final HobbyRocketEngine engine;
+    private final double dryMass;
+    private final double engineArm;
+    private final double initialCgOffset;
     
     
     // Initialization
     public HobbyRocketPropulsionModel(HobbyRocketEngine engine) {
+        this(engine, 0.0, 0.0);
+    }
+    
+    /**
+     * 
+     * @param engine    the engine
+     * @param dryMass   the mass of the vehicle without the engine, in slugs
+     * @param engineArm the distance from the centre of gravity of the vehicle without the engine forward to the centre
+     *                  of gravity of the engine, in feet, which is negative for an engine in the tail
+     */
+    public HobbyRocketPropulsionModel(HobbyRocketEngine engine, double dryMass, double engineArm) {
         this.engine = engine;
+        this.dryMass = dryMass;
+        this.engineArm = engineArm;
+        this.initialCgOffset = this.cgOffset(engine.getInitialMass());
     }
     
     
@@ -48,4 +68,19 @@ public class HobbyRocketPropulsionModel implements PropulsionForceModel {
         return this.engine.getThrust(state.getTime());
     }
     
+    @Override
+    public void sample(SystemState state, PropulsionSample sample) {
+        this.engine.sample(state.getTime(), sample);
+        if (this.engineArm != 0.0) {
+            sample.setCgShift(this.cgOffset(sample.getMass()) - this.initialCgOffset);
+        }
+    }
+    
+    
+    // Private Methods
+    private double cgOffset(double engineMass) {
+        double totalMass = this.dryMass + engineMass;
+        return totalMass > 0.0 ? this.engineArm * engineMass / totalMass : 0.0;
+    }
+    
 }
@@ -0,0 +1,446 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package propulsion.rocket;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A catalog of the motors in a directory of RASP engine files.
+ *
+ * Opening a catalog reads a small binary index kept in the directory, which holds the name, class, impulse, burn time
+ * and mass of every motor, so motors can be listed and searched without reading any engine files. Only engine files
+ * that were added or changed since the index was written are parsed, and the index is rewritten when anything changed.
+ * An index that is unreadable, such as one left truncated by a crash, is rebuilt from the engine files like one from
+ * another version. The index is replaced by renaming a complete new file over it, so readers never see it half
+ * written.
+ * Thrust curves are loaded the first time a motor is asked for, and the resulting {@link HobbyRocketEngine} is shared
+ * by every later caller, on any thread.
+ *
+ * @author Nathan Templon
+ */
+public class MotorCatalog {
+
+    // Constants
+    public static final String INDEX_FILE_NAME = "motors.idx";
+    public static final String ENGINE_FILE_EXTENSION = ".eng";
+
+    private static final int MAGIC = 0x4E464D43; // "NFMC"
+    private static final int VERSION = 1;
+
+    private static final Map<String, MotorCatalog> OPEN_CATALOGS = new ConcurrentHashMap<>();
+
+
+    // Fields
+    private final File directory;
+    private final long lastModified;
+    private final List<Entry> entries;
+    private final Map<String, Entry> entriesByName;
+    private final Map<String, HobbyRocketEngine> engines = new ConcurrentHashMap<>();
+
+
+    // Properties
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     *
+     * @return the motors in the catalog, sorted by total impulse
+     */
+    public List<Entry> getEntries() {
+        return this.entries;
+    }
+
+
+    // Initialization
+    private MotorCatalog(File directory) throws IOException {
+        this.directory = directory;
+
+        File indexFile = new File(directory, INDEX_FILE_NAME);
+        Map<String, List<Entry>> indexed = indexFile.isFile() ? readIndex(indexFile) : null;
+        boolean changed = indexed == null;
+        if (indexed == null) {
+            indexed = new HashMap<>();
+        }
+
+        File[] engineFiles = directory.listFiles((File dir, String name)
+                -> name.toLowerCase().endsWith(ENGINE_FILE_EXTENSION));
+        if (engineFiles == null) {
+            throw new IOException(directory + " is not a readable directory.");
+        }
+
+        List<Entry> loaded = new ArrayList<>();
+        for (File engineFile : engineFiles) {
+            List<Entry> fileEntries = indexed.remove(engineFile.getName());
+            if (fileEntries == null || fileEntries.isEmpty()
+                    || fileEntries.get(0).fileModified != engineFile.lastModified()
+                    || fileEntries.get(0).fileLength != engineFile.length()) {
+                fileEntries = scan(engineFile);
+                changed = true;
+            }
+            loaded.addAll(fileEntries);
+        }
+        // Anything left in the index belongs to a file that has been removed
+        changed |= !indexed.isEmpty();
+
+        loaded.sort((Entry first, Entry second) -> {
+            int comparison = Double.compare(first.totalImpulse, second.totalImpulse);
+            return comparison != 0 ? comparison : first.name.compareTo(second.name);
+        });
+        this.entries = Collections.unmodifiableList(loaded);
+
+        Map<String, Entry> byName = new LinkedHashMap<>();
+        for (Entry entry : loaded) {
+            byName.putIfAbsent(entry.name, entry);
+        }
+        this.entriesByName = Collections.unmodifiableMap(byName);
+
+        if (changed) {
+            writeIndex(indexFile, loaded);
+        }
+        // Read after the index is written, since creating it changes the directory
+        this.lastModified = directory.lastModified();
+    }
+
+    /**
+     * Opens the catalog of a directory, or returns the already open catalog for it. A directory whose contents have
+     * changed since it was opened is opened again.
+     *
+     * @param directory the directory of engine files
+     *
+     * @return the catalog
+     *
+     * @throws IOException if the directory, an engine file or the index cannot be read
+     */
+    public static MotorCatalog open(File directory) throws IOException {
+        String key = directory.getCanonicalPath();
+        MotorCatalog catalog = OPEN_CATALOGS.get(key);
+        if (catalog == null || catalog.lastModified != directory.lastModified()
+                || catalog.anyFileChanged()) {
+            catalog = new MotorCatalog(directory);
+            OPEN_CATALOGS.put(key, catalog);
+        }
+        return catalog;
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param name the designation of a motor
+     *
+     * @return the motor, or null if the catalog does not hold it
+     */
+    public Entry find(String name) {
+        return this.entriesByName.get(name);
+    }
+
+    /**
+     *
+     * @param impulseClass an impulse class, such as "C" or "1/2A"
+     *
+     * @return the motors of the class, sorted by total impulse
+     */
+    public List<Entry> byClass(String impulseClass) {
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : this.entries) {
+            if (entry.impulseClass.equals(impulseClass)) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the engine of a motor, loading its thrust curve if no one has asked for it yet.
+     *
+     * @param name the designation of a motor
+     *
+     * @return the engine, or null if the catalog does not hold the motor
+     *
+     * @throws IOException if the engine file cannot be read
+     */
+    public HobbyRocketEngine get(String name) throws IOException {
+        Entry entry = this.find(name);
+        return entry == null ? null : this.get(entry);
+    }
+
+    /**
+     * Gets the engine of a motor, loading its thrust curve if no one has asked for it yet.
+     *
+     * @param entry a motor in the catalog
+     *
+     * @return the engine
+     *
+     * @throws IOException if the engine file cannot be read
+     */
+    public HobbyRocketEngine get(Entry entry) throws IOException {
+        HobbyRocketEngine engine = this.engines.get(entry.getKey());
+        if (engine != null) {
+            return engine;
+        }
+
+        List<RaspMotor> motors = RaspMotor.parse(new File(this.directory, entry.fileName));
+        if (entry.ordinal >= motors.size()) {
+            throw new IOException("The engine file " + entry.fileName + " no longer holds " + entry.name + ".");
+        }
+        engine = motors.get(entry.ordinal).toEngine();
+
+        HobbyRocketEngine existing = this.engines.putIfAbsent(entry.getKey(), engine);
+        return existing != null ? existing : engine;
+    }
+
+
+    // Private Methods
+    private boolean anyFileChanged() {
+        for (Entry entry : this.entries) {
+            File file = new File(this.directory, entry.fileName);
+            if (file.lastModified() != entry.fileModified || file.length() != entry.fileLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    // Private Static Methods
+    private static List<Entry> scan(File engineFile) throws IOException {
+        List<RaspMotor> motors = RaspMotor.parse(engineFile);
+        List<Entry> scanned = new ArrayList<>();
+        for (int i = 0; i < motors.size(); i++) {
+            RaspMotor motor = motors.get(i);
+            scanned.add(new Entry(engineFile.getName(), i, engineFile.lastModified(), engineFile.length(),
+                    motor.getName(), motor.getManufacturer(), motor.getImpulseClass(), motor.getDiameter(),
+                    motor.getLength(), motor.getTotalImpulseNewtonSeconds() * HobbyRocketEngine.NEWT0NS_TO_POUNDS,
+                    motor.getBurnTime(), motor.getTotalMass(), motor.getPropellantMass()));
+        }
+        return scanned;
+    }
+
+    /**
+     *
+     * @return the indexed entries by file name, or null if the index is malformed or from another version and must be
+     *         rebuilt from the engine files
+     */
+    private static Map<String, List<Entry>> readIndex(File indexFile) throws IOException {
+        Map<String, List<Entry>> indexed = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(in.readUTF(), in.readInt(), in.readLong(), in.readLong(), in.readUTF(),
+                        in.readUTF(), in.readUTF(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                        in.readDouble(), in.readDouble());
+                indexed.computeIfAbsent(entry.fileName, (String key) -> new ArrayList<>()).add(entry);
+            }
+        }
+        catch (EOFException | UTFDataFormatException ex) {
+            return null;
+        }
+        return indexed;
+    }
+
+    private static void writeIndex(File indexFile, List<Entry> entries) throws IOException {
+        File temp = File.createTempFile(indexFile.getName(), ".tmp", indexFile.getAbsoluteFile().getParentFile());
+        try {
+            writeEntries(temp, entries);
+            try {
+                Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static void writeEntries(File file, List<Entry> entries) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeUTF(entry.fileName);
+                out.writeInt(entry.ordinal);
+                out.writeLong(entry.fileModified);
+                out.writeLong(entry.fileLength);
+                out.writeUTF(entry.name);
+                out.writeUTF(entry.manufacturer);
+                out.writeUTF(entry.impulseClass);
+                out.writeDouble(entry.diameter);
+                out.writeDouble(entry.length);
+                out.writeDouble(entry.totalImpulse);
+                out.writeDouble(entry.burnTime);
+                out.writeDouble(entry.totalMass);
+                out.writeDouble(entry.propellantMass);
+            }
+        }
+    }
+
+
+    // Nested Classes
+    /**
+     * The indexed description of a motor, available without loading its thrust curve.
+     */
+    public static final class Entry {
+
+        // Fields
+        private final String fileName;
+        private final int ordinal;
+        private final long fileModified;
+        private final long fileLength;
+        private final String name;
+        private final String manufacturer;
+        private final String impulseClass;
+        private final double diameter;
+        private final double length;
+        private final double totalImpulse;
+        private final double burnTime;
+        private final double totalMass;
+        private final double propellantMass;
+
+
+        // Properties
+        public String getFileName() {
+            return this.fileName;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public String getManufacturer() {
+            return this.manufacturer;
+        }
+
+        public String getImpulseClass() {
+            return this.impulseClass;
+        }
+
+        /**
+         *
+         * @return the diameter, in millimeters
+         */
+        public double getDiameter() {
+            return this.diameter;
+        }
+
+        /**
+         *
+         * @return the length, in millimeters
+         */
+        public double getLength() {
+            return this.length;
+        }
+
+        /**
+         *
+         * @return the total impulse, in pound-seconds
+         */
+        public double getTotalImpulse() {
+            return this.totalImpulse;
+        }
+
+        /**
+         *
+         * @return the burn time, in seconds
+         */
+        public double getBurnTime() {
+            return this.burnTime;
+        }
+
+        /**
+         *
+         * @return the mass at ignition, in slugs
+         */
+        public double getTotalMass() {
+            return this.totalMass;
+        }
+
+        /**
+         *
+         * @return the propellant mass, in slugs
+         */
+        public double getPropellantMass() {
+            return this.propellantMass;
+        }
+
+        private String getKey() {
+            return this.fileName + '#' + this.ordinal;
+        }
+
+
+        // Initialization
+        private Entry(String fileName, int ordinal, long fileModified, long fileLength, String name,
+                String manufacturer, String impulseClass, double diameter, double length, double totalImpulse,
+                double burnTime, double totalMass, double propellantMass) {
+            this.fileName = fileName;
+            this.ordinal = ordinal;
+            this.fileModified = fileModified;
+            this.fileLength = fileLength;
+            this.name = name;
+            this.manufacturer = manufacturer;
+            this.impulseClass = impulseClass;
+            this.diameter = diameter;
+            this.length = length;
+            this.totalImpulse = totalImpulse;
+            this.burnTime = burnTime;
+            this.totalMass = totalMass;
+            this.propellantMass = propellantMass;
+        }
+
+
+        // Public Methods
+        @Override
+        public String toString() {
+            return this.name + " (" + this.impulseClass + ", " + this.manufacturer + ")";
+        }
+
+    }
+
+}
@@ -0,0 +1,325 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package propulsion.rocket;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import util.RealFunction;
+
+/**
+ * A motor read from a RASP engine file (.eng), the format used by most thrust curve databases.
+ *
+ * An engine file holds one or more motors. Each starts with a header line giving the designation, the diameter and
+ * length in millimeters, the available ejection delays, the propellant and total masses in kilograms and the
+ * manufacturer, and is followed by lines of time (seconds) and thrust (newtons), ending with a line of zero thrust.
+ * Lines starting with a semicolon are comments.
+ *
+ * Motors are converted to the units used by {@link HobbyRocketEngine}: pounds of thrust and slugs of mass. The engine
+ * file gives no mass curve, so the propellant is taken to burn in proportion to the impulse delivered.
+ *
+ * @author Nathan Templon
+ */
+public class RaspMotor {
+
+    // Constants
+    public static final double KILOGRAMS_TO_SLUGS = 0.0685217659;
+
+
+    // Fields
+    private final String name;
+    private final String manufacturer;
+    private final String delays;
+    private final double diameter;
+    private final double length;
+    private final double propellantMass;
+    private final double totalMass;
+    private final double[] time;
+    private final double[] thrust;
+
+
+    // Properties
+    public String getName() {
+        return this.name;
+    }
+
+    public String getManufacturer() {
+        return this.manufacturer;
+    }
+
+    /**
+     *
+     * @return the available ejection delays, as given in the file, such as "4-6-8" or "P" for plugged
+     */
+    public String getDelays() {
+        return this.delays;
+    }
+
+    /**
+     *
+     * @return the diameter, in millimeters
+     */
+    public double getDiameter() {
+        return this.diameter;
+    }
+
+    /**
+     *
+     * @return the length, in millimeters
+     */
+    public double getLength() {
+        return this.length;
+    }
+
+    /**
+     *
+     * @return the propellant mass, in slugs
+     */
+    public double getPropellantMass() {
+        return this.propellantMass;
+    }
+
+    /**
+     *
+     * @return the mass at ignition, in slugs
+     */
+    public double getTotalMass() {
+        return this.totalMass;
+    }
+
+    /**
+     *
+     * @return the burn time, in seconds
+     */
+    public double getBurnTime() {
+        return this.time[this.time.length - 1];
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param name           the designation of the motor
+     * @param manufacturer   the manufacturer
+     * @param delays         the available ejection delays
+     * @param diameter       the diameter, in millimeters
+     * @param length         the length, in millimeters
+     * @param propellantMass the propellant mass, in slugs
+     * @param totalMass      the mass at ignition, in slugs
+     * @param time           the times of the thrust curve, in seconds, which must be strictly increasing and start
+     *                       at zero
+     * @param thrust         the thrust at each time, in pounds
+     */
+    public RaspMotor(String name, String manufacturer, String delays, double diameter, double length,
+            double propellantMass, double totalMass, double[] time, double[] thrust) {
+        if (time.length < 2 || time.length != thrust.length) {
+            throw new IllegalArgumentException("A thrust curve needs at least two points, and one thrust per time.");
+        }
+        if (time[0] != 0.0) {
+            throw new IllegalArgumentException("A thrust curve must start at ignition.");
+        }
+
+        this.name = name;
+        this.manufacturer = manufacturer;
+        this.delays = delays;
+        this.diameter = diameter;
+        this.length = length;
+        this.propellantMass = propellantMass;
+        this.totalMass = totalMass;
+        this.time = time.clone();
+        this.thrust = thrust.clone();
+    }
+
+
+    // Public Static Methods
+    /**
+     * Reads the motors in an engine file.
+     *
+     * @param file the engine file
+     *
+     * @return the motors in the file, in the order they appear
+     *
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static List<RaspMotor> parse(File file) throws IOException {
+        List<RaspMotor> motors = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String[] header = null;
+            List<double[]> points = new ArrayList<>();
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith(";")) {
+                    continue;
+                }
+
+                String[] fields = trimmed.split("\\s+");
+                if (header == null) {
+                    if (fields.length < 7) {
+                        throw new IOException("Expected a motor header on line " + lineNumber + " of " + file + ".");
+                    }
+                    header = fields;
+                    continue;
+                }
+
+                double[] point;
+                try {
+                    point = new double[]{Double.parseDouble(fields[0]), Double.parseDouble(fields[1])};
+                }
+                catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+                    throw new IOException("Expected a time and thrust on line " + lineNumber + " of " + file + ".", ex);
+                }
+                points.add(point);
+
+                // A point of zero thrust after the start of the burn ends the curve
+                if (point[1] == 0.0 && point[0] > 0.0) {
+                    motors.add(create(header, points, file));
+                    header = null;
+                    points.clear();
+                }
+            }
+
+            if (header != null && !points.isEmpty()) {
+                motors.add(create(header, points, file));
+            }
+        }
+        return motors;
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @return the total impulse, in newton-seconds, by which motors are classed
+     */
+    public double getTotalImpulseNewtonSeconds() {
+        double impulse = 0.0;
+        for (int i = 1; i < this.time.length; i++) {
+            impulse += 0.5 * (this.thrust[i] + this.thrust[i - 1]) * (this.time[i] - this.time[i - 1]);
+        }
+        return impulse / HobbyRocketEngine.NEWT0NS_TO_POUNDS;
+    }
+
+    /**
+     *
+     * @return the impulse class of the motor, from "1/4A" up, where each letter doubles the impulse of the one before
+     */
+    public String getImpulseClass() {
+        return impulseClass(this.getTotalImpulseNewtonSeconds());
+    }
+
+    /**
+     * Builds an engine from the thrust curve, with the mass falling from the total mass in proportion to the impulse
+     * delivered until the propellant is gone.
+     *
+     * @return the engine
+     */
+    public HobbyRocketEngine toEngine() {
+        int n = this.time.length;
+        double[] cumulative = new double[n];
+        for (int i = 1; i < n; i++) {
+            cumulative[i] = cumulative[i - 1]
+                    + 0.5 * (this.thrust[i] + this.thrust[i - 1]) * (this.time[i] - this.time[i - 1]);
+        }
+
+        double[] mass = new double[n];
+        double total = cumulative[n - 1];
+        for (int i = 0; i < n; i++) {
+            double burned = total > 0.0 ? cumulative[i] / total : 0.0;
+            mass[i] = this.totalMass - this.propellantMass * burned;
+        }
+
+        return new HobbyRocketEngine(this.name, RealFunction.table(this.time, this.thrust),
+                RealFunction.table(this.time, mass), this.getBurnTime());
+    }
+
+
+    // Private Static Methods
+    private static RaspMotor create(String[] header, List<double[]> points, File file) throws IOException {
+        try {
+            String name = header[0];
+            double diameter = Double.parseDouble(header[1]);
+            double length = Double.parseDouble(header[2]);
+            String delays = header[3];
+            double propellantMass = Double.parseDouble(header[4]) * KILOGRAMS_TO_SLUGS;
+            double totalMass = Double.parseDouble(header[5]) * KILOGRAMS_TO_SLUGS;
+            StringBuilder manufacturer = new StringBuilder(header[6]);
+            for (int i = 7; i < header.length; i++) {
+                manufacturer.append(' ').append(header[i]);
+            }
+
+            // Start the curve at ignition, and drop points that do not advance in time
+            List<double[]> curve = new ArrayList<>();
+            curve.add(new double[]{0.0, 0.0});
+            for (double[] point : points) {
+                double[] previous = curve.get(curve.size() - 1);
+                if (point[0] > previous[0]) {
+                    curve.add(new double[]{point[0], point[1] * HobbyRocketEngine.NEWT0NS_TO_POUNDS});
+                }
+                else if (point[0] == 0.0) {
+                    previous[1] = point[1] * HobbyRocketEngine.NEWT0NS_TO_POUNDS;
+                }
+            }
+
+            double[] time = new double[curve.size()];
+            double[] thrust = new double[curve.size()];
+            for (int i = 0; i < time.length; i++) {
+                time[i] = curve.get(i)[0];
+                thrust[i] = curve.get(i)[1];
+            }
+            return new RaspMotor(name, manufacturer.toString(), delays, diameter, length, propellantMass, totalMass,
+                    time, thrust);
+        }
+        catch (NumberFormatException ex) {
+            throw new IOException("The motor header \"" + String.join(" ", header) + "\" in " + file
+                    + " is malformed.", ex);
+        }
+        catch (IllegalArgumentException ex) {
+            throw new IOException("The thrust curve of " + header[0] + " in " + file + " is malformed.", ex);
+        }
+    }
+
+    /**
+     *
+     * @param impulse a total impulse, in newton-seconds
+     *
+     * @return the impulse class of the impulse
+     */
+    static String impulseClass(double impulse) {
+        if (impulse <= 0.625) {
+            return "1/4A";
+        }
+        if (impulse <= 1.25) {
+            return "1/2A";
+        }
+        int letter = (int) Math.ceil(Math.log(impulse / 2.5) / Math.log(2.0) - 1e-9);
+        return String.valueOf((char) ('A' + Math.max(0, Math.min(25, letter))));
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package propulsion.rocket;
+
+import dynamics.Inertia;
+import dynamics.analysis.InertiaTable;
+
+/**
+ * One stage of a rocket: its structure and a cluster of motors, each lit a set delay after the stage is.
+ *
+ * The motors are merged into a single engine when the stage is created, so a stage costs the same to simulate as a
+ * single motor. Times are measured from launch, so the merged engine of an upper stage is idle until the stage lights.
+ * The structure is described by its own centre of gravity and its inertia about it, and the motors by the position and
+ * size of the cylinder they fill, so the inertia of any stack of stages can be built with the parallel axis theorem.
+ * Positions are measured along the body axes, with x positive forward and z positive down, from a reference point
+ * shared by every stage of the rocket.
+ *
+ * @author Nathan Templon
+ */
+public class RocketStage {
+
+    // Fields
+    private final String name;
+    private final double structuralMass;
+    private final Inertia structuralInertia;
+    private final double structureCgX;
+    private final double structureCgZ;
+    private final double ignitionTime;
+    private final double separationTime;
+    private final HobbyRocketEngine engine;
+    private final double motorCgX;
+    private final double motorCgZ;
+    private final double motorLength;
+    private final double motorRadius;
+
+
+    // Properties
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     *
+     * @return the mass of the stage without its motors, in slugs
+     */
+    public double getStructuralMass() {
+        return this.structuralMass;
+    }
+
+    /**
+     *
+     * @return the time the stage is lit, in seconds after launch
+     */
+    public double getIgnitionTime() {
+        return this.ignitionTime;
+    }
+
+    /**
+     *
+     * @return the time the stage is dropped, in seconds after launch, or positive infinity if it never is
+     */
+    public double getSeparationTime() {
+        return this.separationTime;
+    }
+
+    /**
+     *
+     * @return the motors of the stage, merged into one engine timed from launch
+     */
+    public HobbyRocketEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     *
+     * @return the mass of the stage and its motors at launch, in slugs
+     */
+    public double getInitialMass() {
+        return this.structuralMass + this.engine.getInitialMass();
+    }
+
+
+    // Initialization
+    /**
+     * Creates a stage that is never dropped, such as the last stage of a rocket.
+     *
+     * @param name              the name of the stage
+     * @param structuralMass    the mass of the stage without its motors, in slugs
+     * @param structuralInertia the moments and products of inertia of the stage without its motors about its own
+     *                          centre of gravity, in slug-square feet; its mass is ignored
+     * @param structureCgX      the x position of the centre of gravity of the stage without its motors, in feet
+     * @param structureCgZ      the z position of the centre of gravity of the stage without its motors, in feet
+     * @param ignitionTime      the time the stage is lit, in seconds after launch
+     * @param motors            the motors of the stage
+     * @param ignitionDelays    the time each motor is lit, in seconds after the stage is
+     * @param motorCgX          the x position of the centre of gravity of the motors, in feet
+     * @param motorCgZ          the z position of the centre of gravity of the motors, in feet
+     * @param motorLength       the length of the motors, in feet
+     * @param motorRadius       the radius of the cylinder the motors fill, in feet
+     */
+    public RocketStage(String name, double structuralMass, Inertia structuralInertia, double structureCgX,
+            double structureCgZ, double ignitionTime, HobbyRocketEngine[] motors, double[] ignitionDelays,
+            double motorCgX, double motorCgZ, double motorLength, double motorRadius) {
+        this(name, structuralMass, structuralInertia, structureCgX, structureCgZ, ignitionTime,
+                Double.POSITIVE_INFINITY, motors, ignitionDelays, motorCgX, motorCgZ, motorLength, motorRadius);
+    }
+
+    /**
+     *
+     * @param name              the name of the stage
+     * @param structuralMass    the mass of the stage without its motors, in slugs
+     * @param structuralInertia the moments and products of inertia of the stage without its motors about its own
+     *                          centre of gravity, in slug-square feet; its mass is ignored
+     * @param structureCgX      the x position of the centre of gravity of the stage without its motors, in feet
+     * @param structureCgZ      the z position of the centre of gravity of the stage without its motors, in feet
+     * @param ignitionTime      the time the stage is lit, in seconds after launch
+     * @param separationTime    the time the stage is dropped, in seconds after launch
+     * @param motors            the motors of the stage
+     * @param ignitionDelays    the time each motor is lit, in seconds after the stage is
+     * @param motorCgX          the x position of the centre of gravity of the motors, in feet
+     * @param motorCgZ          the z position of the centre of gravity of the motors, in feet
+     * @param motorLength       the length of the motors, in feet
+     * @param motorRadius       the radius of the cylinder the motors fill, in feet
+     */
+    public RocketStage(String name, double structuralMass, Inertia structuralInertia, double structureCgX,
+            double structureCgZ, double ignitionTime, double separationTime, HobbyRocketEngine[] motors,
+            double[] ignitionDelays, double motorCgX, double motorCgZ, double motorLength, double motorRadius) {
+        if (!(separationTime > ignitionTime)) {
+            throw new IllegalArgumentException("A stage must be lit before it is dropped.");
+        }
+
+        this.name = name;
+        this.structuralMass = structuralMass;
+        this.structuralInertia = new Inertia(structuralMass, structuralInertia.getIxx(), structuralInertia.getIyy(),
+                structuralInertia.getIzz(), structuralInertia.getIxy(), structuralInertia.getIxz(),
+                structuralInertia.getIyz());
+        this.structureCgX = structureCgX;
+        this.structureCgZ = structureCgZ;
+        this.ignitionTime = ignitionTime;
+        this.separationTime = separationTime;
+        this.motorCgX = motorCgX;
+        this.motorCgZ = motorCgZ;
+        this.motorLength = motorLength;
+        this.motorRadius = motorRadius;
+
+        double[] ignitionTimes = new double[ignitionDelays.length];
+        for (int i = 0; i < ignitionTimes.length; i++) {
+            ignitionTimes[i] = ignitionTime + ignitionDelays[i];
+        }
+        this.engine = HobbyRocketEngine.cluster(name, motors, ignitionTimes);
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @return the structure of the stage, as a part of a vehicle for an {@link InertiaTable}
+     */
+    public InertiaTable.Component getStructure() {
+        return InertiaTable.rigidBody(this.structuralMass, this.structuralInertia, this.structureCgX,
+                this.structureCgZ);
+    }
+
+    /**
+     *
+     * @return the motors of the stage, as a part of a vehicle for an {@link InertiaTable}
+     */
+    public InertiaTable.Component getMotors() {
+        return InertiaTable.motor(this.engine, this.motorCgX, this.motorCgZ, this.motorLength, this.motorRadius);
+    }
+
+}
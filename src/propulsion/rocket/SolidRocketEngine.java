@@ -23,6 +23,8 @@
  */
 package propulsion.rocket;
 
+import propulsion.PropulsionSample;
+
 /**
  *
  * @author nathan
@@ -34,8 +36,72 @@ public interface SolidRocketEngine extends RocketEngine {
     double getBurnTime();
     
     
+    /**
+     * 
+     * @return the mass of the engine at ignition
+     */
+    default double getInitialMass() {
+        return this.getMass(0.0);
+    }
+    
+    /**
+     * 
+     * @return the mass of the engine at burnout
+     */
+    default double getBurnoutMass() {
+        return this.getMass(this.getBurnTime());
+    }
+    
+    /**
+     * 
+     * @return the total impulse of the engine, in pound-seconds
+     */
+    default double getTotalImpulse() {
+        // Simpson's rule
+        int intervals = 1000;
+        double step = this.getBurnTime() / intervals;
+        double sum = this.getThrust(0.0) + this.getThrust(this.getBurnTime());
+        for (int i = 1; i < intervals; i++) {
+            sum += (i % 2 == 0 ? 2.0 : 4.0) * this.getThrust(i * step);
+        }
+        return sum * step / 3.0;
+    }
+    
+    
     // Public Methods
     double getThrust(double time);
     double getMass(double time);
     
+    /**
+     * Finds how much of the mass the engine loses during its burn has been lost at a time.
+     * 
+     * @param time the time since ignition, in seconds
+     * 
+     * @return the fraction of the mass lost, from zero at ignition to one at burnout, or one for an engine that loses
+     *         no mass
+     */
+    default double getBurnFraction(double time) {
+        double initialMass = this.getInitialMass();
+        double totalDifference = this.getBurnoutMass() - initialMass;
+        if (totalDifference == 0.0) {
+            return 1.0;
+        }
+        
+        double currentDifference = this.getMass(time) - initialMass;
+        return Math.max(0.0, Math.min(1.0, currentDifference / totalDifference));
+    }
+    
+    /**
+     * Fills a propulsion sample with the thrust, mass, mass rate and burn fraction of the engine at a time. The mass
+     * rate is estimated by a central difference.
+     * 
+     * @param time   the time since ignition, in seconds
+     * @param sample the sample to fill
+     */
+    default void sample(double time, PropulsionSample sample) {
+        double step = 1e-4;
+        double massRate = (this.getMass(time + step) - this.getMass(time - step)) / (2.0 * step);
+        sample.set(time, this.getThrust(time), this.getMass(time), massRate, this.getBurnFraction(time));
+    }
+    
 }
@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package propulsion.rocket;
+
+import dynamics.Inertia;
+import dynamics.SystemState;
+import dynamics.analysis.InertiaModel;
+import dynamics.analysis.InertiaTable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import propulsion.PropulsionForceModel;
+import propulsion.PropulsionSample;
+
+/**
+ * Propels a multi-stage rocket and tracks its changing inertia.
+ *
+ * Stages are listed from the first to burn, at the bottom of the stack, to the last, and are dropped in that order.
+ * Between two separations the vehicle is a fixed set of stages, and the motors of every stage in it are merged into one
+ * engine when the model is created, so each step looks up a single table no matter how many motors are burning. The
+ * structure of a dropped stage leaves with it, along with whatever is left of its motors. The last stage is never
+ * dropped.
+ *
+ * The inertia of each set of stages is precomputed in an {@link InertiaTable}, which moves the structure and motors of
+ * every stage in the set to the centre of gravity of the set with the parallel axis theorem.
+ *
+ * @author Nathan Templon
+ */
+public class StagedPropulsionModel implements PropulsionForceModel, InertiaModel {
+
+    // Fields
+    private final List<RocketStage> stages;
+    private final double[] separationTimes;
+    private final Configuration[] configurations;
+
+
+    // Properties
+    public List<RocketStage> getStages() {
+        return this.stages;
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param stages the stages, from the first to burn to the last
+     */
+    public StagedPropulsionModel(RocketStage... stages) {
+        if (stages.length == 0) {
+            throw new IllegalArgumentException("A rocket needs at least one stage.");
+        }
+        for (int i = 0; i < stages.length - 1; i++) {
+            if (Double.isInfinite(stages[i].getSeparationTime())) {
+                throw new IllegalArgumentException("Every stage but the last must be dropped.");
+            }
+            if (i > 0 && !(stages[i].getSeparationTime() > stages[i - 1].getSeparationTime())) {
+                throw new IllegalArgumentException("Stages must be dropped in the order they are listed.");
+            }
+        }
+
+        this.stages = Collections.unmodifiableList(Arrays.asList(stages.clone()));
+        this.separationTimes = new double[stages.length];
+        this.configurations = new Configuration[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            this.separationTimes[i] = stages[i].getSeparationTime();
+            this.configurations[i] = new Configuration(Arrays.copyOfRange(stages, i, stages.length));
+        }
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param time the time since launch, in seconds
+     *
+     * @return the index of the lowest stage still attached at the time, which is also the number of stages dropped
+     */
+    public int getStage(double time) {
+        int stage = 0;
+        while (stage < this.separationTimes.length - 1 && time >= this.separationTimes[stage]) {
+            stage++;
+        }
+        return stage;
+    }
+
+    /**
+     *
+     * @param time the time since launch, in seconds
+     *
+     * @return the mass of the vehicle, in slugs
+     */
+    public double getMass(double time) {
+        Configuration configuration = this.configurations[this.getStage(time)];
+        return configuration.structuralMass + configuration.engine.getMass(time);
+    }
+
+    /**
+     *
+     * @param stage the index of the lowest attached stage
+     *
+     * @return the merged motors of the stages attached from that one up
+     */
+    public HobbyRocketEngine getEngine(int stage) {
+        return this.configurations[stage].engine;
+    }
+
+
+    // PropulsionForceModel Implementation
+    @Override
+    public double thrust(SystemState state) {
+        double time = state.getTime();
+        return this.configurations[this.getStage(time)].engine.getThrust(time);
+    }
+
+    @Override
+    public void sample(SystemState state, PropulsionSample sample) {
+        double time = state.getTime();
+        this.configurations[this.getStage(time)].engine.sample(time, sample);
+    }
+
+
+    // InertiaModel Implementation
+    @Override
+    public Inertia getInertia(double time) {
+        return this.configurations[this.getStage(time)].inertia.getInertia(time);
+    }
+
+
+    // Nested Classes
+    /**
+     * A set of stages flying together, with their motors merged and their inertia tabulated.
+     */
+    private static final class Configuration {
+
+        // Fields
+        private final HobbyRocketEngine engine;
+        private final double structuralMass;
+        private final InertiaTable inertia;
+
+
+        // Initialization
+        private Configuration(RocketStage[] stages) {
+            HobbyRocketEngine[] engines = new HobbyRocketEngine[stages.length];
+            double[] ignitionTimes = new double[stages.length];
+            InertiaTable.Component[] components = new InertiaTable.Component[2 * stages.length];
+            StringBuilder name = new StringBuilder();
+
+            double structure = 0.0;
+            for (int i = 0; i < stages.length; i++) {
+                RocketStage stage = stages[i];
+                engines[i] = stage.getEngine();
+                components[2 * i] = stage.getStructure();
+                components[2 * i + 1] = stage.getMotors();
+                if (i > 0) {
+                    name.append(" + ");
+                }
+                name.append(stage.getName());
+                structure += stage.getStructuralMass();
+            }
+
+            // The stage engines are already timed from launch
+            this.engine = HobbyRocketEngine.cluster(name.toString(), engines, ignitionTimes);
+            this.structuralMass = structure;
+            this.inertia = new InertiaTable(InertiaTable.gridOf(engines), components);
+        }
+
+    }
+
+}
@@ -28,11 +28,11 @@ import aero.fluid.Fluid;
 import aero.fluid.IdealGas;
 import com.jupiter.ganymede.math.geometry.Angle;
 import com.jupiter.ganymede.math.vector.Vector;
-import com.jupiter.ganymede.math.vector.Vector3;
 import dynamics.AerodynamicSystem;
 import dynamics.SystemState;
 import dynamics.airplane.PDRSeniorDesignPlane;
 import dynamics.airplane.Sharp3;
+import dynamics.airplane.WindModel;
 import dynamics.analysis.simulation.PitchOverExitCondition;
 import dynamics.analysis.simulation.PitchOverRecorder;
 import dynamics.analysis.simulation.Simulation;
@@ -56,7 +56,9 @@ public class Sharp3Tester {
         Fluid fluid = new IdealGas(
                 28.97, // Molar Mass
                 1.4, // Heat Ratio
-                3.86e-7);       // Viscosity
+                3.86e-7, // Viscosity at the reference temperature
+                99.0 + 459.0, // Reference temperature (Rankine)
+                198.72);        // Sutherland temperature (Rankine)
 
         double intialTime = 0.0;
         Vector initialVector = new Vector(
@@ -80,7 +82,7 @@ public class Sharp3Tester {
 
         AerodynamicSystem system = new AerodynamicSystem(rocket, reference, rocket, rocket,
                 initialState, fluid,
-                (double time) -> new Vector3(0, 0, 0) // Wind Model
+                WindModel.CALM // Wind Model
         );
         system.setUseLaunchRod(true);
         
@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package util;
+
+import exception.SingularMatrixException;
+
+/**
+ * The LU factorization of a square matrix, with partial pivoting. The matrix is factored once, after which each
+ * right-hand side is solved by a forward and a back substitution.
+ *
+ * @author Nathan Templon
+ */
+public class LUDecomposition {
+
+    // Fields
+    private final double[][] factors;
+    private final int[] pivots;
+
+
+    // Properties
+    public int getSize() {
+        return this.factors.length;
+    }
+
+
+    // Initialization
+    /**
+     * Factors a matrix.
+     *
+     * @param matrix the matrix, indexed by row and then column, which is not modified
+     *
+     * @throws SingularMatrixException if the matrix is singular
+     */
+    public LUDecomposition(double[][] matrix) {
+        int size = matrix.length;
+        this.factors = new double[size][];
+        for (int i = 0; i < size; i++) {
+            if (matrix[i].length != size) {
+                throw new IllegalArgumentException("The matrix must be square.");
+            }
+            this.factors[i] = matrix[i].clone();
+        }
+        this.pivots = new int[size];
+
+        for (int k = 0; k < size; k++) {
+            int pivot = k;
+            double largest = Math.abs(this.factors[k][k]);
+            for (int i = k + 1; i < size; i++) {
+                double magnitude = Math.abs(this.factors[i][k]);
+                if (magnitude > largest) {
+                    largest = magnitude;
+                    pivot = i;
+                }
+            }
+            if (largest == 0.0) {
+                throw new SingularMatrixException("The matrix is singular.");
+            }
+
+            this.pivots[k] = pivot;
+            if (pivot != k) {
+                double[] row = this.factors[k];
+                this.factors[k] = this.factors[pivot];
+                this.factors[pivot] = row;
+            }
+
+            double[] pivotRow = this.factors[k];
+            for (int i = k + 1; i < size; i++) {
+                double[] row = this.factors[i];
+                double multiplier = row[k] / pivotRow[k];
+                row[k] = multiplier;
+                if (multiplier != 0.0) {
+                    for (int j = k + 1; j < size; j++) {
+                        row[j] -= multiplier * pivotRow[j];
+                    }
+                }
+            }
+        }
+    }
+
+
+    // Public Methods
+    /**
+     * Solves the system for a right-hand side, in place.
+     *
+     * @param values the right-hand side, which is overwritten with the solution
+     */
+    public void solveInPlace(double[] values) {
+        int size = this.factors.length;
+        if (values.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " values, but got " + values.length + ".");
+        }
+
+        for (int k = 0; k < size; k++) {
+            int pivot = this.pivots[k];
+            if (pivot != k) {
+                double swap = values[k];
+                values[k] = values[pivot];
+                values[pivot] = swap;
+            }
+        }
+
+        for (int i = 1; i < size; i++) {
+            double[] row = this.factors[i];
+            double sum = values[i];
+            for (int j = 0; j < i; j++) {
+                sum -= row[j] * values[j];
+            }
+            values[i] = sum;
+        }
+
+        for (int i = size - 1; i >= 0; i--) {
+            double[] row = this.factors[i];
+            double sum = values[i];
+            for (int j = i + 1; j < size; j++) {
+                sum -= row[j] * values[j];
+            }
+            values[i] = sum / row[i];
+        }
+    }
+
+    /**
+     * Solves the system for a right-hand side.
+     *
+     * @param values the right-hand side, which is not modified
+     *
+     * @return the solution
+     */
+    public double[] solve(double[] values) {
+        double[] solution = values.clone();
+        this.solveInPlace(solution);
+        return solution;
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package util;
+
+import com.jupiter.ganymede.math.function.SingleVariableRealFunction;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A real function of one real variable that works on primitive doubles.
+ *
+ * Ganymede's {@link SingleVariableRealFunction} takes and returns boxed {@link Double}s, so every evaluation allocates.
+ * The coefficient, geometry and engine curves that are evaluated in the inner loop of a simulation use this type
+ * instead, and {@link #of(SingleVariableRealFunction)} and {@link #boxed()} convert between the two where Ganymede
+ * functions are needed.
+ *
+ * @author Nathan Templon
+ */
+@FunctionalInterface
+public interface RealFunction extends DoubleUnaryOperator {
+
+    // Public Methods
+    /**
+     *
+     * @return this function as a boxed Ganymede function
+     */
+    default SingleVariableRealFunction boxed() {
+        return new Boxed(this);
+    }
+
+    /**
+     *
+     * @param factor the factor to scale by
+     *
+     * @return a function whose values are those of this function multiplied by a factor
+     */
+    default RealFunction scaled(double factor) {
+        return (double x) -> factor * this.applyAsDouble(x);
+    }
+
+
+    // Public Static Methods
+    /**
+     * Adapts a boxed Ganymede function. A function that was created by {@link #boxed()} is unwrapped rather than
+     * adapted again.
+     *
+     * @param function the boxed function
+     *
+     * @return the primitive function
+     */
+    public static RealFunction of(SingleVariableRealFunction function) {
+        if (function instanceof Boxed) {
+            return ((Boxed) function).function;
+        }
+        return (double x) -> function.apply(x);
+    }
+
+    /**
+     *
+     * @param value the value of the function
+     *
+     * @return a function with the same value everywhere
+     */
+    public static RealFunction constant(double value) {
+        return (double x) -> value;
+    }
+
+    /**
+     * Creates a function that interpolates linearly between points, and holds the first and last values outside of
+     * them.
+     *
+     * @param points the points, each an array of an x value and a y value, in strictly increasing order of x
+     *
+     * @return the function
+     */
+    public static TableFunction table(double[][] points) {
+        double[] x = new double[points.length];
+        double[] y = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            x[i] = points[i][0];
+            y[i] = points[i][1];
+        }
+        return table(x, y);
+    }
+
+    /**
+     * Creates a function that interpolates linearly between points, and holds the first and last values outside of
+     * them. See {@link TableFunction}.
+     *
+     * @param x the x values of the points, which must be strictly increasing
+     * @param y the y values of the points
+     *
+     * @return the function
+     */
+    public static TableFunction table(double[] x, double[] y) {
+        return new TableFunction(x, y);
+    }
+
+
+    // Nested Classes
+    /**
+     * The boxed view of a primitive function, which remembers the function so it can be unwrapped.
+     */
+    static class Boxed implements SingleVariableRealFunction {
+
+        // Fields
+        private final RealFunction function;
+
+
+        // Initialization
+        Boxed(RealFunction function) {
+            this.function = function;
+        }
+
+
+        // SingleVariableRealFunction Implementation
+        @Override
+        public Double apply(Double x) {
+            return this.function.applyAsDouble(x);
+        }
+
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package util;
+
+import java.util.Arrays;
+
+/**
+ * A function that interpolates linearly between points, and holds the first and last values outside of them.
+ *
+ * The points are stored in primitive arrays along with the slope of each segment and the integral of the function up
+ * to each point, so an evaluation is a comparison or two and one multiply-add once its segment is known. Segments are
+ * found through a {@link UniformIndex}, which needs no search and keeps no state, so a function can be shared by any
+ * number of threads evaluating it at unrelated inputs.
+ *
+ * @author Nathan Templon
+ */
+public class TableFunction implements RealFunction {
+
+    // Fields
+    private final double[] x;
+    private final double[] y;
+    private final double[] slopes;
+    private final double[] integrals;
+    private final int last;
+    private final UniformIndex index;
+
+
+    // Properties
+    public double[] getX() {
+        return this.x.clone();
+    }
+
+    public double[] getY() {
+        return this.y.clone();
+    }
+
+    public double getFirstX() {
+        return this.x[0];
+    }
+
+    public double getLastX() {
+        return this.x[this.last];
+    }
+
+
+    // Initialization
+    /**
+     *
+     * @param x the x values of the points, which must be strictly increasing
+     * @param y the y values of the points
+     */
+    public TableFunction(double[] x, double[] y) {
+        if (x.length == 0 || x.length != y.length) {
+            throw new IllegalArgumentException("A table needs at least one point, and one y value per x value.");
+        }
+        for (int i = 1; i < x.length; i++) {
+            if (!(x[i] > x[i - 1])) {
+                throw new IllegalArgumentException("The x values of a table must be strictly increasing.");
+            }
+        }
+
+        this.x = x.clone();
+        this.y = y.clone();
+        this.last = x.length - 1;
+        this.slopes = new double[Math.max(1, this.last)];
+        this.integrals = new double[x.length];
+        for (int i = 0; i < this.last; i++) {
+            double width = x[i + 1] - x[i];
+            this.slopes[i] = (y[i + 1] - y[i]) / width;
+            this.integrals[i + 1] = this.integrals[i] + 0.5 * (y[i] + y[i + 1]) * width;
+        }
+        this.index = new UniformIndex(this.x);
+    }
+
+
+    // Public Methods
+    @Override
+    public double applyAsDouble(double input) {
+        if (Double.isNaN(input)) {
+            return Double.NaN;
+        }
+        if (input <= this.x[0]) {
+            return this.y[0];
+        }
+        if (input >= this.x[this.last]) {
+            return this.y[this.last];
+        }
+
+        int segment = this.segmentOf(input);
+        return this.y[segment] + this.slopes[segment] * (input - this.x[segment]);
+    }
+
+    @Override
+    public TableFunction scaled(double factor) {
+        double[] scaled = new double[this.y.length];
+        for (int i = 0; i < scaled.length; i++) {
+            scaled[i] = factor * this.y[i];
+        }
+        return new TableFunction(this.x, scaled);
+    }
+
+    /**
+     * Finds the segment holding an input. Tables with the same x values can all be evaluated at that segment with
+     * {@link #valueAt(int, double)} and {@link #slopeAt(int)}, so several curves of one variable share a single search.
+     *
+     * @param input the input
+     *
+     * @return the index of the point starting the segment, -1 before the first point, or the index of the last point
+     *         at or after it
+     */
+    public int locate(double input) {
+        if (!(input > this.x[0])) {
+            return -1;
+        }
+        if (input >= this.x[this.last]) {
+            return this.last;
+        }
+        return this.segmentOf(input);
+    }
+
+    /**
+     *
+     * @param segment a segment found by {@link #locate(double)} on this table or one with the same x values
+     * @param input   the input the segment was found for
+     *
+     * @return the value of the function at the input
+     */
+    public double valueAt(int segment, double input) {
+        if (Double.isNaN(input)) {
+            return Double.NaN;
+        }
+        if (segment < 0) {
+            return this.y[0];
+        }
+        if (segment >= this.last) {
+            return this.y[this.last];
+        }
+        return this.y[segment] + this.slopes[segment] * (input - this.x[segment]);
+    }
+
+    /**
+     *
+     * @param segment a segment found by {@link #locate(double)} on this table or one with the same x values
+     *
+     * @return the slope of the function in the segment, which is zero outside of the points
+     */
+    public double slopeAt(int segment) {
+        if (segment < 0 || segment >= this.last) {
+            return 0.0;
+        }
+        return this.slopes[segment];
+    }
+
+    /**
+     *
+     * @param other another table
+     *
+     * @return whether the other table has the same x values, so that its segments are those of this table
+     */
+    public boolean hasSameX(TableFunction other) {
+        return other == this || Arrays.equals(this.x, other.x);
+    }
+
+    /**
+     * Integrates the function exactly, including the constant extensions outside of the points.
+     *
+     * @param from the lower limit of integration
+     * @param to   the upper limit of integration
+     *
+     * @return the integral of the function from one limit to the other
+     */
+    public double integral(double from, double to) {
+        return this.antiderivative(to) - this.antiderivative(from);
+    }
+
+
+    // Private Methods
+    /**
+     *
+     * @return the segment holding an input that is strictly inside of the points
+     */
+    private int segmentOf(double input) {
+        return this.index.segmentOf(input);
+    }
+
+    /**
+     *
+     * @return the integral of the function from the first point to an input
+     */
+    private double antiderivative(double input) {
+        if (input <= this.x[0]) {
+            return this.y[0] * (input - this.x[0]);
+        }
+        if (input >= this.x[this.last]) {
+            return this.integrals[this.last] + this.y[this.last] * (input - this.x[this.last]);
+        }
+
+        int segment = this.segmentOf(input);
+        double dx = input - this.x[segment];
+        return this.integrals[segment] + dx * (this.y[segment] + 0.5 * this.slopes[segment] * dx);
+    }
+
+}
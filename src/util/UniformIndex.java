@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Nathan Templon.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Finds the segment of a set of increasing points that holds a value, without searching and without any state.
+ *
+ * The range of the points is split into equal buckets, at least as many as there are segments, and the first segment
+ * of each bucket is stored. A lookup divides to find its bucket and then steps over the few segments that start in the
+ * bucket, or searches them if the points are so uneven that many do. Since nothing changes after construction, an index
+ * can be shared between any number of threads.
+ *
+ * @author Nathan Templon
+ */
+public class UniformIndex {
+
+    // Constants
+    private static final int BUCKETS_PER_SEGMENT = 4;
+    private static final int MAX_BUCKETS = 1 << 16;
+    private static final int LINEAR_SCAN_LIMIT = 8;
+
+
+    // Fields
+    private final double[] x;
+    private final int last;
+    private final double first;
+    private final double inverseWidth;
+    private final int buckets;
+    private final int[] bucketStarts;
+
+
+    // Initialization
+    /**
+     *
+     * @param x the points, which must be strictly increasing; the array is not copied and must not be changed
+     */
+    public UniformIndex(double[] x) {
+        this.x = x;
+        this.last = x.length - 1;
+        this.first = x[0];
+
+        if (this.last < 1) {
+            this.buckets = 1;
+            this.inverseWidth = 0.0;
+            this.bucketStarts = new int[]{0, 0};
+            return;
+        }
+
+        this.buckets = Math.min(MAX_BUCKETS, this.last * BUCKETS_PER_SEGMENT);
+        double width = (x[this.last] - x[0]) / this.buckets;
+        this.inverseWidth = 1.0 / width;
+        this.bucketStarts = new int[this.buckets + 1];
+        int segment = 0;
+        for (int bucket = 0; bucket <= this.buckets; bucket++) {
+            double edge = x[0] + bucket * width;
+            while (segment < this.last - 1 && x[segment + 1] <= edge) {
+                segment++;
+            }
+            this.bucketStarts[bucket] = segment;
+        }
+    }
+
+
+    // Public Methods
+    /**
+     *
+     * @param input a value strictly between the first and last points
+     *
+     * @return the index of the point starting the segment that holds the value
+     */
+    public int segmentOf(double input) {
+        int bucket = (int) ((input - this.first) * this.inverseWidth);
+        if (bucket >= this.buckets) {
+            bucket = this.buckets - 1;
+        }
+        else if (bucket < 0) {
+            bucket = 0;
+        }
+
+        int low = this.bucketStarts[bucket];
+        int high = this.bucketStarts[bucket + 1];
+        // Rounding can put the input just before the edge of its bucket
+        while (low > 0 && input < this.x[low]) {
+            low--;
+        }
+
+        if (high - low <= LINEAR_SCAN_LIMIT) {
+            while (low < high && input >= this.x[low + 1]) {
+                low++;
+            }
+            return low;
+        }
+
+        int index = Arrays.binarySearch(this.x, low, high + 1, input);
+        return index >= 0 ? index : -index - 2;
+    }
+
+}